@@ -5,23 +5,27 @@ import com.acmerobotics.roadrunner.Action;
 
 import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
- * Adapter class that wraps a RoadRunner Action into a Command
+ * Adapter class that wraps a RoadRunner Action into a Command.
+ * If the action is a {@link ResettableAction} it is reset every time the
+ * command is initialized, so the same ActionCommand can be scheduled again.
+ * <p>
+ * Pass the subsystems the action drives to let the scheduler arbitrate it
+ * like any other command; without them the action never conflicts.
  */
-public class ActionCommand implements Command {
+public class ActionCommand extends CommandBase {
     private final Action action;
     private boolean isFinished = false;
 
-    public ActionCommand(Action action) {
+    public ActionCommand(Action action, SubsystemBase... requirements) {
         this.action = action;
+        addRequirement(requirements);
     }
 
     @Override
     public void initialize() {
-        // Nothing to initialize
+        isFinished = false;
+        ResettableAction.reset(action);
     }
 
     @Override
@@ -29,9 +33,11 @@ public class ActionCommand implements Command {
         isFinished = !action.run(packet);
     }
 
-    @Override
-    public void end(boolean interrupted) {
-        // Nothing to clean up
+    /**
+     * Gets the wrapped action
+     */
+    public Action getAction() {
+        return action;
     }
 
     @Override
@@ -40,9 +46,11 @@ public class ActionCommand implements Command {
     }
 
     @Override
-    public Set<SubsystemBase> getRequirements() {
-        // Actions don't have requirements in the same way Commands do
-        return new HashSet<>();
+    public void end(boolean interrupted) {
+        // Let an action cut off mid-run close its own state, e.g. a trace span
+        if (interrupted && !isFinished) {
+            ResettableAction.reset(action);
+        }
     }
 
     @Override
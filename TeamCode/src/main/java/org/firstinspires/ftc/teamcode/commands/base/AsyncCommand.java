@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class for commands whose work is too heavy for the loop thread, e.g.
+ * pose solving or trajectory generation.
+ * <p>
+ * {@link #submit()} hands {@link #compute()} to a small shared worker pool
+ * and {@link #execute(TelemetryPacket)} polls the result without blocking.
+ * The result is passed to {@link #apply(Object, TelemetryPacket)} on the loop
+ * thread, so only apply() may touch hardware or subsystem state; compute()
+ * should work on inputs captured before submit(). Ending the command cancels
+ * a pending run: the worker is interrupted and its result dropped, and long
+ * computations should call {@link #checkCancelled()} between steps.
+ * The pool and its queue are bounded; if both are full the run fails
+ * immediately instead of making the loop wait.
+ * <p>
+ * By default the work is submitted in initialize() and the command finishes
+ * once the result has been applied.
+ */
+public abstract class AsyncCommand<T> extends CommandBase {
+    private static ThreadPoolExecutor executor;
+
+    private final Callable<T> task = this::compute;
+    private Future<T> future;
+    private Throwable failure; // rejected submit, reported by the next poll
+    private boolean done = false;
+
+    /**
+     * Runs on a worker thread.
+     *
+     * @return Result handed to {@link #apply(Object, TelemetryPacket)}
+     */
+    protected abstract T compute() throws Exception;
+
+    /**
+     * Runs on the loop thread once {@link #compute()} has returned.
+     */
+    protected abstract void apply(T result, TelemetryPacket packet);
+
+    /**
+     * Runs on the loop thread if {@link #compute()} threw or the pool was full.
+     */
+    protected void onError(Throwable error, TelemetryPacket packet) {
+        packet.put(getClass().getSimpleName() + "/error", String.valueOf(error));
+    }
+
+    @Override
+    public void initialize() {
+        submit();
+    }
+
+    @Override
+    public void execute(TelemetryPacket packet) {
+        poll(packet);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return done;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        cancel();
+    }
+
+    /**
+     * Start a new run of {@link #compute()}, cancelling any pending one.
+     */
+    protected final void submit() {
+        cancel();
+        done = false;
+        try {
+            future = getExecutor().submit(task);
+        } catch (RejectedExecutionException e) {
+            future = null;
+            failure = e;
+        }
+    }
+
+    /**
+     * Cancel the pending run, if any. Its result will never be applied.
+     */
+    protected final void cancel() {
+        if (future != null) {
+            future.cancel(true);
+            // Free its queue slot if it never started
+            getExecutor().remove((Runnable) future);
+            future = null;
+        }
+        failure = null;
+    }
+
+    /**
+     * Apply the result if the pending run has finished. Never blocks.
+     *
+     * @return Whether a result or error was handled during this call
+     */
+    protected final boolean poll(TelemetryPacket packet) {
+        if (failure != null) {
+            Throwable error = failure;
+            failure = null;
+            done = true;
+            onError(error, packet);
+            return true;
+        }
+        if (future == null || !future.isDone()) {
+            return false;
+        }
+        Future<T> finished = future;
+        future = null;
+        done = true;
+        try {
+            apply(finished.get(), packet);
+        } catch (ExecutionException e) {
+            onError(e.getCause(), packet);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether a run has been submitted and not yet handled
+     */
+    protected final boolean isPending() {
+        return future != null || failure != null;
+    }
+
+    /**
+     * Throw if the current run has been cancelled. Call from {@link #compute()}.
+     */
+    protected static void checkCancelled() throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            int threads = Math.max(1, ConfigVariables.General.ASYNC_WORKER_THREADS);
+            AtomicInteger count = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, ConfigVariables.General.ASYNC_QUEUE_CAPACITY)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "AsyncCommand-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        // Leave the loop thread ahead when cores are busy
+                        thread.setPriority(Thread.NORM_PRIORITY - 1);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+}
@@ -14,7 +14,9 @@ import java.util.Set;
  */
 public interface Command extends ActionConvertable {
     /**
-     * Initialize the command
+     * Initialize the command. Called every time the command is scheduled, so
+     * it must reset all per-run state; a command built once can then be
+     * scheduled again after it ends.
      */
     void initialize();
 
@@ -38,6 +40,14 @@ public interface Command extends ActionConvertable {
      */
     Set<SubsystemBase> getRequirements();
 
+    /**
+     * Gets the subsystems required by this command as a bitmask, one bit per
+     * scheduler slot. Implementations should cache this where they can.
+     */
+    default long getRequirementMask() {
+        return CommandScheduler.getInstance().requirementMask(getRequirements());
+    }
+
     /**
      * Gets the timeout for this command in milliseconds
      *
@@ -48,30 +58,95 @@ public interface Command extends ActionConvertable {
     }
 
     /**
-     * Convert command to RoadRunner Action
+     * Gets the scheduling priority of this command, read once when it is scheduled
+     */
+    default Priority getPriority() {
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Gets how often execute() runs: every tick for 1, every other tick for 2
+     * and so on. Read once when the command is scheduled.
+     */
+    default int getExecuteDivisor() {
+        return 1;
+    }
+
+    /**
+     * Gets the data this command produces as a {@link DataKey} mask. The
+     * scheduler runs it before commands consuming any of it. Read once when
+     * the command is scheduled.
+     */
+    default long getProducesMask() {
+        return 0;
+    }
+
+    /**
+     * Gets the data this command reads as a {@link DataKey} mask. Read once
+     * when the command is scheduled.
+     */
+    default long getConsumesMask() {
+        return 0;
+    }
+
+    /**
+     * Gets this command's index in the scheduler's command arrays, or -1 when
+     * it is not scheduled. Kept by the scheduler; like
+     * {@link SubsystemBase#getSchedulerSlot()} it lets schedule() and cancel()
+     * find a command without a scan.
+     */
+    int getSchedulerIndex();
+
+    /**
+     * Sets this command's index in the scheduler's command arrays. Only the
+     * scheduler should call this.
+     */
+    void setSchedulerIndex(int index);
+
+    /**
+     * Convert command to RoadRunner Action. The action can be reset, which
+     * makes it initialize the command again on its next run.
      */
     @Override
     default Action toAction() {
-        return new Action() {
+        return new ResettableAction() {
             private boolean initialized = false;
+            private boolean ended = false;
+
+            @Override
+            public void reset() {
+                // Close the trace span of a run that was dropped before it ended
+                if (initialized && !ended) {
+                    CommandTracer.end(Command.this, true);
+                }
+                initialized = false;
+            }
 
             @Override
             public boolean run(@NonNull TelemetryPacket packet) {
                 if (!initialized) {
+                    CommandTracer.initialize(Command.this);
                     initialize();
                     initialized = true;
+                    ended = false;
                 }
                 if (isFinished()) {
                     end(false);
+                    ended = true;
+                    CommandTracer.end(Command.this, false);
                     return false;
                 }
+                CommandTracer.executeBegin(Command.this);
                 execute(packet);
+                CommandTracer.executeEnd(Command.this);
 
                 if (!isFinished()) {
                     return true;
                 }
 
                 end(false);
+                ended = true;
+                CommandTracer.end(Command.this, false);
                 return false;
             }
         };
@@ -14,6 +14,11 @@ import java.util.Set;
  */
 public abstract class CommandBase implements Command {
     private final Set<SubsystemBase> requirements = new HashSet<>();
+    private long requirementMask;
+    private int requirementMaskGeneration = -1;
+    private long producesMask;
+    private long consumesMask;
+    private int schedulerIndex = -1;
 
     /**
      * Gets the subsystems required by this command
@@ -27,6 +32,63 @@ public abstract class CommandBase implements Command {
      */
     protected void addRequirement(SubsystemBase... requirements) {
         Collections.addAll(this.requirements, requirements);
+        requirementMaskGeneration = -1;
+    }
+
+    /**
+     * Gets the requirement mask, recomputed only when requirements change or
+     * the scheduler reassigns slots
+     */
+    @Override
+    public long getRequirementMask() {
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        if (requirementMaskGeneration != scheduler.getGeneration()) {
+            requirementMask = scheduler.requirementMask(requirements);
+            requirementMaskGeneration = scheduler.getGeneration();
+        }
+        return requirementMask;
+    }
+
+    /**
+     * Declares data this command produces
+     */
+    protected void addProduces(DataKey... keys) {
+        producesMask |= DataKey.maskOf(keys);
+    }
+
+    /**
+     * Declares data this command reads
+     */
+    protected void addConsumes(DataKey... keys) {
+        consumesMask |= DataKey.maskOf(keys);
+    }
+
+    @Override
+    public long getProducesMask() {
+        return producesMask;
+    }
+
+    @Override
+    public long getConsumesMask() {
+        return consumesMask;
+    }
+
+    @Override
+    public int getSchedulerIndex() {
+        return schedulerIndex;
+    }
+
+    @Override
+    public void setSchedulerIndex(int index) {
+        this.schedulerIndex = index;
+    }
+
+    /**
+     * Declares everything another command produces and consumes, for groups
+     */
+    protected void addDataflow(Command command) {
+        producesMask |= command.getProducesMask();
+        consumesMask |= command.getConsumesMask();
     }
 
     @Override
@@ -3,31 +3,139 @@ package org.firstinspires.ftc.teamcode.commands.base;
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 
 import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * The command scheduler manages the execution of commands and coordinates
  * subsystem requirements.
+ * <p>
+ * All bookkeeping lives in dense, preallocated tables: every subsystem the
+ * scheduler knows about gets an integer slot, scheduled commands occupy the
+ * front of a command array and their start times live in a parallel
+ * {@code long[]}. A steady-state {@link #run(TelemetryPacket)} therefore
+ * allocates nothing. The shared {@link Clock} is sampled once at the start of
+ * each tick, so every command and controller sees the same loop time.
+ * <p>
+ * A subsystem's slot doubles as its bit in a {@code long} requirement mask,
+ * so conflict detection in {@link #schedule(Command)} is a single AND against
+ * the mask of currently owned subsystems. This caps the scheduler at
+ * {@value #MAX_SUBSYSTEMS} subsystems.
+ * <p>
+ * With {@code ConfigVariables.General.PROFILE_SCHEDULER} on, every
+ * {@code periodic()} and {@code execute()} call is timed into a
+ * {@link SchedulerProfiler}. When off, the only cost is one flag check per tick.
+ * <p>
+ * Commands and subsystems declare a {@link Priority}; deferrable work yields
+ * to the rest of the loop when the tick runs over its time budget.
+ * <p>
+ * Work that does not need the full loop rate can run every N-th tick: a
+ * subsystem's {@code periodic()} via {@link SubsystemBase#getPeriodicDivisor()},
+ * extra subsystem tasks via {@link #addPeriodicTask}, and commands via
+ * {@link Command#getExecuteDivisor()}. Each gets the phase that is least loaded
+ * at the time, so slow-rate work is spread across ticks. Tasks added with
+ * {@link #addPostCommandTask} run every tick after the commands, e.g. a control
+ * loop that should act on the setpoint commands set in the same tick.
+ * <p>
+ * Subsystems and commands can declare the {@link DataKey}s they produce and
+ * consume. Subsystems run in dataflow order, then commands in dataflow order,
+ * so a consumer always runs after the producers of its data in the same tick.
+ * Priority only orders work with no dataflow between it; a cycle is broken in
+ * priority order. Data a command produces is not seen by subsystems until the
+ * next tick, so sensor reads belong in a subsystem's periodic().
  */
 public class CommandScheduler {
+    public static final int MAX_SUBSYSTEMS = Long.SIZE;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Priority[] PRIORITIES = Priority.values();
+    // Ticks over which phase load is balanced, divisible by every divisor up to 6
+    private static final int PHASE_WINDOW = 60;
     private static CommandScheduler instance;
 
-    // Subsystems and their registered commands
-    private final Set<SubsystemBase> subsystems = new HashSet<>();
-    private final Map<SubsystemBase, Command> requirements = new HashMap<>();
-    private final Set<Command> scheduledCommands = new HashSet<>();
+    // Subsystems by slot, and the command owning each slot
+    private final SubsystemBase[] subsystems = new SubsystemBase[MAX_SUBSYSTEMS];
+    private final Command[] requirements = new Command[MAX_SUBSYSTEMS];
+    private SubsystemBase[] periodicSubsystems = new SubsystemBase[INITIAL_CAPACITY]; // priority order
+    private SubsystemBase[] periodicOrder = new SubsystemBase[INITIAL_CAPACITY];      // dataflow order
+    private int numSubsystems = 0;
+    private int numPeriodic = 0;
+    private long ownedMask = 0;
+
+    // Bumped on reset() so commands know their cached masks are stale
+    private int generation = 0;
+
+    // Scheduled commands, packed at the front of the array
+    private Command[] scheduledCommands = new Command[INITIAL_CAPACITY];
+    private long[] commandStartTimes = new long[INITIAL_CAPACITY];
+    private long[] commandMasks = new long[INITIAL_CAPACITY];
+    private int[] commandProfileIds = new int[INITIAL_CAPACITY];
+    private int[] commandPriorities = new int[INITIAL_CAPACITY];
+    private int[] commandDeferrals = new int[INITIAL_CAPACITY];
+    private int[] commandDivisors = new int[INITIAL_CAPACITY];
+    private int[] commandPhases = new int[INITIAL_CAPACITY];
+    private long[] commandProduces = new long[INITIAL_CAPACITY];
+    private long[] commandConsumes = new long[INITIAL_CAPACITY];
+    private int numScheduled = 0;
+
+    // Indices of scheduled commands in execution order, rebuilt when the schedule changes
+    private int[] commandOrder = new int[INITIAL_CAPACITY];
+    private int numOrdered = 0;
+    private boolean commandOrderDirty = false;
+
+    // Multi-rate execution
+    private final int[] subsystemDivisors = new int[MAX_SUBSYSTEMS];
+    private final int[] subsystemPhases = new int[MAX_SUBSYSTEMS];
+    private final int[] phaseLoad = new int[PHASE_WINDOW];
+    private PeriodicTask[] periodicTasks = new PeriodicTask[INITIAL_CAPACITY];
+    private int[] taskDeferrals = new int[INITIAL_CAPACITY];
+    private int numTasks = 0;
+    private PeriodicTask[] postCommandTasks = new PeriodicTask[0];
+    private long tickCount = 0;
+
+    // Loop budget tracking
+    private final int[] subsystemDeferrals = new int[MAX_SUBSYSTEMS];
+    private long tickStartNanos;
+    private long budgetNanos;
+    private long lastTickNanos;
+    private long overrunCount = 0;
+    private long deferredCount = 0;
+    private long forcedCount = 0;
+
+    // Telemetry channels
+    private final TelemetryChannels.LongChannel numSubsystemsChannel =
+            TelemetryChannels.getInstance().longChannel("CommandScheduler/numSubsystems");
+    private final TelemetryChannels.LongChannel numScheduledCommandsChannel =
+            TelemetryChannels.getInstance().longChannel("CommandScheduler/numScheduledCommands");
+    private final TelemetryChannels.DoubleChannel tickMsChannel =
+            TelemetryChannels.getInstance().doubleChannel("CommandScheduler/tickMs");
+    private final TelemetryChannels.LongChannel overrunsChannel =
+            TelemetryChannels.getInstance().longChannel("CommandScheduler/overruns");
+    private final TelemetryChannels.LongChannel deferredChannel =
+            TelemetryChannels.getInstance().longChannel("CommandScheduler/deferred");
+    private final TelemetryChannels.LongChannel forcedAfterDeferralChannel =
+            TelemetryChannels.getInstance().longChannel("CommandScheduler/forcedAfterDeferral");
+
+    // Profiling, ids are resolved lazily and -1 until then
+    private final SchedulerProfiler profiler = new SchedulerProfiler();
+    private SchedulerProfiler tickProfiler; // profiler for the current tick, null if disabled
+    private final int[] subsystemProfileIds = new int[MAX_SUBSYSTEMS];
+    private long lastProfilePublishTime; // ns
 
     // Command execution tracking
-    private final Map<Command, Long> commandStartTimes = new HashMap<>();
     private boolean running = true;
+    private boolean inRunLoop = false;
+    private boolean needsCompaction = false;
+    private long tickTime; // ns
+    private HardwareCycle[] hardwareCycles = new HardwareCycle[0];
 
     private CommandScheduler() {
+        Arrays.fill(subsystemProfileIds, -1);
     }
 
     public static CommandScheduler getInstance() {
@@ -43,10 +151,141 @@ public class CommandScheduler {
      * @param subsystem Subsystem to register
      */
     public void registerSubsystem(SubsystemBase subsystem) {
-        subsystems.add(subsystem);
+        for (int i = 0; i < numPeriodic; i++) {
+            if (periodicSubsystems[i] == subsystem) {
+                return;
+            }
+        }
+        slotOf(subsystem);
+        if (numPeriodic == periodicSubsystems.length) {
+            periodicSubsystems = Arrays.copyOf(periodicSubsystems, numPeriodic * 2);
+            periodicOrder = Arrays.copyOf(periodicOrder, numPeriodic * 2);
+        }
+
+        // Keep subsystems sorted by priority, in registration order within a class
+        int index = numPeriodic++;
+        int priority = subsystem.getPriority().ordinal();
+        while (index > 0 && periodicSubsystems[index - 1].getPriority().ordinal() > priority) {
+            periodicSubsystems[index] = periodicSubsystems[index - 1];
+            index--;
+        }
+        periodicSubsystems[index] = subsystem;
+        orderPeriodic();
+
+        int slot = subsystem.getSchedulerSlot();
+        subsystemDivisors[slot] = Math.max(1, subsystem.getPeriodicDivisor());
+        subsystemPhases[slot] = assignPhase(subsystemDivisors[slot]);
         subsystem.register();
     }
 
+    /**
+     * Run a task for a subsystem every {@code divisor} ticks, after the
+     * subsystems' periodic() methods. The task shares the subsystem's priority
+     * and profiler entry. Usually called from {@link SubsystemBase#register()}.
+     *
+     * @param owner   Subsystem the task belongs to
+     * @param divisor Run every this many ticks, 1 for every tick
+     * @param task    Task to run, given the tick's telemetry packet
+     */
+    public void addPeriodicTask(SubsystemBase owner, int divisor, Consumer<TelemetryPacket> task) {
+        addPeriodicTask(owner, divisor, task, owner.getPriority());
+    }
+
+    /**
+     * Run a task for a subsystem every {@code divisor} ticks with its own
+     * priority, e.g. a DEFERRABLE telemetry task on a control-critical
+     * subsystem. The task shares the subsystem's profiler entry.
+     *
+     * @param owner    Subsystem the task belongs to
+     * @param divisor  Run every this many ticks, 1 for every tick
+     * @param task     Task to run, given the tick's telemetry packet
+     * @param priority Scheduling priority of the task
+     */
+    public void addPeriodicTask(SubsystemBase owner, int divisor, Consumer<TelemetryPacket> task,
+                                Priority priority) {
+        slotOf(owner);
+        if (numTasks == periodicTasks.length) {
+            periodicTasks = Arrays.copyOf(periodicTasks, numTasks * 2);
+            taskDeferrals = Arrays.copyOf(taskDeferrals, numTasks * 2);
+        }
+        divisor = Math.max(1, divisor);
+        taskDeferrals[numTasks] = 0;
+        periodicTasks[numTasks++] = new PeriodicTask(owner, priority, divisor, assignPhase(divisor), task);
+    }
+
+    /**
+     * Run a task for a subsystem every tick after all commands have executed
+     * and before hardware cycles end, so outputs it sets go out in the same
+     * tick's flush. The task shares the subsystem's priority and profiler entry
+     * but is never deferred. Usually called from {@link SubsystemBase#register()}.
+     *
+     * @param owner Subsystem the task belongs to
+     * @param task  Task to run, given the tick's telemetry packet
+     */
+    public void addPostCommandTask(SubsystemBase owner, Consumer<TelemetryPacket> task) {
+        slotOf(owner);
+        postCommandTasks = Arrays.copyOf(postCommandTasks, postCommandTasks.length + 1);
+        postCommandTasks[postCommandTasks.length - 1] = new PeriodicTask(owner, owner.getPriority(), 1, 0, task);
+    }
+
+    /**
+     * Convert a target rate into a tick divisor, assuming the nominal loop
+     * rate in {@code ConfigVariables.General.NOMINAL_LOOP_HZ}.
+     *
+     * @param rateHz Target rate in Hz
+     * @return Divisor of at least 1
+     */
+    public static int divisorForRate(double rateHz) {
+        if (rateHz <= 0) {
+            return 1;
+        }
+        return Math.max(1, (int) Math.round(ConfigVariables.General.NOMINAL_LOOP_HZ / rateHz));
+    }
+
+    /**
+     * Get the dense slot of a subsystem, assigning one if the scheduler has not
+     * seen it yet. Subsystems only required by commands get a slot too, but are
+     * not run periodically unless registered.
+     */
+    int slotOf(SubsystemBase subsystem) {
+        int slot = subsystem.getSchedulerSlot();
+        if (slot >= 0 && slot < numSubsystems && subsystems[slot] == subsystem) {
+            return slot;
+        }
+        if (numSubsystems == MAX_SUBSYSTEMS) {
+            throw new IllegalStateException("CommandScheduler supports at most "
+                    + MAX_SUBSYSTEMS + " subsystems");
+        }
+        slot = numSubsystems++;
+        subsystems[slot] = subsystem;
+        subsystem.setSchedulerSlot(slot);
+        return slot;
+    }
+
+    /**
+     * Build the requirement mask for a set of subsystems, assigning slots as
+     * needed. Commands normally cache the result, see
+     * {@link Command#getRequirementMask()}.
+     *
+     * @param requirements Subsystems required by a command
+     * @return Mask with the bit of each subsystem's slot set
+     */
+    public long requirementMask(Set<SubsystemBase> requirements) {
+        long mask = 0;
+        for (SubsystemBase requirement : requirements) {
+            mask |= 1L << slotOf(requirement);
+        }
+        return mask;
+    }
+
+    /**
+     * Get the current slot generation. Changes whenever slots are reassigned,
+     * which invalidates any cached requirement masks.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
     /**
      * Schedule a command to run.
      *
@@ -57,19 +296,62 @@ public class CommandScheduler {
             return;
         }
 
-        // Check requirements and cancel any conflicting commands
-        for (SubsystemBase requirement : command.getRequirements()) {
-            Command currentCommand = requirements.get(requirement);
-            if (currentCommand != null && currentCommand != command) {
+        long mask = command.getRequirementMask();
+
+        // Cancel any commands holding one of the required subsystems
+        long conflicts = ownedMask & mask;
+        while (conflicts != 0) {
+            Command currentCommand = requirements[Long.numberOfTrailingZeros(conflicts)];
+            if (currentCommand != command) {
                 cancel(currentCommand);
             }
-            requirements.put(requirement, command);
-            requirement.setCurrentCommand(command);
+            // Cancelling releases every bit the other command held
+            conflicts &= (conflicts - 1) & ownedMask;
+        }
+
+        // Claim the required subsystems
+        long claimed = mask;
+        while (claimed != 0) {
+            int slot = Long.numberOfTrailingZeros(claimed);
+            requirements[slot] = command;
+            subsystems[slot].setCurrentCommand(command);
+            claimed &= claimed - 1;
         }
+        ownedMask |= mask;
 
-        if (scheduledCommands.add(command)) {
+        if (indexOf(command) < 0) {
+            // Entries must not move while run() is iterating over them
+            if (numScheduled == scheduledCommands.length && !inRunLoop) {
+                compact();
+            }
+            if (numScheduled == scheduledCommands.length) {
+                scheduledCommands = Arrays.copyOf(scheduledCommands, numScheduled * 2);
+                commandStartTimes = Arrays.copyOf(commandStartTimes, numScheduled * 2);
+                commandMasks = Arrays.copyOf(commandMasks, numScheduled * 2);
+                commandProfileIds = Arrays.copyOf(commandProfileIds, numScheduled * 2);
+                commandPriorities = Arrays.copyOf(commandPriorities, numScheduled * 2);
+                commandDeferrals = Arrays.copyOf(commandDeferrals, numScheduled * 2);
+                commandDivisors = Arrays.copyOf(commandDivisors, numScheduled * 2);
+                commandPhases = Arrays.copyOf(commandPhases, numScheduled * 2);
+                commandProduces = Arrays.copyOf(commandProduces, numScheduled * 2);
+                commandConsumes = Arrays.copyOf(commandConsumes, numScheduled * 2);
+                commandOrder = Arrays.copyOf(commandOrder, numScheduled * 2);
+            }
+            int index = numScheduled++;
+            scheduledCommands[index] = command;
+            command.setSchedulerIndex(index);
+            commandMasks[index] = mask;
+            commandProfileIds[index] = -1;
+            commandPriorities[index] = command.getPriority().ordinal();
+            commandDeferrals[index] = 0;
+            commandDivisors[index] = Math.max(1, command.getExecuteDivisor());
+            commandPhases[index] = assignPhase(commandDivisors[index]);
+            commandProduces[index] = command.getProducesMask();
+            commandConsumes[index] = command.getConsumesMask();
+            commandOrderDirty = true;
+            CommandTracer.initialize(command);
             command.initialize();
-            commandStartTimes.put(command, System.currentTimeMillis());
+            commandStartTimes[index] = inRunLoop ? tickTime : Clocks.get().nanoTime();
         }
     }
 
@@ -79,22 +361,33 @@ public class CommandScheduler {
      * @param command Command to cancel
      */
     public void cancel(Command command) {
-        if (command == null || !scheduledCommands.contains(command)) {
+        if (command == null) {
+            return;
+        }
+        int index = indexOf(command);
+        if (index < 0) {
             return;
         }
 
         command.end(true);
-        scheduledCommands.remove(command);
-        commandStartTimes.remove(command);
+        CommandTracer.end(command, true);
+        remove(index);
+    }
 
-        for (SubsystemBase requirement : command.getRequirements()) {
-            requirements.remove(requirement);
-            requirement.setCurrentCommand(null);
-        }
+    /**
+     * Whether the given command is currently scheduled.
+     */
+    public boolean isScheduled(Command command) {
+        return command != null && indexOf(command) >= 0;
     }
 
     /**
      * Run one iteration of the scheduler.
+     * <p>
+     * Work runs in priority order. Once the tick has used up
+     * {@code ConfigVariables.General.LOOP_BUDGET_MS}, deferrable subsystems and
+     * commands are skipped until a later tick, but never for more than
+     * {@code MAX_DEFERRED_TICKS} ticks in a row.
      *
      * @param packet Telemetry packet for logging
      */
@@ -103,64 +396,389 @@ public class CommandScheduler {
             return;
         }
 
-        // Run subsystem periodic methods
-        for (SubsystemBase subsystem : subsystems) {
-            subsystem.periodic(packet);
+        tickStartNanos = System.nanoTime();
+        tickCount++;
+        Clock clock = Clocks.get();
+        clock.update();
+        tickTime = clock.nanoTime();
+        inRunLoop = true;
+        for (HardwareCycle cycle : hardwareCycles) {
+            cycle.beginCycle();
+        }
+        tickProfiler = ConfigVariables.General.PROFILE_SCHEDULER ? profiler : null;
+        budgetNanos = (long) (ConfigVariables.General.LOOP_BUDGET_MS * Clock.NANOS_PER_MILLI);
+
+        // Run subsystem periodic methods, producers before consumers
+        for (int i = 0; i < numPeriodic; i++) {
+            SubsystemBase subsystem = periodicOrder[i];
+            int slot = subsystem.getSchedulerSlot();
+            if (isDue(subsystemDivisors[slot], subsystemPhases[slot])
+                    && (subsystem.getPriority() != Priority.DEFERRABLE || !defer(subsystemDeferrals, slot))) {
+                runPeriodic(subsystem, packet);
+            }
 
             // Schedule default commands if needed
             Command defaultCommand = subsystem.getDefaultCommand();
-            if (defaultCommand != null && !requirements.containsKey(subsystem)) {
+            if (defaultCommand != null && (ownedMask & (1L << slot)) == 0) {
                 schedule(defaultCommand);
             }
         }
 
-        // Execute scheduled commands
-        Iterator<Command> commandIterator = scheduledCommands.iterator();
-        while (commandIterator.hasNext()) {
-            Command command = commandIterator.next();
-
-            // Check command timeout
-            long timeout = command.getTimeout();
-            if (timeout > 0) {
-                long elapsed = System.currentTimeMillis() - commandStartTimes.get(command);
-                if (elapsed >= timeout) {
-                    command.end(true);
-                    commandIterator.remove();
-                    commandStartTimes.remove(command);
-                    command.getRequirements().forEach(requirement -> {
-                        requirements.remove(requirement);
-                        requirement.setCurrentCommand(null);
-                    });
-                    continue;
-                }
+        // Run reduced-rate subsystem tasks
+        for (int i = 0; i < numTasks; i++) {
+            PeriodicTask task = periodicTasks[i];
+            if (isDue(task.divisor, task.phase)
+                    && (task.priority != Priority.DEFERRABLE || !defer(taskDeferrals, i))) {
+                runTask(task, packet);
             }
+        }
+
+        // Execute scheduled commands in dataflow order, then by priority;
+        // commands scheduled during the pass run next tick
+        if (commandOrderDirty) {
+            orderCommands();
+        }
+        int count = numOrdered;
+        for (int k = 0; k < count; k++) {
+            int i = commandOrder[k];
+            if (scheduledCommands[i] != null) {
+                runCommand(i, packet);
+            }
+        }
+
+        // Run post-command tasks on the setpoints commands just set
+        for (PeriodicTask task : postCommandTasks) {
+            runTask(task, packet);
+        }
+
+        inRunLoop = false;
+        if (needsCompaction) {
+            compact();
+        }
+
+        // End hardware cycles in reverse, so the first one begun sees the
+        // whole tick
+        for (int i = hardwareCycles.length - 1; i >= 0; i--) {
+            hardwareCycles[i].endCycle();
+        }
+
+        SchedulerProfiler tickProfiler = this.tickProfiler;
+        if (tickProfiler != null && tickTime - lastProfilePublishTime
+                >= ConfigVariables.General.PROFILER_PUBLISH_INTERVAL_MS * Clock.NANOS_PER_MILLI) {
+            tickProfiler.publish(packet);
+            lastProfilePublishTime = tickTime;
+        }
 
+        lastTickNanos = System.nanoTime() - tickStartNanos;
+        if (budgetNanos > 0 && lastTickNanos > budgetNanos) {
+            overrunCount++;
+        }
+
+        // Add telemetry
+        numSubsystemsChannel.set(numPeriodic);
+        numScheduledCommandsChannel.set(numScheduled);
+        tickMsChannel.set(lastTickNanos / 1e6);
+        overrunsChannel.set(overrunCount);
+        deferredChannel.set(deferredCount);
+        forcedAfterDeferralChannel.set(forcedCount);
+    }
+
+    private void runPeriodic(SubsystemBase subsystem, TelemetryPacket packet) {
+        if (tickProfiler != null) {
+            long start = System.nanoTime();
+            subsystem.periodic(packet);
+            tickProfiler.record(subsystemProfileId(subsystem), System.nanoTime() - start);
+        } else {
+            subsystem.periodic(packet);
+        }
+    }
+
+    private void runTask(PeriodicTask task, TelemetryPacket packet) {
+        if (tickProfiler != null) {
+            long start = System.nanoTime();
+            task.task.accept(packet);
+            tickProfiler.record(subsystemProfileId(task.owner), System.nanoTime() - start);
+        } else {
+            task.task.accept(packet);
+        }
+    }
+
+    private void runCommand(int i, TelemetryPacket packet) {
+        Command command = scheduledCommands[i];
+
+        // Check command timeout
+        long timeout = command.getTimeout();
+        if (timeout > 0 && tickTime - commandStartTimes[i] >= timeout * Clock.NANOS_PER_MILLI) {
+            command.end(true);
+            CommandTracer.end(command, true);
+            remove(i);
+            return;
+        }
+
+        if (!isDue(commandDivisors[i], commandPhases[i])) {
+            return;
+        }
+
+        if (commandPriorities[i] == Priority.DEFERRABLE.ordinal() && defer(commandDeferrals, i)) {
+            return;
+        }
+
+        CommandTracer.executeBegin(command);
+        if (tickProfiler != null) {
+            long start = System.nanoTime();
+            command.execute(packet);
+            tickProfiler.record(commandProfileId(i, command), System.nanoTime() - start);
+        } else {
             command.execute(packet);
+        }
+        CommandTracer.executeEnd(command);
+
+        // execute() may have cancelled this command through the scheduler
+        if (scheduledCommands[i] == command && command.isFinished()) {
+            command.end(false);
+            CommandTracer.end(command, false);
+            remove(i);
+        }
+    }
+
+    /**
+     * Rebuild the dataflow order of registered subsystems from their priority order.
+     */
+    private void orderPeriodic() {
+        long[] produces = new long[numPeriodic];
+        long[] consumes = new long[numPeriodic];
+        int[] order = new int[numPeriodic];
+        for (int i = 0; i < numPeriodic; i++) {
+            produces[i] = periodicSubsystems[i].getProducesMask();
+            consumes[i] = periodicSubsystems[i].getConsumesMask();
+            order[i] = i;
+        }
+        sortByDataflow(order, numPeriodic, produces, consumes);
+        for (int i = 0; i < numPeriodic; i++) {
+            periodicOrder[i] = periodicSubsystems[order[i]];
+        }
+    }
 
-            if (command.isFinished()) {
-                command.end(false);
-                commandIterator.remove();
-                commandStartTimes.remove(command);
-                command.getRequirements().forEach(requirement -> {
-                    requirements.remove(requirement);
-                    requirement.setCurrentCommand(null);
-                });
+    /**
+     * Rebuild the execution order of scheduled commands. Only called when the
+     * schedule has changed, and does not allocate.
+     */
+    private void orderCommands() {
+        int count = 0;
+        long produced = 0;
+        long consumed = 0;
+        for (int priority = 0; priority < PRIORITIES.length; priority++) {
+            for (int i = 0; i < numScheduled; i++) {
+                if (scheduledCommands[i] != null && commandPriorities[i] == priority) {
+                    commandOrder[count++] = i;
+                    produced |= commandProduces[i];
+                    consumed |= commandConsumes[i];
+                }
             }
         }
+        if ((produced & consumed) != 0) {
+            sortByDataflow(commandOrder, count, commandProduces, commandConsumes);
+        }
+        numOrdered = count;
+        commandOrderDirty = false;
+    }
 
-        // Add telemetry
-        packet.put("CommandScheduler/numSubsystems", subsystems.size());
-        packet.put("CommandScheduler/numScheduledCommands", scheduledCommands.size());
+    /**
+     * Stable topological sort: moves each entry after everything that produces
+     * data it consumes, otherwise keeping the given order. Entries in a cycle
+     * keep their given order.
+     *
+     * @param order    Indices into produces/consumes, sorted in place
+     * @param count    Number of entries in order
+     * @param produces DataKey masks produced, by index
+     * @param consumes DataKey masks consumed, by index
+     */
+    static void sortByDataflow(int[] order, int count, long[] produces, long[] consumes) {
+        for (int start = 0; start < count; start++) {
+            int pick = start;
+            for (int j = start; j < count; j++) {
+                long needs = consumes[order[j]];
+                boolean ready = true;
+                for (int m = start; m < count && ready; m++) {
+                    ready = m == j || (produces[order[m]] & needs) == 0;
+                }
+                if (ready) {
+                    pick = j;
+                    break;
+                }
+            }
+            int picked = order[pick];
+            System.arraycopy(order, start, order, start + 1, pick - start);
+            order[start] = picked;
+        }
+    }
+
+    private boolean isDue(int divisor, int phase) {
+        return divisor <= 1 || tickCount % divisor == phase;
+    }
+
+    /**
+     * Pick the phase for work running every {@code divisor} ticks that adds
+     * the least to already busy ticks, and account for its load.
+     */
+    private int assignPhase(int divisor) {
+        if (divisor <= 1) {
+            return 0;
+        }
+        int bestPhase = 0;
+        long bestLoad = Long.MAX_VALUE;
+        for (int phase = 0; phase < Math.min(divisor, PHASE_WINDOW); phase++) {
+            long load = 0;
+            for (int tick = phase; tick < PHASE_WINDOW; tick += divisor) {
+                load += phaseLoad[tick];
+            }
+            if (load < bestLoad) {
+                bestLoad = load;
+                bestPhase = phase;
+            }
+        }
+        addPhaseLoad(divisor, bestPhase, 1);
+        return bestPhase;
+    }
+
+    private void addPhaseLoad(int divisor, int phase, int delta) {
+        if (divisor <= 1) {
+            return;
+        }
+        for (int tick = phase; tick < PHASE_WINDOW; tick += divisor) {
+            phaseLoad[tick] += delta;
+        }
+    }
+
+    /**
+     * Decide whether deferrable work should be skipped this tick, updating its
+     * consecutive deferral counter.
+     */
+    private boolean defer(int[] deferrals, int index) {
+        if (budgetNanos <= 0 || System.nanoTime() - tickStartNanos < budgetNanos) {
+            deferrals[index] = 0;
+            return false;
+        }
+        if (deferrals[index] >= ConfigVariables.General.MAX_DEFERRED_TICKS) {
+            // Starved for too long, run it anyway
+            deferrals[index] = 0;
+            forcedCount++;
+            return false;
+        }
+        deferrals[index]++;
+        deferredCount++;
+        return true;
+    }
+
+    /**
+     * @return Number of ticks run since the last reset; together with
+     * {@link #getGeneration()} identifies the current tick
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Add hardware I/O run around every tick, e.g. bulk reads or buffered
+     * outputs. Cycles begin in the order added and end in reverse.
+     * Cleared by {@link #reset()}.
+     *
+     * @param hardwareCycle Hardware cycle to add
+     */
+    public void addHardwareCycle(HardwareCycle hardwareCycle) {
+        if (hasHardwareCycle(hardwareCycle)) {
+            return;
+        }
+        hardwareCycles = Arrays.copyOf(hardwareCycles, hardwareCycles.length + 1);
+        hardwareCycles[hardwareCycles.length - 1] = hardwareCycle;
+    }
+
+    /**
+     * Remove hardware I/O added with {@link #addHardwareCycle}. Does nothing
+     * if it isn't added.
+     */
+    public void removeHardwareCycle(HardwareCycle hardwareCycle) {
+        for (int i = 0; i < hardwareCycles.length; i++) {
+            if (hardwareCycles[i] == hardwareCycle) {
+                HardwareCycle[] remaining = new HardwareCycle[hardwareCycles.length - 1];
+                System.arraycopy(hardwareCycles, 0, remaining, 0, i);
+                System.arraycopy(hardwareCycles, i + 1, remaining, i, remaining.length - i);
+                hardwareCycles = remaining;
+                return;
+            }
+        }
+    }
+
+    public boolean hasHardwareCycle(HardwareCycle hardwareCycle) {
+        for (HardwareCycle cycle : hardwareCycles) {
+            if (cycle == hardwareCycle) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether a tick is in progress, i.e. the caller runs inside run()
+     */
+    public boolean isInRunLoop() {
+        return inRunLoop;
+    }
+
+    /**
+     * @return Number of ticks that took longer than the loop budget
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * @return Number of times deferrable work was postponed
+     */
+    public long getDeferredCount() {
+        return deferredCount;
+    }
+
+    /**
+     * @return Duration of the last tick in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Get the profiler fed by {@link #run(TelemetryPacket)} while profiling is enabled.
+     */
+    public SchedulerProfiler getProfiler() {
+        return profiler;
+    }
+
+    private int subsystemProfileId(SubsystemBase subsystem) {
+        int slot = subsystem.getSchedulerSlot();
+        if (subsystemProfileIds[slot] < 0) {
+            subsystemProfileIds[slot] = profiler.subsystemId(subsystem, subsystem.getName());
+        }
+        return subsystemProfileIds[slot];
+    }
+
+    private int commandProfileId(int index, Command command) {
+        if (commandProfileIds[index] < 0) {
+            commandProfileIds[index] = profiler.commandId(command.getClass());
+        }
+        return commandProfileIds[index];
     }
 
     /**
      * Cancel all running commands.
      */
     public void cancelAll() {
-        // Create a copy of the set to avoid concurrent modification
-        ArrayList<Command> commandsToCancel = new ArrayList<>(scheduledCommands);
-        for (Command command : commandsToCancel) {
-            cancel(command);
+        for (int i = numScheduled - 1; i >= 0; i--) {
+            Command command = scheduledCommands[i];
+            if (command != null) {
+                command.end(true);
+                CommandTracer.end(command, true);
+                remove(i);
+            }
         }
     }
 
@@ -181,9 +799,104 @@ public class CommandScheduler {
      */
     public void reset() {
         cancelAll();
-        subsystems.clear();
-        requirements.clear();
-        scheduledCommands.clear();
-        commandStartTimes.clear();
+        for (int i = 0; i < numSubsystems; i++) {
+            subsystems[i].setSchedulerSlot(-1);
+        }
+        Arrays.fill(subsystems, null);
+        Arrays.fill(periodicSubsystems, null);
+        Arrays.fill(periodicOrder, null);
+        Arrays.fill(requirements, null);
+        Arrays.fill(scheduledCommands, null);
+        Arrays.fill(subsystemProfileIds, -1);
+        Arrays.fill(subsystemDeferrals, 0);
+        Arrays.fill(periodicTasks, null);
+        postCommandTasks = new PeriodicTask[0];
+        Arrays.fill(phaseLoad, 0);
+        numTasks = 0;
+        tickCount = 0;
+        ownedMask = 0;
+        generation++;
+        numSubsystems = 0;
+        numPeriodic = 0;
+        numScheduled = 0;
+        numOrdered = 0;
+        commandOrderDirty = false;
+        needsCompaction = false;
+        hardwareCycles = new HardwareCycle[0];
+    }
+
+    private int indexOf(Command command) {
+        int index = command.getSchedulerIndex();
+        return index >= 0 && index < numScheduled && scheduledCommands[index] == command ? index : -1;
+    }
+
+    /**
+     * Drop the command at the given index and release its subsystems. The slot
+     * is left empty while the run loop is iterating and packed afterwards.
+     */
+    private void remove(int index) {
+        Command command = scheduledCommands[index];
+        scheduledCommands[index] = null;
+        command.setSchedulerIndex(-1);
+        addPhaseLoad(commandDivisors[index], commandPhases[index], -1);
+        long released = commandMasks[index];
+        while (released != 0) {
+            int slot = Long.numberOfTrailingZeros(released);
+            if (requirements[slot] == command) {
+                requirements[slot] = null;
+                subsystems[slot].setCurrentCommand(null);
+                ownedMask &= ~(1L << slot);
+            }
+            released &= released - 1;
+        }
+        if (inRunLoop) {
+            needsCompaction = true;
+        } else {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int write = 0;
+        for (int read = 0; read < numScheduled; read++) {
+            Command command = scheduledCommands[read];
+            if (command != null) {
+                scheduledCommands[write] = command;
+                command.setSchedulerIndex(write);
+                commandStartTimes[write] = commandStartTimes[read];
+                commandMasks[write] = commandMasks[read];
+                commandProfileIds[write] = commandProfileIds[read];
+                commandPriorities[write] = commandPriorities[read];
+                commandDeferrals[write] = commandDeferrals[read];
+                commandDivisors[write] = commandDivisors[read];
+                commandPhases[write] = commandPhases[read];
+                commandProduces[write] = commandProduces[read];
+                commandConsumes[write] = commandConsumes[read];
+                write++;
+            }
+        }
+        for (int i = write; i < numScheduled; i++) {
+            scheduledCommands[i] = null;
+        }
+        numScheduled = write;
+        needsCompaction = false;
+        commandOrderDirty = true;
+    }
+
+    private static class PeriodicTask {
+        final SubsystemBase owner;
+        final Priority priority;
+        final int divisor;
+        final int phase;
+        final Consumer<TelemetryPacket> task;
+
+        PeriodicTask(SubsystemBase owner, Priority priority, int divisor, int phase,
+                     Consumer<TelemetryPacket> task) {
+            this.owner = owner;
+            this.priority = priority;
+            this.divisor = divisor;
+            this.phase = phase;
+            this.task = task;
+        }
     }
 }
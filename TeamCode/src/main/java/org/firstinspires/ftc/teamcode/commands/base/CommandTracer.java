@@ -0,0 +1,233 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerImpl;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Records command and action lifecycle events into a preallocated ring
+ * buffer while {@code ConfigVariables.General.TRACE_COMMANDS} is on.
+ * <p>
+ * Each event stores a timestamp, a type and a reference to the command or
+ * action, so recording never allocates. Names are only looked up when the
+ * buffer is written out. The buffer is dumped when the OpMode stops, as Chrome
+ * trace-event JSON under /sdcard/FIRST/traces, which can be opened in
+ * chrome://tracing or ui.perfetto.dev. Executes show up as nested slices,
+ * and each run from initialize to finish/interrupt shows up as an async span.
+ * Once the buffer is full the oldest events are overwritten.
+ * <p>
+ * Timestamps follow {@link Clocks#get()}, so traces of simulated runs are in
+ * virtual time. The clock only moves once per loop, so the time since the
+ * first event of the loop is added to keep executes from collapsing.
+ */
+public final class CommandTracer {
+    private static final byte INITIALIZE = 0;
+    private static final byte EXECUTE_BEGIN = 1;
+    private static final byte EXECUTE_END = 2;
+    private static final byte FINISH = 3;
+    private static final byte INTERRUPT = 4;
+
+    private static final String TRACE_DIRECTORY = "/sdcard/FIRST/traces";
+
+    private static long[] times; // ns
+    private static byte[] types;
+    private static Object[] subjects;
+    private static long count = 0;
+    private static long loopTime;      // ns, clock time of the current loop
+    private static long loopWallStart; // ns, System.nanoTime() of its first event
+
+    /*
+     * Held here because the SDK only keeps a weak reference to its listeners,
+     * see Datalogger.
+     */
+    private static OpModeNotifications opModeNotifications;
+
+    private CommandTracer() {
+    }
+
+    public static void initialize(Object subject) {
+        record(INITIALIZE, subject);
+    }
+
+    public static void executeBegin(Object subject) {
+        record(EXECUTE_BEGIN, subject);
+    }
+
+    public static void executeEnd(Object subject) {
+        record(EXECUTE_END, subject);
+    }
+
+    public static void end(Object subject, boolean interrupted) {
+        record(interrupted ? INTERRUPT : FINISH, subject);
+    }
+
+    private static void record(byte type, Object subject) {
+        if (!ConfigVariables.General.TRACE_COMMANDS) {
+            return;
+        }
+        if (times == null) {
+            start();
+        }
+        int index = (int) (count++ % times.length);
+        times[index] = now();
+        types[index] = type;
+        subjects[index] = subject;
+    }
+
+    private static long now() {
+        long clockTime = Clocks.get().nanoTime();
+        long wallTime = System.nanoTime();
+        if (clockTime != loopTime) {
+            loopTime = clockTime;
+            loopWallStart = wallTime;
+        }
+        return clockTime + (wallTime - loopWallStart);
+    }
+
+    private static void start() {
+        int capacity = Math.max(1, ConfigVariables.General.TRACE_BUFFER_EVENTS);
+        times = new long[capacity];
+        types = new byte[capacity];
+        subjects = new Object[capacity];
+        count = 0;
+
+        try {
+            opModeNotifications = new OpModeNotifications();
+            OpModeManagerImpl.getOpModeManagerOfActivity(AppUtil.getInstance().getActivity())
+                    .registerListener(opModeNotifications);
+        } catch (RuntimeException e) {
+            // No OpMode manager (e.g. off-robot); call dump() manually
+            opModeNotifications = null;
+        }
+    }
+
+    /**
+     * Forget all recorded events and release the buffer.
+     */
+    public static void clear() {
+        if (subjects != null) {
+            Arrays.fill(subjects, null);
+        }
+        times = null;
+        types = null;
+        subjects = null;
+        count = 0;
+    }
+
+    /**
+     * Write the recorded events as Chrome trace-event JSON.
+     */
+    public static void dump(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, false))) {
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+            if (times != null) {
+                long recorded = Math.min(count, times.length);
+                long first = count - recorded;
+                long origin = times[(int) (first % times.length)];
+                StringBuilder event = new StringBuilder();
+                for (long i = first; i < count; i++) {
+                    int index = (int) (i % times.length);
+                    event.setLength(0);
+                    if (i > first) {
+                        event.append(',');
+                    }
+                    appendEvent(event, types[index], subjects[index], times[index] - origin);
+                    writer.write(event.toString());
+                }
+            }
+            writer.write("]}");
+        }
+    }
+
+    private static void appendEvent(StringBuilder out, byte type, Object subject, long nanos) {
+        String phase;
+        switch (type) {
+            case INITIALIZE:
+                phase = "b";
+                break;
+            case EXECUTE_BEGIN:
+                phase = "B";
+                break;
+            case EXECUTE_END:
+                phase = "E";
+                break;
+            default:
+                phase = "e";
+                break;
+        }
+        out.append("{\"name\":\"").append(nameOf(subject))
+                .append("\",\"cat\":\"").append(subject instanceof Command ? "command" : "action")
+                .append("\",\"ph\":\"").append(phase)
+                .append("\",\"ts\":").append(nanos / 1000).append('.').append(String.format("%03d", nanos % 1000))
+                .append(",\"pid\":1,\"tid\":1");
+        if (type != EXECUTE_BEGIN && type != EXECUTE_END) {
+            out.append(",\"id\":\"0x").append(Integer.toHexString(System.identityHashCode(subject))).append('"');
+        }
+        if (type == FINISH || type == INTERRUPT) {
+            out.append(",\"args\":{\"interrupted\":").append(type == INTERRUPT).append('}');
+        }
+        out.append('}');
+    }
+
+    private static String nameOf(Object subject) {
+        if (subject == null) {
+            return "null";
+        }
+        String name = simpleName(subject.getClass());
+        if (subject instanceof ActionCommand) {
+            name += "(" + simpleName(((ActionCommand) subject).getAction().getClass()) + ")";
+        } else if (subject instanceof CompiledCommand) {
+            name += "(" + simpleName(((CompiledCommand) subject).getSource().getClass()) + ")";
+        }
+        return name.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String simpleName(Class<?> subjectClass) {
+        String name = subjectClass.getSimpleName();
+        if (name.isEmpty()) {
+            // Anonymous classes
+            name = subjectClass.getName();
+            name = name.substring(name.lastIndexOf('.') + 1);
+        }
+        // Lambda classes carry a generated address suffix
+        int slash = name.indexOf('/');
+        return slash < 0 ? name : name.substring(0, slash);
+    }
+
+    private static class OpModeNotifications implements OpModeManagerNotifier.Notifications {
+        @Override
+        public void onOpModePostStop(OpMode opMode) {
+            try {
+                dump(new File(String.format("%s/%s_%d.json", TRACE_DIRECTORY,
+                        opMode.getClass().getSimpleName(), System.currentTimeMillis())));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            clear();
+            OpModeManagerImpl.getOpModeManagerOfActivity(AppUtil.getInstance().getActivity()).unregisterListener(this);
+            opModeNotifications = null;
+        }
+
+        @Override
+        public void onOpModePreInit(OpMode opMode) {
+        }
+
+        @Override
+        public void onOpModePreStart(OpMode opMode) {
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A command tree flattened into a linear instruction table.
+ * <p>
+ * {@link #compile(Command)} walks SequentialCommandGroup, WaitForConditionCommand,
+ * ConditionalCommand and WaitCommand nodes and emits instructions for them.
+ * Every other command becomes a leaf that is initialized, executed and ended
+ * directly. Timeouts are converted to nanoseconds once, and timed groups become
+ * blocks with a precomputed exit address, so each tick reads the clock once and
+ * makes one virtual call into the current leaf instead of walking every layer
+ * of the tree.
+ * <p>
+ * Control instructions (block start/end, branches) do not take a tick of
+ * their own and block timeouts are checked before the leaf runs; otherwise the
+ * compiled command steps through its leaves on the same ticks as the nested
+ * tree. A leaf's own timeout is checked after it executed, as
+ * SequentialCommandGroup does for its children (the scheduler checks a
+ * top-level command before executing it). Subclasses of the composite commands
+ * are flattened only if they just add children; one that overrides a
+ * lifecycle method stays a leaf so the override still runs. The compiled
+ * command can be scheduled again after it ends.
+ * Example usage:
+ * Command grab = CompiledCommand.compile(new SequentialCommandGroup(...));
+ * scheduler.schedule(grab);
+ */
+public class CompiledCommand extends CommandBase {
+    private static final int OP_RUN = 0;         // run a leaf command, with optional timeout
+    private static final int OP_WAIT = 1;        // wait for a fixed time
+    private static final int OP_WAIT_UNTIL = 2;  // wait for a condition
+    private static final int OP_BRANCH = 3;      // skip to target unless condition is true
+    private static final int OP_BLOCK = 4;       // open a timed block that exits to target
+    private static final int OP_END_BLOCK = 5;   // close the innermost timed block
+
+    private final Command source;
+    private final long timeout; // ms, from the root command
+    private final Priority priority;
+    private final int executeDivisor;
+
+    // Instruction table
+    private int[] ops = new int[16];
+    private Object[] operands = new Object[16]; // Command, WaitCommand or BooleanSupplier
+    private long[] nanos = new long[16];        // leaf timeout, wait duration or block timeout
+    private int[] targets = new int[16];        // branch/block exit address
+    private boolean[] interrupts = new boolean[16]; // whether a block timeout interrupts its leaf
+    private int size = 0;
+    private int blockDepth = 0; // open blocks while compiling
+
+    // Interpreter state
+    private int pc;
+    private boolean leafActive;
+    private long leafStart; // ns
+    private int[] openBlocks = new int[4];
+    private long[] openStarts = new long[4]; // ns
+    private int depth;
+
+    private CompiledCommand(Command source) {
+        this.source = source;
+        this.timeout = source.getTimeout();
+        this.priority = source.getPriority();
+        this.executeDivisor = source.getExecuteDivisor();
+        getRequirements().addAll(source.getRequirements());
+        addDataflow(source);
+    }
+
+    /**
+     * Flatten a command tree. The root's own timeout, priority,
+     * requirements and dataflow carry over to the compiled command.
+     */
+    public static CompiledCommand compile(Command command) {
+        CompiledCommand compiled = new CompiledCommand(command);
+        compiled.emitTree(command, false);
+        return compiled;
+    }
+
+    /**
+     * @param applyTimeout Whether the parent enforces this command's own timeout
+     */
+    private void emitTree(Command command, boolean applyTimeout) {
+        if (overridesLifecycle(command)) {
+            long leafTimeout = applyTimeout ? command.getTimeout() : 0;
+            emit(OP_RUN, command, (long) (leafTimeout * Clock.NANOS_PER_MILLI));
+        } else if (command instanceof SequentialCommandGroup) {
+            int block = openBlock(applyTimeout ? command.getTimeout() : 0, true);
+            for (Command child : ((SequentialCommandGroup) command).getCommands()) {
+                emitTree(child, true);
+            }
+            closeBlock(block);
+        } else if (command instanceof WaitForConditionCommand) {
+            WaitForConditionCommand wait = (WaitForConditionCommand) command;
+            int outer = openBlock(applyTimeout ? command.getTimeout() : 0, true);
+            // The child's timeout counts from when the wait started and ends it normally
+            int inner = openBlock(wait.getCommand().getTimeout(), false);
+            emit(OP_WAIT_UNTIL, wait.getCondition(), 0);
+            emitTree(wait.getCommand(), false);
+            closeBlock(inner);
+            closeBlock(outer);
+        } else if (command instanceof ConditionalCommand) {
+            ConditionalCommand conditional = (ConditionalCommand) command;
+            int branch = emit(OP_BRANCH, conditional.getCondition(), 0);
+            emitTree(conditional.getCommand(), applyTimeout);
+            targets[branch] = size;
+        } else if (command instanceof WaitCommand) {
+            // Duration is read when the wait starts, like WaitCommand does
+            emit(OP_WAIT, command, 0);
+        } else {
+            long leafTimeout = applyTimeout ? command.getTimeout() : 0;
+            emit(OP_RUN, command, (long) (leafTimeout * Clock.NANOS_PER_MILLI));
+        }
+    }
+
+    /**
+     * Whether a subclass of a composite command overrides a lifecycle method,
+     * which flattening would skip
+     */
+    private static boolean overridesLifecycle(Command command) {
+        Class<?> base;
+        if (command instanceof SequentialCommandGroup) {
+            base = SequentialCommandGroup.class;
+        } else if (command instanceof WaitForConditionCommand) {
+            base = WaitForConditionCommand.class;
+        } else if (command instanceof ConditionalCommand) {
+            base = ConditionalCommand.class;
+        } else if (command instanceof WaitCommand) {
+            base = WaitCommand.class;
+        } else {
+            return false;
+        }
+        for (Class<?> c = command.getClass(); c != base; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                switch (method.getName()) {
+                    case "initialize":
+                    case "execute":
+                    case "end":
+                    case "isFinished":
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int openBlock(long timeoutMs, boolean interrupt) {
+        if (timeoutMs <= 0) {
+            return -1;
+        }
+        int block = emit(OP_BLOCK, null, (long) (timeoutMs * Clock.NANOS_PER_MILLI));
+        interrupts[block] = interrupt;
+        if (++blockDepth > openBlocks.length) {
+            openBlocks = Arrays.copyOf(openBlocks, blockDepth * 2);
+            openStarts = Arrays.copyOf(openStarts, blockDepth * 2);
+        }
+        return block;
+    }
+
+    private void closeBlock(int block) {
+        if (block < 0) {
+            return;
+        }
+        emit(OP_END_BLOCK, null, 0);
+        blockDepth--;
+        targets[block] = size;
+    }
+
+    private int emit(int op, Object operand, long value) {
+        if (size == ops.length) {
+            int capacity = size * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            operands = Arrays.copyOf(operands, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            interrupts = Arrays.copyOf(interrupts, capacity);
+        }
+        ops[size] = op;
+        operands[size] = operand;
+        nanos[size] = value;
+        return size++;
+    }
+
+    /**
+     * Gets the command this was compiled from
+     */
+    public Command getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the number of instructions
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void initialize() {
+        pc = 0;
+        depth = 0;
+        leafActive = false;
+        advance(Clocks.get().nanoTime());
+    }
+
+    @Override
+    public void execute(TelemetryPacket packet) {
+        if (!leafActive) {
+            return;
+        }
+        long now = Clocks.get().nanoTime();
+
+        // Outermost expired block wins; control resumes right after it
+        for (int d = 0; d < depth; d++) {
+            int block = openBlocks[d];
+            if (now - openStarts[d] >= nanos[block]) {
+                endLeaf(interrupts[block]);
+                depth = d;
+                pc = targets[block];
+                advance(now);
+                return;
+            }
+        }
+
+        switch (ops[pc]) {
+            case OP_RUN: {
+                Command command = (Command) operands[pc];
+                CommandTracer.executeBegin(command);
+                command.execute(packet);
+                CommandTracer.executeEnd(command);
+                if (command.isFinished()) {
+                    command.end(false);
+                    CommandTracer.end(command, false);
+                } else if (nanos[pc] > 0 && now - leafStart >= nanos[pc]) {
+                    command.end(true);
+                    CommandTracer.end(command, true);
+                } else {
+                    return;
+                }
+                break;
+            }
+            case OP_WAIT:
+                if (now - leafStart < nanos[pc]) {
+                    return;
+                }
+                break;
+            case OP_WAIT_UNTIL:
+                if (!((BooleanSupplier) operands[pc]).getAsBoolean()) {
+                    return;
+                }
+                break;
+        }
+        leafActive = false;
+        pc++;
+        advance(now);
+    }
+
+    /**
+     * Run control instructions until the next leaf has started or the table ends.
+     */
+    private void advance(long now) {
+        while (pc < size) {
+            switch (ops[pc]) {
+                case OP_BLOCK:
+                    openBlocks[depth] = pc;
+                    openStarts[depth] = now;
+                    depth++;
+                    pc++;
+                    break;
+                case OP_END_BLOCK:
+                    depth--;
+                    pc++;
+                    break;
+                case OP_BRANCH:
+                    pc = ((BooleanSupplier) operands[pc]).getAsBoolean() ? pc + 1 : targets[pc];
+                    break;
+                case OP_RUN:
+                    leafActive = true;
+                    leafStart = now;
+                    CommandTracer.initialize(operands[pc]);
+                    ((Command) operands[pc]).initialize();
+                    return;
+                case OP_WAIT:
+                    nanos[pc] = ((WaitCommand) operands[pc]).getDurationNanos();
+                    leafActive = true;
+                    leafStart = now;
+                    return;
+                default:
+                    leafActive = true;
+                    leafStart = now;
+                    return;
+            }
+        }
+    }
+
+    private void endLeaf(boolean interrupted) {
+        if (leafActive && ops[pc] == OP_RUN) {
+            ((Command) operands[pc]).end(interrupted);
+            CommandTracer.end(operands[pc], interrupted);
+        }
+        leafActive = false;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return !leafActive;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        endLeaf(interrupted);
+        depth = 0;
+        pc = size;
+    }
+
+    @Override
+    public long getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public int getExecuteDivisor() {
+        return executeDivisor;
+    }
+}
@@ -20,6 +20,15 @@ public class ConditionalCommand extends CommandBase {
         // Merge child command's requirements
         command.getRequirements().forEach((Consumer<SubsystemBase>) requirements ->
                 this.addRequirement(requirements));
+        addDataflow(command);
+    }
+
+    BooleanSupplier getCondition() {
+        return condition;
+    }
+
+    Command getCommand() {
+        return command;
     }
 
     @Override
@@ -28,6 +37,7 @@ public class ConditionalCommand extends CommandBase {
         isFinished = !shouldExecute;
 
         if (shouldExecute) {
+            CommandTracer.initialize(command);
             command.initialize();
         }
     }
@@ -38,10 +48,13 @@ public class ConditionalCommand extends CommandBase {
             return;
         }
 
+        CommandTracer.executeBegin(command);
         command.execute(packet);
+        CommandTracer.executeEnd(command);
 
         if (command.isFinished()) {
             command.end(false);
+            CommandTracer.end(command, false);
             isFinished = true;
         }
     }
@@ -55,6 +68,7 @@ public class ConditionalCommand extends CommandBase {
     public void end(boolean interrupted) {
         if (shouldExecute && command != null) {
             command.end(interrupted);
+            CommandTracer.end(command, interrupted);
         }
     }
 
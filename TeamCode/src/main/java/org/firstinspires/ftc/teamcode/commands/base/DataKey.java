@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+/**
+ * Data that subsystems and commands produce or consume within a tick.
+ * The command scheduler runs producers before consumers, so consumers see
+ * this tick's value instead of last tick's.
+ */
+public enum DataKey {
+    /**
+     * Localizer pose and velocity, see MecanumDrive.updatePoseEstimate().
+     */
+    POSE,
+    LOWER_SLIDE_POSITION,
+    UPPER_SLIDE_POSITION,
+    /**
+     * Latest Limelight detector result.
+     */
+    VISION_RESULT;
+
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    public static long maskOf(DataKey... keys) {
+        long mask = 0;
+        for (DataKey key : keys) {
+            mask |= key.mask();
+        }
+        return mask;
+    }
+}
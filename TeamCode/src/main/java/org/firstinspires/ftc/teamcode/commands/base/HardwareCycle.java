@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+/**
+ * Hardware I/O hooked into the command scheduler tick, see
+ * {@link CommandScheduler#addHardwareCycle(HardwareCycle)}.
+ */
+public interface HardwareCycle {
+    /**
+     * Called at the start of every tick, before any periodic() or execute().
+     */
+    void beginCycle();
+
+    /**
+     * Called at the end of every tick, after all commands have executed.
+     */
+    default void endCycle() {
+    }
+}
@@ -2,6 +2,9 @@ package org.firstinspires.ftc.teamcode.commands.base;
 
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
 /**
  * Command to display loop timing telemetry.
  * Add this to any command group or run in parallel to see loop timing.
@@ -11,9 +14,17 @@ public class LoopTimeTelemetryCommand extends CommandBase {
     private long loopCount = 0;
     private double averageLoopTime = 0;
 
+    // Telemetry channels
+    private final TelemetryChannels.DoubleChannel loopTimeMsChannel =
+            TelemetryChannels.getInstance().doubleChannel("CommandBase/loopTime_ms");
+    private final TelemetryChannels.DoubleChannel avgLoopTimeMsChannel =
+            TelemetryChannels.getInstance().doubleChannel("CommandBase/avgLoopTime_ms");
+    private final TelemetryChannels.LongChannel loopCountChannel =
+            TelemetryChannels.getInstance().longChannel("CommandBase/loopCount");
+
     @Override
     public void initialize() {
-        lastLoopTime = System.nanoTime();
+        lastLoopTime = Clocks.get().nanoTime();
         loopCount = 0;
         averageLoopTime = 0;
     }
@@ -21,7 +32,7 @@ public class LoopTimeTelemetryCommand extends CommandBase {
     @Override
     public void execute(TelemetryPacket packet) {
         // Calculate loop time
-        long currentTime = System.nanoTime();
+        long currentTime = Clocks.get().nanoTime();
         long loopTime = currentTime - lastLoopTime;
         lastLoopTime = currentTime;
 
@@ -30,9 +41,9 @@ public class LoopTimeTelemetryCommand extends CommandBase {
         averageLoopTime = (averageLoopTime * (loopCount - 1) + loopTime) / loopCount;
 
         // Add telemetry
-        packet.put("CommandBase/loopTime_ms", loopTime / 1e6);
-        packet.put("CommandBase/avgLoopTime_ms", averageLoopTime / 1e6);
-        packet.put("CommandBase/loopCount", loopCount);
+        loopTimeMsChannel.set(loopTime / 1e6);
+        avgLoopTimeMsChannel.set(averageLoopTime / 1e6);
+        loopCountChannel.set(loopCount);
     }
 
     @Override
@@ -40,6 +51,11 @@ public class LoopTimeTelemetryCommand extends CommandBase {
         return false; // Run continuously until interrupted
     }
 
+    @Override
+    public Priority getPriority() {
+        return Priority.DEFERRABLE;
+    }
+
     @Override
     public void end(boolean interrupted) {
 
@@ -0,0 +1,162 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
+import java.util.Arrays;
+
+/**
+ * Runs all of its commands at the same time and finishes when every one of
+ * them has finished. Children must not share subsystem requirements; the group
+ * requires the union of its children's requirements.
+ */
+public class ParallelCommandGroup extends CommandBase {
+    private Command[] commands = new Command[0];
+    private boolean[] running = new boolean[0];
+    private long[] startTimes = new long[0]; // ns
+    public long timeout = 0; // timeout of the whole group in ms
+    private long groupStartTime; // ns
+    private int numRunning = 0;
+    private boolean isFinished = false;
+
+    public ParallelCommandGroup(Command... commands) {
+        addCommands(commands);
+    }
+
+    /**
+     * Add commands to the group. Must be called before the group is scheduled.
+     */
+    public void addCommands(Command... commands) {
+        int index = this.commands.length;
+        this.commands = Arrays.copyOf(this.commands, index + commands.length);
+        running = Arrays.copyOf(running, this.commands.length);
+        startTimes = Arrays.copyOf(startTimes, this.commands.length);
+
+        for (Command cmd : commands) {
+            for (SubsystemBase requirement : cmd.getRequirements()) {
+                if (getRequirements().contains(requirement)) {
+                    throw new IllegalArgumentException("Commands in a parallel group cannot require the same subsystem: "
+                            + requirement.getName());
+                }
+            }
+            this.commands[index++] = cmd;
+            // Merge child requirements
+            cmd.getRequirements().forEach(this::addRequirement);
+            addDataflow(cmd);
+        }
+    }
+
+    @Override
+    public void initialize() {
+        long now = Clocks.get().nanoTime();
+        groupStartTime = now;
+        isFinished = false;
+        numRunning = commands.length;
+        for (int i = 0; i < commands.length; i++) {
+            running[i] = true;
+            startTimes[i] = now;
+            CommandTracer.initialize(commands[i]);
+            commands[i].initialize();
+        }
+    }
+
+    @Override
+    public void execute(TelemetryPacket packet) {
+        if (isFinished) {
+            return;
+        }
+
+        long now = Clocks.get().nanoTime();
+
+        // Check the timeout of the whole group
+        if (timeout > 0 && now - groupStartTime >= timeout * Clock.NANOS_PER_MILLI) {
+            isFinished = true;
+            return;
+        }
+
+        for (int i = 0; i < commands.length; i++) {
+            if (!running[i]) {
+                continue;
+            }
+            Command command = commands[i];
+
+            // Check the child's own timeout
+            long childTimeout = command.getTimeout();
+            if (childTimeout > 0 && now - startTimes[i] >= childTimeout * Clock.NANOS_PER_MILLI) {
+                command.end(true);
+                CommandTracer.end(command, true);
+                running[i] = false;
+                numRunning--;
+                onCommandEnd(i, true);
+                // A race or deadline group ended, the others must not run again
+                if (isFinished) {
+                    break;
+                }
+                continue;
+            }
+
+            CommandTracer.executeBegin(command);
+            command.execute(packet);
+            CommandTracer.executeEnd(command);
+
+            if (command.isFinished()) {
+                command.end(false);
+                CommandTracer.end(command, false);
+                running[i] = false;
+                numRunning--;
+                onCommandEnd(i, false);
+                if (isFinished) {
+                    break;
+                }
+            }
+        }
+
+        if (numRunning == 0) {
+            isFinished = true;
+        }
+    }
+
+    /**
+     * Called when a child command ends, either by finishing or timing out.
+     * Subclasses use this to decide when the whole group is done.
+     *
+     * @param index       Index of the child command, in the order it was added
+     * @param interrupted Whether the child timed out
+     */
+    protected void onCommandEnd(int index, boolean interrupted) {
+    }
+
+    /**
+     * Mark the group as finished. Children still running are interrupted in
+     * {@link #end(boolean)}.
+     */
+    protected void finish() {
+        isFinished = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        // Anything still running when the group ends has been cut short
+        for (int i = 0; i < commands.length; i++) {
+            if (running[i]) {
+                commands[i].end(true);
+                CommandTracer.end(commands[i], true);
+                running[i] = false;
+            }
+        }
+        numRunning = 0;
+    }
+
+    @Override
+    public long getTimeout() {
+        return timeout;
+    }
+}
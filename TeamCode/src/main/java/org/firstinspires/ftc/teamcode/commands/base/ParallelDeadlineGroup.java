@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+/**
+ * Runs all of its commands at the same time and finishes when the deadline
+ * command finishes. Other commands still running at that point are interrupted.
+ */
+public class ParallelDeadlineGroup extends ParallelCommandGroup {
+    public ParallelDeadlineGroup(Command deadline, Command... commands) {
+        super(deadline);
+        addCommands(commands);
+    }
+
+    @Override
+    protected void onCommandEnd(int index, boolean interrupted) {
+        // The deadline is always the first command
+        if (index == 0) {
+            finish();
+        }
+    }
+}
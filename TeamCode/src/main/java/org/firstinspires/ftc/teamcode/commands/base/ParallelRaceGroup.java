@@ -0,0 +1,16 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+/**
+ * Runs all of its commands at the same time and finishes as soon as any one of
+ * them finishes. The remaining commands are interrupted.
+ */
+public class ParallelRaceGroup extends ParallelCommandGroup {
+    public ParallelRaceGroup(Command... commands) {
+        super(commands);
+    }
+
+    @Override
+    protected void onCommandEnd(int index, boolean interrupted) {
+        finish();
+    }
+}
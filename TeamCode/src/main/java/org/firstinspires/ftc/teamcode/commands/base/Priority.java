@@ -0,0 +1,21 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+/**
+ * Scheduling class for commands and subsystems. Within a tick the scheduler
+ * runs control-critical work first, then normal, then deferrable work.
+ */
+public enum Priority {
+    /**
+     * Runs every tick before anything else, e.g. drive control.
+     */
+    CONTROL_CRITICAL,
+    /**
+     * Runs every tick.
+     */
+    NORMAL,
+    /**
+     * May be postponed to a later tick once the loop budget is used up, e.g.
+     * telemetry-heavy work or vision post-processing.
+     */
+    DEFERRABLE
+}
@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import com.acmerobotics.roadrunner.Action;
+
+/**
+ * An Action that can be run again after it finished.
+ * <p>
+ * RoadRunner actions are normally single use. Actions implementing this can be
+ * built once, e.g. when an OpMode initializes, and re-armed with
+ * {@link #reset()} before each run. {@link ActionCommand} resets its action
+ * every time it is initialized.
+ */
+public interface ResettableAction extends Action {
+    /**
+     * Put the action back in the state it was in before its first run.
+     */
+    void reset();
+
+    /**
+     * Reset an action if it supports it.
+     *
+     * @return false if the action is single use and cannot be re-armed
+     */
+    static boolean reset(Action action) {
+        if (action instanceof ResettableAction) {
+            ((ResettableAction) action).reset();
+            return true;
+        }
+        return false;
+    }
+}
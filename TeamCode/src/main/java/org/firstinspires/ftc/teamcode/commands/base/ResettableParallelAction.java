@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import androidx.annotation.NonNull;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.acmerobotics.roadrunner.Action;
+
+/**
+ * Same behavior as RoadRunner's ParallelAction, but can be reset and run
+ * again. Resetting also resets every child that implements
+ * {@link ResettableAction}.
+ */
+public class ResettableParallelAction implements ResettableAction {
+    private final Action[] actions;
+    private final boolean[] finished;
+
+    public ResettableParallelAction(Action... actions) {
+        this.actions = actions;
+        this.finished = new boolean[actions.length];
+    }
+
+    @Override
+    public boolean run(@NonNull TelemetryPacket packet) {
+        boolean running = false;
+        for (int i = 0; i < actions.length; i++) {
+            if (finished[i]) {
+                continue;
+            }
+            if (actions[i].run(packet)) {
+                running = true;
+            } else {
+                finished[i] = true;
+            }
+        }
+        return running;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < actions.length; i++) {
+            finished[i] = false;
+            ResettableAction.reset(actions[i]);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import androidx.annotation.NonNull;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.acmerobotics.roadrunner.Action;
+
+/**
+ * Same behavior as RoadRunner's SequentialAction, but can be reset and run
+ * again. Resetting also resets every child that implements
+ * {@link ResettableAction}.
+ */
+public class ResettableSequentialAction implements ResettableAction {
+    private final Action[] actions;
+    private int current = 0;
+
+    public ResettableSequentialAction(Action... actions) {
+        this.actions = actions;
+    }
+
+    @Override
+    public boolean run(@NonNull TelemetryPacket packet) {
+        // Like SequentialAction, move on to the next action in the same call
+        while (current < actions.length) {
+            if (actions[current].run(packet)) {
+                return true;
+            }
+            current++;
+        }
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        current = 0;
+        for (Action action : actions) {
+            ResettableAction.reset(action);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.firstinspires.ftc.teamcode.commands.base;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import java.util.Arrays;
+
+/**
+ * Latency histograms for command classes and subsystems, fed by the command
+ * scheduler when {@code ConfigVariables.General.PROFILE_SCHEDULER} is on.
+ * <p>
+ * Each tracked key gets an integer id when first seen. Samples go into
+ * power-of-two nanosecond buckets stored in flat primitive arrays, so recording
+ * a sample never allocates. {@link #publish(TelemetryPacket)} writes p50, p95
+ * and max for every key and then starts a fresh window. Running totals are kept
+ * across windows for end-of-run reports.
+ */
+public class SchedulerProfiler {
+    // Bucket b holds samples in [2^(b-1), 2^b) ns; the last bucket is open-ended (> ~1 s)
+    private static final int BUCKETS = 32;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private String[] p50Keys = new String[INITIAL_CAPACITY];
+    private String[] p95Keys = new String[INITIAL_CAPACITY];
+    private String[] maxKeys = new String[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY * BUCKETS];
+    private long[] samples = new long[INITIAL_CAPACITY];
+    private long[] max = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] totalNanos = new long[INITIAL_CAPACITY];
+    private long[] totalSamples = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Get the id for a command class, registering it if needed.
+     */
+    public int commandId(Class<?> commandClass) {
+        int id = find(commandClass);
+        if (id < 0) {
+            String name = commandClass.getSimpleName();
+            if (name.isEmpty()) {
+                name = commandClass.getName();
+            }
+            id = add(commandClass, "profiler/command/" + name);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id for a subsystem, registering it if needed.
+     */
+    public int subsystemId(Object subsystem, String name) {
+        int id = find(subsystem);
+        if (id < 0) {
+            id = add(subsystem, "profiler/subsystem/" + name);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id for any other key, registering it if needed.
+     *
+     * @param prefix Telemetry key prefix, e.g. "transactions/hub/controlhub/loop"
+     */
+    public int keyId(Object key, String prefix) {
+        int id = find(key);
+        if (id < 0) {
+            id = add(key, prefix);
+        }
+        return id;
+    }
+
+    /**
+     * Record one sample.
+     *
+     * @param id    Id from {@link #commandId}, {@link #subsystemId} or {@link #keyId}
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(int id, long nanos) {
+        int bucket = Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0)));
+        counts[id * BUCKETS + bucket]++;
+        samples[id]++;
+        if (nanos > max[id]) {
+            max[id] = nanos;
+        }
+        totalNanos[id] += nanos;
+        totalSamples[id]++;
+    }
+
+    /**
+     * Write p50/p95/max in milliseconds for every key with samples, then clear
+     * the histograms.
+     */
+    public void publish(TelemetryPacket packet) {
+        for (int id = 0; id < size; id++) {
+            if (samples[id] == 0) {
+                continue;
+            }
+            packet.put(p50Keys[id], percentile(id, 0.50) / 1e6);
+            packet.put(p95Keys[id], percentile(id, 0.95) / 1e6);
+            packet.put(maxKeys[id], max[id] / 1e6);
+        }
+        clear();
+    }
+
+    /**
+     * Clear all histograms but keep the registered keys.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0, size * BUCKETS, 0);
+        Arrays.fill(samples, 0, size, 0);
+        Arrays.fill(max, 0, size, 0);
+    }
+
+    /**
+     * Clear the running totals as well as the histograms.
+     */
+    public void clearTotals() {
+        clear();
+        Arrays.fill(totalNanos, 0, size, 0);
+        Arrays.fill(totalSamples, 0, size, 0);
+    }
+
+    /**
+     * @return Number of registered keys; ids run from 0 to size() - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Key name, e.g. "command/LowerSlideGrabSequenceCommand"
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return Total time recorded for a key since the last {@link #clearTotals()}, in nanoseconds
+     */
+    public long getTotalNanos(int id) {
+        return totalNanos[id];
+    }
+
+    /**
+     * @return Number of samples recorded for a key since the last {@link #clearTotals()}
+     */
+    public long getTotalSamples(int id) {
+        return totalSamples[id];
+    }
+
+    /**
+     * @return Longest sample of the current window, in nanoseconds
+     */
+    public long getMax(int id) {
+        return max[id];
+    }
+
+    /**
+     * Estimate a percentile in nanoseconds, interpolating linearly inside the
+     * bucket that contains it and capping at the observed max.
+     */
+    public double percentile(int id, double fraction) {
+        long total = samples[id];
+        if (total == 0) {
+            return 0;
+        }
+        double target = fraction * total;
+        long seen = 0;
+        int base = id * BUCKETS;
+        for (int b = 0; b < BUCKETS; b++) {
+            long count = counts[base + b];
+            if (count == 0) {
+                continue;
+            }
+            if (seen + count >= target) {
+                double low = b == 0 ? 0 : 1L << (b - 1);
+                double high = b == 0 ? 1 : 1L << b;
+                double estimate = low + (high - low) * (target - seen) / count;
+                return Math.min(estimate, max[id]);
+            }
+            seen += count;
+        }
+        return max[id];
+    }
+
+    private int find(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int add(Object key, String prefix) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            p50Keys = Arrays.copyOf(p50Keys, capacity);
+            p95Keys = Arrays.copyOf(p95Keys, capacity);
+            maxKeys = Arrays.copyOf(maxKeys, capacity);
+            counts = Arrays.copyOf(counts, capacity * BUCKETS);
+            samples = Arrays.copyOf(samples, capacity);
+            max = Arrays.copyOf(max, capacity);
+            names = Arrays.copyOf(names, capacity);
+            totalNanos = Arrays.copyOf(totalNanos, capacity);
+            totalSamples = Arrays.copyOf(totalSamples, capacity);
+        }
+        int id = size++;
+        keys[id] = key;
+        names[id] = prefix.substring(prefix.indexOf('/') + 1);
+        p50Keys[id] = prefix + "/p50_ms";
+        p95Keys[id] = prefix + "/p95_ms";
+        maxKeys[id] = prefix + "/max_ms";
+        return id;
+    }
+}
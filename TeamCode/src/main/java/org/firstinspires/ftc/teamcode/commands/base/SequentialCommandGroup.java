@@ -2,6 +2,9 @@ package org.firstinspires.ftc.teamcode.commands.base;
 
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,8 +13,8 @@ public class SequentialCommandGroup extends CommandBase {
     public long timeout = 0; // 整个组的超时时间
     private int currentCommandIndex = -1;
     private Command currentCommand = null;
-    private long groupStartTime;
-    private long currentCommandStartTime;
+    private long groupStartTime; // ns
+    private long currentCommandStartTime; // ns
     private boolean isFinished = false;
 
     public SequentialCommandGroup(Command... commands) {
@@ -25,18 +28,24 @@ public class SequentialCommandGroup extends CommandBase {
             this.commands.add(cmd);
             // 合并所有子命令的requirements
             cmd.getRequirements().forEach(this::addRequirement);
+            addDataflow(cmd);
         }
     }
 
+    List<Command> getCommands() {
+        return commands;
+    }
+
     @Override
     public void initialize() {
         currentCommandIndex = 0;
         isFinished = false;
-        groupStartTime = System.currentTimeMillis();
+        groupStartTime = Clocks.get().nanoTime();
 
         if (!commands.isEmpty()) {
             currentCommand = commands.get(0);
-            currentCommandStartTime = System.currentTimeMillis();
+            currentCommandStartTime = groupStartTime;
+            CommandTracer.initialize(currentCommand);
             currentCommand.initialize();
         }
     }
@@ -48,23 +57,27 @@ public class SequentialCommandGroup extends CommandBase {
         }
 
         // 检查整个组的超时
-        if (timeout > 0 && (System.currentTimeMillis() - groupStartTime) >= timeout) {
+        long now = Clocks.get().nanoTime();
+        if (timeout > 0 && (now - groupStartTime) >= timeout * Clock.NANOS_PER_MILLI) {
             cancelCurrentCommand(true);
             isFinished = true;
             return;
         }
 
         // 执行当前命令
+        CommandTracer.executeBegin(currentCommand);
         currentCommand.execute(packet);
+        CommandTracer.executeEnd(currentCommand);
 
         // 检查当前命令是否完成
         if (currentCommand.isFinished()) {
             currentCommand.end(false);
+            CommandTracer.end(currentCommand, false);
             moveToNextCommand();
         }
         // 检查当前命令的超时
         else if (currentCommand.getTimeout() > 0 &&
-                (System.currentTimeMillis() - currentCommandStartTime) >= currentCommand.getTimeout()) {
+                (now - currentCommandStartTime) >= currentCommand.getTimeout() * Clock.NANOS_PER_MILLI) {
             cancelCurrentCommand(true);
             moveToNextCommand();
         }
@@ -74,7 +87,8 @@ public class SequentialCommandGroup extends CommandBase {
         currentCommandIndex++;
         if (currentCommandIndex < commands.size()) {
             currentCommand = commands.get(currentCommandIndex);
-            currentCommandStartTime = System.currentTimeMillis();
+            currentCommandStartTime = Clocks.get().nanoTime();
+            CommandTracer.initialize(currentCommand);
             currentCommand.initialize();
         } else {
             isFinished = true;
@@ -85,6 +99,7 @@ public class SequentialCommandGroup extends CommandBase {
     private void cancelCurrentCommand(boolean interrupted) {
         if (currentCommand != null) {
             currentCommand.end(interrupted);
+            CommandTracer.end(currentCommand, interrupted);
         }
     }
 
@@ -3,21 +3,39 @@ package org.firstinspires.ftc.teamcode.commands.base;
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 
 import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.function.DoubleSupplier;
 
 public class WaitCommand implements Command {
-    private final double seconds;
-    private long startTime;
+    private final DoubleSupplier seconds;
+    private long duration;  // ns, read when the wait starts
+    private long startTime; // ns
+    private int schedulerIndex = -1;
 
     public WaitCommand(double seconds) {
+        this(() -> seconds);
+    }
+
+    /**
+     * Wait for a duration read each time the command starts, e.g. a dashboard
+     * tunable, so a command built once still follows edits.
+     */
+    public WaitCommand(DoubleSupplier seconds) {
         this.seconds = seconds;
     }
 
+    long getDurationNanos() {
+        return (long) (seconds.getAsDouble() * Clock.NANOS_PER_SECOND);
+    }
+
     @Override
     public void initialize() {
-        startTime = System.currentTimeMillis();
+        duration = getDurationNanos();
+        startTime = Clocks.get().nanoTime();
     }
 
     @Override
@@ -27,7 +45,7 @@ public class WaitCommand implements Command {
 
     @Override
     public boolean isFinished() {
-        return System.currentTimeMillis() - startTime >= seconds * 1000;
+        return Clocks.get().nanoTime() - startTime >= duration;
     }
 
     @Override
@@ -37,6 +55,21 @@ public class WaitCommand implements Command {
 
     @Override
     public Set<SubsystemBase> getRequirements() {
-        return new HashSet<>();
+        return Collections.emptySet();
+    }
+
+    @Override
+    public int getSchedulerIndex() {
+        return schedulerIndex;
+    }
+
+    @Override
+    public void setSchedulerIndex(int index) {
+        this.schedulerIndex = index;
+    }
+
+    @Override
+    public long getRequirementMask() {
+        return 0;
     }
 }
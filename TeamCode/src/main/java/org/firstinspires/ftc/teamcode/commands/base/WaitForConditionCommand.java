@@ -3,6 +3,8 @@ package org.firstinspires.ftc.teamcode.commands.base;
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 
 import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
@@ -11,7 +13,7 @@ public class WaitForConditionCommand extends CommandBase {
     private final BooleanSupplier condition;
     private final long timeout;
     private final Command command;
-    private long startTime;
+    private long startTime; // ns
     private boolean conditionMet;
     private boolean isFinished;
     private boolean commandStarted;
@@ -23,11 +25,20 @@ public class WaitForConditionCommand extends CommandBase {
 
         command.getRequirements().forEach((Consumer<SubsystemBase>) requirements ->
                 this.addRequirement(requirements));
+        addDataflow(command);
+    }
+
+    BooleanSupplier getCondition() {
+        return condition;
+    }
+
+    Command getCommand() {
+        return command;
     }
 
     @Override
     public void initialize() {
-        startTime = System.currentTimeMillis();
+        startTime = Clocks.get().nanoTime();
         conditionMet = false;
         isFinished = false;
         commandStarted = false;
@@ -39,7 +50,8 @@ public class WaitForConditionCommand extends CommandBase {
             return;
         }
 
-        if (command.getTimeout() > 0 && (System.currentTimeMillis() - startTime) >= command.getTimeout()) {
+        if (command.getTimeout() > 0
+                && (Clocks.get().nanoTime() - startTime) >= command.getTimeout() * Clock.NANOS_PER_MILLI) {
             isFinished = true;
             return;
         }
@@ -47,6 +59,7 @@ public class WaitForConditionCommand extends CommandBase {
         if (!conditionMet) {
             conditionMet = condition.getAsBoolean();
             if (conditionMet) {
+                CommandTracer.initialize(command);
                 command.initialize();
                 commandStarted = true;
             }
@@ -54,10 +67,13 @@ public class WaitForConditionCommand extends CommandBase {
         }
 
         if (commandStarted) {
+            CommandTracer.executeBegin(command);
             command.execute(packet);
+            CommandTracer.executeEnd(command);
 
             if (command.isFinished()) {
                 command.end(false);
+                CommandTracer.end(command, false);
                 isFinished = true;
             }
         }
@@ -72,6 +88,7 @@ public class WaitForConditionCommand extends CommandBase {
     public void end(boolean interrupted) {
         if (commandStarted) {
             command.end(interrupted);
+            CommandTracer.end(command, interrupted);
         }
     }
 
@@ -79,4 +96,9 @@ public class WaitForConditionCommand extends CommandBase {
     public long getTimeout() {
         return timeout;
     }
+
+    @Override
+    public Priority getPriority() {
+        return command.getPriority();
+    }
 }
\ No newline at end of file
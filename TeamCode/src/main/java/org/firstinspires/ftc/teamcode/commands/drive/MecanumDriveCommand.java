@@ -7,8 +7,11 @@ import com.acmerobotics.roadrunner.Vector2d;
 import com.qualcomm.robotcore.hardware.Gamepad;
 
 import org.firstinspires.ftc.teamcode.commands.base.Command;
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
 import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
 import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 
 import java.util.Set;
@@ -21,6 +24,23 @@ public class MecanumDriveCommand implements Command {
     private double speedMultiplier = 1.0;
     private boolean fieldCentric = true;
     private boolean acceptManual = true;
+    private int schedulerIndex = -1;
+
+    // Telemetry channels
+    private final TelemetryChannels.DoubleChannel xPositionChannel =
+            TelemetryChannels.getInstance().doubleChannel("X Position");
+    private final TelemetryChannels.DoubleChannel yPositionChannel =
+            TelemetryChannels.getInstance().doubleChannel("Y Position");
+    private final TelemetryChannels.DoubleChannel headingDegChannel =
+            TelemetryChannels.getInstance().doubleChannel("Heading (deg)");
+    private final TelemetryChannels.DoubleChannel xVelocityChannel =
+            TelemetryChannels.getInstance().doubleChannel("X Velocity");
+    private final TelemetryChannels.DoubleChannel yVelocityChannel =
+            TelemetryChannels.getInstance().doubleChannel("Y Velocity");
+    private final TelemetryChannels.DoubleChannel angularVelocityChannel =
+            TelemetryChannels.getInstance().doubleChannel("Angular Velocity");
+    private final TelemetryChannels.DoubleChannel speedMultiplierChannel =
+            TelemetryChannels.getInstance().doubleChannel("Speed Multiplier");
 
     public MecanumDriveCommand(MecanumDrive drive, Gamepad gamepad) {
         this.drive = drive;
@@ -68,16 +88,16 @@ public class MecanumDriveCommand implements Command {
                     driveVector,
                     -gamepad.right_stick_x * ConfigVariables.General.DRIVE_ROTATE_FACTOR * speedMultiplier
             ));
-            packet.put("X Position", currentPose.position.x);
-            packet.put("Y Position", currentPose.position.y);
-            packet.put("Heading (deg)", Math.toDegrees(currentPose.heading.toDouble()));
-            packet.put("X Velocity", velocity.linearVel.x);
-            packet.put("Y Velocity", velocity.linearVel.y);
-            packet.put("Angular Velocity", velocity.angVel);
+            xPositionChannel.set(currentPose.position.x);
+            yPositionChannel.set(currentPose.position.y);
+            headingDegChannel.set(Math.toDegrees(currentPose.heading.toDouble()));
+            xVelocityChannel.set(velocity.linearVel.x);
+            yVelocityChannel.set(velocity.linearVel.y);
+            angularVelocityChannel.set(velocity.angVel);
         }
         // Add telemetry
         packet.put("Drive Mode", fieldCentric ? "Field Centric" : "Robot Centric");
-        packet.put("Speed Multiplier", speedMultiplier);
+        speedMultiplierChannel.set(speedMultiplier);
     }
 
     public void enableControl() {
@@ -102,8 +122,28 @@ public class MecanumDriveCommand implements Command {
         ));
     }
 
+    @Override
+    public Priority getPriority() {
+        return Priority.CONTROL_CRITICAL;
+    }
+
+    @Override
+    public long getConsumesMask() {
+        return DataKey.POSE.mask();
+    }
+
     @Override
     public Set<SubsystemBase> getRequirements() {
         return Set.of();
     }
+
+    @Override
+    public int getSchedulerIndex() {
+        return schedulerIndex;
+    }
+
+    @Override
+    public void setSchedulerIndex(int index) {
+        this.schedulerIndex = index;
+    }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ import java.util.Set;
 public class SetDriveSpeedCommand implements Command {
     private final double speed;
     private final MecanumDrive drive;
+    private int schedulerIndex = -1;
 
     public SetDriveSpeedCommand(MecanumDrive drive, double speed) {
         this.drive = drive;
@@ -52,4 +53,14 @@ public class SetDriveSpeedCommand implements Command {
     public Set<SubsystemBase> getRequirements() {
         return Collections.emptySet();
     }
+
+    @Override
+    public int getSchedulerIndex() {
+        return schedulerIndex;
+    }
+
+    @Override
+    public void setSchedulerIndex(int index) {
+        this.schedulerIndex = index;
+    }
 }
@@ -4,16 +4,21 @@ import androidx.annotation.NonNull;
 
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 import com.acmerobotics.roadrunner.Action;
-import com.acmerobotics.roadrunner.ParallelAction;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
+import org.firstinspires.ftc.teamcode.commands.base.ResettableParallelAction;
 import org.firstinspires.ftc.teamcode.subsystems.slides.LowerSlide;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.LowerSlideVars;
 import org.firstinspires.ftc.teamcode.utils.control.ExpansionHub;
 
+import java.util.function.DoubleSupplier;
+
 /**
- * Factory class for creating lower slide commands
+ * Factory class for creating lower slide commands.
+ * Returned actions can be reset (see ResettableAction), so they can be built
+ * once and run many times. Presets read their LowerSlideVars value each time
+ * they run, so dashboard edits apply without rebuilding them.
  */
 public class LowerSlideCommands {
     private final LowerSlide lowSlide;
@@ -23,22 +28,33 @@ public class LowerSlideCommands {
     }
 
     public Action setSlidePos(double cm) {
+        return new SlidePositionCommand(() -> cm);
+    }
+
+    /**
+     * @param cm Read each time the action starts, e.g. a dashboard tunable
+     */
+    public Action setSlidePos(DoubleSupplier cm) {
         return new SlidePositionCommand(cm);
     }
 
     public Action slidePos0() {
-        return setSlidePos(LowerSlideVars.POS_0_CM);
+        return setSlidePos(() -> LowerSlideVars.POS_0_CM);
     }
 
     public Action slidePos1() {
-        return setSlidePos(LowerSlideVars.POS_1_CM);
+        return setSlidePos(() -> LowerSlideVars.POS_1_CM);
     }
 
     public Action slidePos2() {
-        return setSlidePos(LowerSlideVars.POS_2_CM);
+        return setSlidePos(() -> LowerSlideVars.POS_2_CM);
     }
 
     public Action setPart1Pos(double pos) {
+        return new Part1Command(() -> pos);
+    }
+
+    public Action setPart1Pos(DoubleSupplier pos) {
         return new Part1Command(pos);
     }
 
@@ -59,40 +75,48 @@ public class LowerSlideCommands {
     }
 
     public Action setPart2Pos(double pos) {
+        return new Part2Command(() -> pos);
+    }
+
+    public Action setPart2Pos(DoubleSupplier pos) {
         return new Part2Command(pos);
     }
 
     public Action upPart1() {
-        return setPart1Pos(LowerSlideVars.UP_BIG);
+        return setPart1Pos(() -> LowerSlideVars.UP_BIG);
     }
 
     public Action upPart2() {
-        return setPart2Pos(LowerSlideVars.UP_SMALL);
+        return setPart2Pos(() -> LowerSlideVars.UP_SMALL);
     }
 
     public Action grabPart1() {
-        return setPart1Pos(LowerSlideVars.GRAB_BIG);
+        return setPart1Pos(() -> LowerSlideVars.GRAB_BIG);
     }
 
     public Action grabPart2() {
-        return setPart2Pos(LowerSlideVars.GRAB_SMALL);
+        return setPart2Pos(() -> LowerSlideVars.GRAB_SMALL);
     }
 
     public Action hoverPart1() {
-        return setPart1Pos(LowerSlideVars.HOVER_BIG);
+        return setPart1Pos(() -> LowerSlideVars.HOVER_BIG);
     }
 
     public Action hoverPart2() {
-        return setPart2Pos(LowerSlideVars.HOVER_SMALL);
+        return setPart2Pos(() -> LowerSlideVars.HOVER_SMALL);
     }
 
     public Action hover() {
-        return new ParallelAction(
+        return new ResettableParallelAction(
                 hoverPart1(),
                 hoverPart2());
     }
 
     public Action setSpinClawDeg(double deg) {
+        return new SpinClawCommand(() -> deg);
+    }
+
+    public Action setSpinClawDeg(DoubleSupplier deg) {
         return new SpinClawCommand(deg);
     }
 
@@ -109,36 +133,31 @@ public class LowerSlideCommands {
     }
 
     public Action up() {
-        return new ParallelAction(
+        return new ResettableParallelAction(
                 upPart1(),
                 upPart2(),
-                setSpinClawDeg(LowerSlideVars.SPINCLAW_DEG));
+                setSpinClawDeg(() -> LowerSlideVars.SPINCLAW_DEG));
     }
 
     public Action openClaw() {
-        return new ClawCommand(LowerSlideVars.CLAW_OPEN);
+        return new ClawCommand(() -> LowerSlideVars.CLAW_OPEN);
     }
 
     public Action closeClaw() {
-        return new ClawCommand(LowerSlideVars.CLAW_CLOSE);
+        return new ClawCommand(() -> LowerSlideVars.CLAW_CLOSE);
     }
 
     // SLIDE POSITION COMMANDS
     private class SlidePositionCommand extends SlideCommand {
-        private final double targetCm;
+        private final DoubleSupplier targetCm;
 
-        public SlidePositionCommand(double cm) {
+        public SlidePositionCommand(DoubleSupplier cm) {
             this.targetCm = cm;
         }
 
         @Override
         protected void setTargetPosition() {
-            lowSlide.setPositionCM(targetCm);
-        }
-
-        @Override
-        protected void updatePID() {
-            lowSlide.updatePID();
+            lowSlide.setPositionCM(targetCm.getAsDouble());
         }
 
         @Override
@@ -159,7 +178,7 @@ public class LowerSlideCommands {
 
     // PART1 AND PART2 COMMANDS
     private class Part1Command extends ServoCommand {
-        public Part1Command(double pos) {
+        public Part1Command(DoubleSupplier pos) {
             super("lowerslide/part1_target", pos);
         }
 
@@ -170,7 +189,7 @@ public class LowerSlideCommands {
     }
 
     private class Part2Command extends ServoCommand {
-        public Part2Command(double pos) {
+        public Part2Command(DoubleSupplier pos) {
             super("lowerslide/part2_target", pos);
         }
 
@@ -182,7 +201,7 @@ public class LowerSlideCommands {
 
     // SPINCLAW COMMANDS
     private class SpinClawCommand extends ServoCommand {
-        public SpinClawCommand(double deg) {
+        public SpinClawCommand(DoubleSupplier deg) {
             super("lowerslide/spinclaw_deg", deg);
         }
 
@@ -194,7 +213,7 @@ public class LowerSlideCommands {
 
     // CLAW COMMANDS
     private class ClawCommand extends ServoCommand {
-        public ClawCommand(double pos) {
+        public ClawCommand(DoubleSupplier pos) {
             super("lowerslide/claw_target", pos);
         }
 
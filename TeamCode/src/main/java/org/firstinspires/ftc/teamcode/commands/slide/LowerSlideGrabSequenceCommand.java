@@ -13,9 +13,9 @@ public class LowerSlideGrabSequenceCommand extends SequentialCommandGroup {
                         new ActionCommand(new LowerSlideCommands(lowSlide).openClaw()),
                         new ActionCommand(new LowerSlideCommands(lowSlide).grabPart1()),
                         new ActionCommand(new LowerSlideCommands(lowSlide).grabPart2()),
-                        new WaitCommand(ConfigVariables.LowerSlideVars.POS_GRAB_TIMEOUT / 1000.0),
+                        new WaitCommand(() -> ConfigVariables.LowerSlideVars.POS_GRAB_TIMEOUT / 1000.0),
                         new ActionCommand(new LowerSlideCommands(lowSlide).closeClaw()),
-                        new WaitCommand(ConfigVariables.LowerSlideVars.CLAW_CLOSE_TIMEOUT / 1000.0),
+                        new WaitCommand(() -> ConfigVariables.LowerSlideVars.CLAW_CLOSE_TIMEOUT / 1000.0),
                         new ActionCommand(new LowerSlideCommands(lowSlide).hover())
                 );
         }
@@ -6,7 +6,9 @@ import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
 import org.firstinspires.ftc.teamcode.subsystems.slides.LowerSlide;
 
 /**
- * executing the grab sequence on the lower slide
+ * Keeps the lower slide PID running for OpModes that drive actions directly
+ * instead of through the CommandScheduler (e.g. Actions.runBlocking in autos).
+ * Do not use together with the scheduler, which already updates the slide's PID.
  */
 public class LowerSlideUpdatePID extends CommandBase {
     private final LowerSlide lowSlide;
@@ -18,6 +20,8 @@ public class LowerSlideUpdatePID extends CommandBase {
 
     @Override
     public void execute(TelemetryPacket packet) {
+        // Run the slide's own tick: refresh the cached position and update the PID once
+        lowSlide.periodic(packet);
         lowSlide.updatePID();
         packet.put("lowerslide/target", lowSlide.pidfController.destination);
         packet.put("lowerslide/current", lowSlide.getCurrentPosition());
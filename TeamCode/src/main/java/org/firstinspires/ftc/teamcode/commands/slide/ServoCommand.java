@@ -1,30 +1,48 @@
 package org.firstinspires.ftc.teamcode.commands.slide;
 
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
-import com.acmerobotics.roadrunner.Action;
+
+import org.firstinspires.ftc.teamcode.commands.base.CommandTracer;
+import org.firstinspires.ftc.teamcode.commands.base.ResettableAction;
+
+import java.util.function.DoubleSupplier;
 
 /**
- * Base class for one-shot servo commands
+ * Base class for one-shot servo commands. The target is read each time the
+ * command runs, so a command built once follows dashboard edits.
  */
-public abstract class ServoCommand implements Action {
+public abstract class ServoCommand implements ResettableAction {
     private final String telemetryKey;
-    private final double targetPosition;
+    private final DoubleSupplier target;
+    private double targetPosition;
     private boolean executed = false;
 
     public ServoCommand(String telemetryKey, double targetPosition) {
+        this(telemetryKey, () -> targetPosition);
+    }
+
+    public ServoCommand(String telemetryKey, DoubleSupplier target) {
         this.telemetryKey = telemetryKey;
-        this.targetPosition = targetPosition;
+        this.target = target;
     }
 
     public void initialize() {
+        targetPosition = target.getAsDouble();
         setServoPosition();
         executed = true;
     }
 
+    @Override
+    public void reset() {
+        executed = false;
+    }
+
     @Override
     public boolean run(TelemetryPacket packet) {
         if (!executed) {
+            CommandTracer.initialize(this);
             initialize();
+            CommandTracer.end(this, false);
         }
         if (telemetryKey != null) {
             packet.put(telemetryKey, targetPosition);
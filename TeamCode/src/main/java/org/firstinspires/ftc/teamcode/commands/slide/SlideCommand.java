@@ -1,34 +1,49 @@
 package org.firstinspires.ftc.teamcode.commands.slide;
 
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
-import com.acmerobotics.roadrunner.Action;
 
+import org.firstinspires.ftc.teamcode.commands.base.CommandTracer;
+import org.firstinspires.ftc.teamcode.commands.base.ResettableAction;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 
 /**
- * Base class for slide commands that use PID control
+ * Base class for slide commands that use PID control.
+ * The command only sets the PID destination and waits for the slide to reach
+ * it; the slide subsystem updates its PID once per tick, after the commands.
  */
-public abstract class SlideCommand implements Action {
+public abstract class SlideCommand implements ResettableAction {
     protected boolean initialized = false;
+    private boolean finished = false;
 
     public void initialize() {
         setTargetPosition();
     }
 
+    @Override
+    public void reset() {
+        // Close the trace span of a run that was dropped before it finished
+        if (initialized && !finished) {
+            CommandTracer.end(this, true);
+        }
+        initialized = false;
+    }
+
     @Override
     public boolean run(TelemetryPacket packet) {
         if (!initialized) {
+            CommandTracer.initialize(this);
             initialize();
             initialized = true;
+            finished = false;
         }
-        execute();
         packet.put(getTelemetryName() + "/position", getCurrentPosition());
         packet.put(getTelemetryName() + "/target", getTargetPosition());
-        return !isFinished();
-    }
-
-    protected void execute() {
-        updatePID();
+        if (isFinished()) {
+            finished = true;
+            CommandTracer.end(this, false);
+            return false;
+        }
+        return true;
     }
 
     protected boolean isFinished() {
@@ -37,8 +52,6 @@ public abstract class SlideCommand implements Action {
 
     protected abstract void setTargetPosition();
 
-    protected abstract void updatePID();
-
     protected abstract double getCurrentPosition();
 
     protected abstract double getTargetPosition();
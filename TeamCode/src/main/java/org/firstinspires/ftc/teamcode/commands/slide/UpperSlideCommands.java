@@ -4,15 +4,20 @@ import android.graphics.Bitmap;
 import android.telecom.Conference;
 
 import com.acmerobotics.roadrunner.Action;
-import com.acmerobotics.roadrunner.SequentialAction;
 
+import org.firstinspires.ftc.teamcode.commands.base.ResettableSequentialAction;
 import org.firstinspires.ftc.teamcode.commands.base.WaitCommand;
 import org.firstinspires.ftc.teamcode.subsystems.slides.UpperSlide;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.UpperSlideVars;
 
+import java.util.function.DoubleSupplier;
+
 /**
- * Factory class for creating upper slide commands
+ * Factory class for creating upper slide commands.
+ * Returned actions can be reset (see ResettableAction), so they can be built
+ * once and run many times. Presets read their UpperSlideVars value each time
+ * they run, so dashboard edits apply without rebuilding them.
  */
 public class UpperSlideCommands {
         private final UpperSlide upSlide;
@@ -23,20 +28,15 @@ public class UpperSlideCommands {
 
         // SLIDE POSITION COMMANDS
         private class SlidePositionCommand extends SlideCommand {
-                private final double targetCm;
+                private final DoubleSupplier targetCm;
 
-                public SlidePositionCommand(double cm) {
+                public SlidePositionCommand(DoubleSupplier cm) {
                         this.targetCm = cm;
                 }
 
                 @Override
                 protected void setTargetPosition() {
-                        upSlide.setPositionCM(targetCm);
-                }
-
-                @Override
-                protected void updatePID() {
-                        upSlide.updatePID();
+                        upSlide.setPositionCM(targetCm.getAsDouble());
                 }
 
                 @Override
@@ -56,6 +56,13 @@ public class UpperSlideCommands {
         }
 
         public Action setSlidePos(double cm) {
+                return new SlidePositionCommand(() -> cm);
+        }
+
+        /**
+         * @param cm Read each time the action starts, e.g. a dashboard tunable
+         */
+        public Action setSlidePos(DoubleSupplier cm) {
                 return new SlidePositionCommand(cm);
         }
         public Action addSlideTick(int direction){
@@ -67,27 +74,27 @@ public class UpperSlideCommands {
         }
 
         public Action slidePos0() {
-                return new SequentialAction(
-                                setSlidePos(UpperSlideVars.POS_PRE_0_CM),
+                return new ResettableSequentialAction(
+                                setSlidePos(() -> UpperSlideVars.POS_PRE_0_CM),
                                 new WaitCommand(0.1).toAction(),
-                                setSlidePos(UpperSlideVars.POS_0_CM));
+                                setSlidePos(() -> UpperSlideVars.POS_0_CM));
         }
 
         public Action slidePos1() {
-                return setSlidePos(UpperSlideVars.POS_1_CM);
+                return setSlidePos(() -> UpperSlideVars.POS_1_CM);
         }
 
         public Action slidePos2() {
-                return setSlidePos(UpperSlideVars.POS_2_CM);
+                return setSlidePos(() -> UpperSlideVars.POS_2_CM);
         }
 
         public Action slidePos3() {
-                return setSlidePos(UpperSlideVars.POS_3_CM);
+                return setSlidePos(() -> UpperSlideVars.POS_3_CM);
         }
 
         // ARM COMMANDS
         private class ArmCommand extends ServoCommand {
-                public ArmCommand(double pos) {
+                public ArmCommand(DoubleSupplier pos) {
                         super("upperslide/arm_target", pos);
                 }
 
@@ -98,28 +105,32 @@ public class UpperSlideCommands {
         }
 
         public Action setArmPos(double pos) {
+                return new ArmCommand(() -> pos);
+        }
+
+        public Action setArmPos(DoubleSupplier pos) {
                 return new ArmCommand(pos);
         }
 
         public Action frontArm() {
-                return setArmPos(UpperSlideVars.FRONT_ARM_POS);
+                return setArmPos(() -> UpperSlideVars.FRONT_ARM_POS);
         }
 
         public Action behindArm() {
-                return setArmPos(UpperSlideVars.BEHIND_ARM_POS);
+                return setArmPos(() -> UpperSlideVars.BEHIND_ARM_POS);
         }
 
         public Action offwallArm() {
-                return setArmPos(UpperSlideVars.OFFWALL_FRONT_ARM_POS);
+                return setArmPos(() -> UpperSlideVars.OFFWALL_FRONT_ARM_POS);
         }
 
         public Action scorespecArm() {
-                return setArmPos(UpperSlideVars.SCORESPEC_FRONT_ARM_POS);
+                return setArmPos(() -> UpperSlideVars.SCORESPEC_FRONT_ARM_POS);
         }
 
         // SWING COMMANDS
         private class SwingCommand extends ServoCommand {
-                public SwingCommand(double pos) {
+                public SwingCommand(DoubleSupplier pos) {
                         super("upperslide/swing_target", pos);
                 }
 
@@ -130,28 +141,32 @@ public class UpperSlideCommands {
         }
 
         public Action setSwingPos(double pos) {
+                return new SwingCommand(() -> pos);
+        }
+
+        public Action setSwingPos(DoubleSupplier pos) {
                 return new SwingCommand(pos);
         }
 
         public Action frontSwing() {
-                return setSwingPos(UpperSlideVars.FRONT_SWING_POS);
+                return setSwingPos(() -> UpperSlideVars.FRONT_SWING_POS);
         }
 
         public Action behindSwing() {
-                return setSwingPos(UpperSlideVars.BEHIND_SWING_POS);
+                return setSwingPos(() -> UpperSlideVars.BEHIND_SWING_POS);
         }
 
         public Action offwallSwing() {
-                return setSwingPos(UpperSlideVars.OFFWALL_FRONT_SWING_POS);
+                return setSwingPos(() -> UpperSlideVars.OFFWALL_FRONT_SWING_POS);
         }
 
         public Action scorespecSwing() {
-                return setSwingPos(UpperSlideVars.SCORESPEC_FRONT_SWING_POS);
+                return setSwingPos(() -> UpperSlideVars.SCORESPEC_FRONT_SWING_POS);
         }
 
         // CLAW COMMANDS
         private class ClawCommand extends ServoCommand {
-                public ClawCommand(double pos) {
+                public ClawCommand(DoubleSupplier pos) {
                         super("upperslide/claw_target", pos);
                 }
 
@@ -166,7 +181,7 @@ public class UpperSlideCommands {
         }
 
         private class ExtendoClawCommand extends ServoCommand {
-                public ExtendoClawCommand(double pos) {
+                public ExtendoClawCommand(DoubleSupplier pos) {
                         super("upperslide/extendo_claw_target", pos);
                 }
 
@@ -181,46 +196,46 @@ public class UpperSlideCommands {
         }
 
         public Action openClaw() {
-                return new ClawCommand(UpperSlideVars.CLAW_OPEN);
+                return new ClawCommand(() -> UpperSlideVars.CLAW_OPEN);
         }
 
         public Action closeClaw() {
-                return new ClawCommand(UpperSlideVars.CLAW_CLOSE);
+                return new ClawCommand(() -> UpperSlideVars.CLAW_CLOSE);
         }
 
-        public Action openExtendoClaw() { return new ExtendoClawCommand(UpperSlideVars.EXTENDO_OPEN); }
+        public Action openExtendoClaw() { return new ExtendoClawCommand(() -> UpperSlideVars.EXTENDO_OPEN); }
 
-        public Action closeExtendoClaw() { return new ExtendoClawCommand(UpperSlideVars.EXTENDO_CLOSE); }
+        public Action closeExtendoClaw() { return new ExtendoClawCommand(() -> UpperSlideVars.EXTENDO_CLOSE); }
 
 
 
         public Action transfer() {
-                return new SequentialAction(
-                                setArmPos(UpperSlideVars.BEHIND_ARM_POS),
-                                setSwingPos(UpperSlideVars.BEHIND_SWING_POS));
+                return new ResettableSequentialAction(
+                                setArmPos(() -> UpperSlideVars.BEHIND_ARM_POS),
+                                setSwingPos(() -> UpperSlideVars.BEHIND_SWING_POS));
         }
 
         public Action front() {
-                return new SequentialAction(
-                                setArmPos(UpperSlideVars.FRONT_ARM_POS),
-                                setSwingPos(UpperSlideVars.FRONT_SWING_POS));
+                return new ResettableSequentialAction(
+                                setArmPos(() -> UpperSlideVars.FRONT_ARM_POS),
+                                setSwingPos(() -> UpperSlideVars.FRONT_SWING_POS));
         }
 
         public Action offwall() {
-                return new SequentialAction(
-                        setArmPos(UpperSlideVars.OFFWALL_FRONT_ARM_POS),
-                        setSwingPos(UpperSlideVars.OFFWALL_FRONT_SWING_POS));
+                return new ResettableSequentialAction(
+                        setArmPos(() -> UpperSlideVars.OFFWALL_FRONT_ARM_POS),
+                        setSwingPos(() -> UpperSlideVars.OFFWALL_FRONT_SWING_POS));
         }
 
         public Action scorespec() {
-                return new SequentialAction(
-                                setArmPos(UpperSlideVars.SCORESPEC_FRONT_ARM_POS),
-                                setSwingPos(UpperSlideVars.SCORESPEC_FRONT_SWING_POS));
+                return new ResettableSequentialAction(
+                                setArmPos(() -> UpperSlideVars.SCORESPEC_FRONT_ARM_POS),
+                                setSwingPos(() -> UpperSlideVars.SCORESPEC_FRONT_SWING_POS));
         }
 
         public Action inter() {
-                return new SequentialAction(
-                        setArmPos(UpperSlideVars.INTER_ARM_POS),
-                        setSwingPos(UpperSlideVars.INTER_SWING_POS));
+                return new ResettableSequentialAction(
+                        setArmPos(() -> UpperSlideVars.INTER_ARM_POS),
+                        setSwingPos(() -> UpperSlideVars.INTER_SWING_POS));
         }
 }
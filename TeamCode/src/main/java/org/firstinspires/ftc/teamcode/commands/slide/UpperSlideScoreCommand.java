@@ -17,12 +17,12 @@ public class UpperSlideScoreCommand extends SequentialCommandGroup {
                 addCommands(
                         new ActionCommand(upperSlideCommands.inter()),
                         new ActionCommand(upperSlideCommands.slidePos3()),
-                        new WaitCommand(ConfigVariables.UpperSlideVars.SLIDEPOS3_DELAY),
+                        new WaitCommand(() -> ConfigVariables.UpperSlideVars.SLIDEPOS3_DELAY),
                         new ActionCommand(upperSlideCommands.front()),
                         new ActionCommand(upperSlideCommands.openExtendoClaw()),
-                        new WaitCommand(ConfigVariables.UpperSlideVars.FRONT_DELAY),
+                        new WaitCommand(() -> ConfigVariables.UpperSlideVars.FRONT_DELAY),
                         new ActionCommand(upperSlideCommands.openClaw()),
-                        new WaitCommand(ConfigVariables.General.CLAW_OPERATION_TIMEOUT),
+                        new WaitCommand(() -> ConfigVariables.General.CLAW_OPERATION_TIMEOUT),
                         new ActionCommand(upperSlideCommands.inter()),
                         new ActionCommand(upperSlideCommands.closeExtendoClaw())
                 );
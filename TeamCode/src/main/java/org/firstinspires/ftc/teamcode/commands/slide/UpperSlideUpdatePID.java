@@ -6,7 +6,9 @@ import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
 import org.firstinspires.ftc.teamcode.subsystems.slides.UpperSlide;
 
 /**
- * executing the grab sequence on the lower slide
+ * Keeps the upper slide PID running for OpModes that drive actions directly
+ * instead of through the CommandScheduler (e.g. Actions.runBlocking in autos).
+ * Do not use together with the scheduler, which already updates the slide's PID.
  */
 public class UpperSlideUpdatePID extends CommandBase {
     private final UpperSlide upSlide;
@@ -18,6 +20,8 @@ public class UpperSlideUpdatePID extends CommandBase {
 
     @Override
     public void execute(TelemetryPacket packet) {
+        // Run the slide's own tick: refresh the cached position and update the PID once
+        upSlide.periodic(packet);
         upSlide.updatePID();
         packet.put("UpperSlide/target", upSlide.pidfController.destination);
         packet.put("UpperSlide/current", upSlide.getCurrentPosition());
@@ -3,6 +3,8 @@ package org.firstinspires.ftc.teamcode.commands.vision;
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 
 import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
 import org.firstinspires.ftc.teamcode.sensors.limelight.Limelight;
 import org.firstinspires.ftc.teamcode.subsystems.slides.LowerSlide;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
@@ -22,12 +24,14 @@ public class AngleAdjustCommand extends CommandBase {
     public AngleAdjustCommand(LowerSlide lowSlide, Limelight camera) { // Gamepad gamepad1
         this.lowSlide = lowSlide;
         this.camera = camera;
+        addProduces(DataKey.VISION_RESULT);
         addRequirement(lowSlide);
     }
 
     @Override
     public void initialize() {
         isAngleAdjusted = false;
+        angles.clear();
         if (!camera.updateDetectorResult()) {
             isAngleAdjusted = true; // Skip if no detection
             return;
@@ -54,6 +58,11 @@ public class AngleAdjustCommand extends CommandBase {
         return 0;
     }
 
+    @Override
+    public Priority getPriority() {
+        return Priority.DEFERRABLE;
+    }
+
     @Override
     public boolean isFinished() {
         return isAngleAdjusted;
@@ -1,6 +1,8 @@
 package org.firstinspires.ftc.teamcode.commands.vision;
 
 import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
 import org.firstinspires.ftc.teamcode.sensors.limelight.Limelight;
 
 /**
@@ -11,6 +13,7 @@ public class CameraUpdateDetectorResult extends CommandBase {
 
     public CameraUpdateDetectorResult(Limelight camera) { // Gamepad gamepad1
         this.camera = camera;
+        addProduces(DataKey.VISION_RESULT);
     }
 
     @Override
@@ -24,6 +27,11 @@ public class CameraUpdateDetectorResult extends CommandBase {
         return 0;
     }
 
+    @Override
+    public Priority getPriority() {
+        return Priority.DEFERRABLE;
+    }
+
     @Override
     public boolean isFinished() {
         return true;
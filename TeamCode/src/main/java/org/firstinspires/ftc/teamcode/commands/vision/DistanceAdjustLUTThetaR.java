@@ -5,7 +5,8 @@ import com.acmerobotics.roadrunner.Action;
 import com.acmerobotics.roadrunner.Pose2d;
 import com.acmerobotics.roadrunner.Vector2d;
 
-import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
+import org.firstinspires.ftc.teamcode.commands.base.AsyncCommand;
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
 import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
 import org.firstinspires.ftc.teamcode.subsystems.slides.LowerSlide;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
@@ -13,7 +14,12 @@ import org.firstinspires.ftc.teamcode.utils.math.InterpLUT;
 
 import java.util.function.Supplier;
 
-public class DistanceAdjustLUTThetaR extends CommandBase {
+/**
+ * Turns toward the detected sample and extends the lower slide to it.
+ * The turn trajectory is generated on a worker thread (see AsyncCommand);
+ * the robot holds still until it is ready.
+ */
+public class DistanceAdjustLUTThetaR extends AsyncCommand<Action> {
     private final InterpLUT lutx = new InterpLUT();
     private final InterpLUT luty = new InterpLUT();
     private final LowerSlide lowSlide;
@@ -25,17 +31,13 @@ public class DistanceAdjustLUTThetaR extends CommandBase {
     private double tx, py, ty, px;
     private boolean isAdjusted = false;
     private Action moveAction = null;
+    private Pose2d startPose;
+    private double targetHeading; // rad
 
     public DistanceAdjustLUTThetaR(LowerSlide lowslide, MecanumDrive drive, Supplier<Double> txSupplier, Supplier<Double> tySuplier, Supplier<Double> pxSupplier, Supplier<Double> pySupplier, Runnable disableDriveControl,
                                    Runnable enableDriveControl) {
-        for (int i = 0; i < ConfigVariables.Camera.X_DISTANCE_MAP_Y.length; i++) {
-            lutx.add(ConfigVariables.Camera.X_DISTANCE_MAP_X[i], ConfigVariables.Camera.X_DISTANCE_MAP_Y[i]);
-        }
-        lutx.createLUT();
-        for (int i = 0; i < ConfigVariables.Camera.Y_DISTANCE_MAP_Y.length; i++) {
-            luty.add(ConfigVariables.Camera.Y_DISTANCE_MAP_X[i], ConfigVariables.Camera.Y_DISTANCE_MAP_Y[i]);
-        }
-        luty.createLUT();
+        lutx.update(ConfigVariables.Camera.X_DISTANCE_MAP_X, ConfigVariables.Camera.X_DISTANCE_MAP_Y);
+        luty.update(ConfigVariables.Camera.Y_DISTANCE_MAP_X, ConfigVariables.Camera.Y_DISTANCE_MAP_Y);
         this.lowSlide = lowslide;
         this.pxSupplier = pxSupplier;
         this.pySupplier = pySupplier;
@@ -44,16 +46,21 @@ public class DistanceAdjustLUTThetaR extends CommandBase {
         this.drive = drive;
         this.disableDriveControl = disableDriveControl;
         this.enableDriveControl = enableDriveControl;
+        addConsumes(DataKey.POSE, DataKey.LOWER_SLIDE_POSITION, DataKey.VISION_RESULT);
     }
 
     @Override
     public void initialize() {
+        // Pick up dashboard edits; a no-op while the maps are unchanged
+        lutx.update(ConfigVariables.Camera.X_DISTANCE_MAP_X, ConfigVariables.Camera.X_DISTANCE_MAP_Y);
+        luty.update(ConfigVariables.Camera.Y_DISTANCE_MAP_X, ConfigVariables.Camera.Y_DISTANCE_MAP_Y);
         this.tx = txSupplier.get();
         this.px = pxSupplier.get();
         this.py = pySupplier.get();
         this.ty = tySupplier.get();
         isAdjusted = false;
         moveAction = null;
+        cancel();
         disableDriveControl.run();
     }
 
@@ -68,11 +75,16 @@ public class DistanceAdjustLUTThetaR extends CommandBase {
         packet.put("DistanceAdjustLUTX/isAdjusted", isAdjusted);
         packet.put("DistanceAdjustLUTX/hasActiveAction", moveAction != null);
 
+        // Waiting for the trajectory
+        if (isPending()) {
+            poll(packet);
+            return;
+        }
+
         // If we have an active movement action, run it
         if (moveAction != null) {
             // Check if action is done or timed out
             boolean actionDone = !moveAction.run(packet);
-            lowSlide.updatePID();
             if (actionDone) {
                 isAdjusted = true;
                 moveAction = null;
@@ -128,11 +140,12 @@ public class DistanceAdjustLUTThetaR extends CommandBase {
 
     @Override
     public boolean isFinished() {
-        return isAdjusted && moveAction == null;
+        return isAdjusted && moveAction == null && !isPending();
     }
 
     @Override
     public void end(boolean interrupted) {
+        super.end(interrupted);
         enableDriveControl.run();
         // Stop any ongoing movement if interrupted
         if (interrupted && moveAction != null) {
@@ -167,11 +180,28 @@ public class DistanceAdjustLUTThetaR extends CommandBase {
         }
         packet.put("vision/position set", pos);
         packet.put("vision/y0", luty.get(0));
-        Pose2d startpose = drive.localizer.getPose();
+        startPose = drive.localizer.getPose();
+        targetHeading = startPose.heading.toDouble() + theta;
+        submit();
+    }
+
+    @Override
+    protected Action compute() {
         // theta
-        moveAction = drive.actionBuilder(startpose).turnTo(startpose.heading.toDouble() + theta).build();
+        return drive.actionBuilder(startPose).turnTo(targetHeading).build();
+    }
+
+    @Override
+    protected void apply(Action action, TelemetryPacket packet) {
+        moveAction = action;
         // Run the action first time
         drive.updatePoseEstimate();
         moveAction.run(packet);
     }
+
+    @Override
+    protected void onError(Throwable error, TelemetryPacket packet) {
+        super.onError(error, packet);
+        isAdjusted = true;
+    }
 }
@@ -7,6 +7,7 @@ import com.acmerobotics.roadrunner.Rotation2d;
 import com.acmerobotics.roadrunner.Vector2d;
 
 import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
 import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 import org.firstinspires.ftc.teamcode.utils.math.InterpLUT;
@@ -26,14 +27,11 @@ public class DistanceAdjustLUTX extends CommandBase {
 
     public DistanceAdjustLUTX(MecanumDrive drive, Supplier<Double> txSupplier, Supplier<Double> tySuplier, Supplier<Double> pxSupplier, Supplier<Double> pySupplier, Runnable disableDriveControl,
                               Runnable enableDriveControl) {
-        for (int i = 0; i < ConfigVariables.Camera.X_DISTANCE_MAP_Y.length; i++) {
-            lutx.add(ConfigVariables.Camera.X_DISTANCE_MAP_X[i], ConfigVariables.Camera.X_DISTANCE_MAP_Y[i]);
-        }
+        lutx.update(ConfigVariables.Camera.X_DISTANCE_MAP_X, ConfigVariables.Camera.X_DISTANCE_MAP_Y);
         // for (int i = 0; i < ConfigVariables.Camera.XYRATIO_MAP_Y.length; i++) {
         // lutratio.add(ConfigVariables.Camera.XYRATIO_MAP_X[i],
         // ConfigVariables.Camera.XYRATIO_MAP_Y[i]);
         // }
-        lutx.createLUT();
         // lutratio.createLUT();
         this.pxSupplier = pxSupplier;
         this.pySupplier = pySupplier;
@@ -42,10 +40,13 @@ public class DistanceAdjustLUTX extends CommandBase {
         this.drive = drive;
         this.disableDriveControl = disableDriveControl;
         this.enableDriveControl = enableDriveControl;
+        addConsumes(DataKey.POSE, DataKey.VISION_RESULT);
     }
 
     @Override
     public void initialize() {
+        // Pick up dashboard edits; a no-op while the maps are unchanged
+        lutx.update(ConfigVariables.Camera.X_DISTANCE_MAP_X, ConfigVariables.Camera.X_DISTANCE_MAP_Y);
         this.tx = txSupplier.get();
         this.px = pxSupplier.get();
         this.py = pySupplier.get();
@@ -27,10 +27,7 @@ public class DistanceAdjustLUTY extends CommandBase {
     public DistanceAdjustLUTY(LowerSlide lowSlide, Supplier<Double> tySupplier) {
         this.lowSlide = lowSlide;
         this.tySupplier = tySupplier;
-        for (int i = 0; i < ConfigVariables.Camera.Y_DISTANCE_MAP_Y.length; i++) {
-            luty.add(ConfigVariables.Camera.Y_DISTANCE_MAP_X[i], ConfigVariables.Camera.Y_DISTANCE_MAP_Y[i]);
-        }
-        luty.createLUT();
+        luty.update(ConfigVariables.Camera.Y_DISTANCE_MAP_X, ConfigVariables.Camera.Y_DISTANCE_MAP_Y);
         addRequirement(lowSlide);
     }
 
@@ -44,6 +41,8 @@ public class DistanceAdjustLUTY extends CommandBase {
 
     @Override
     public void initialize() {
+        // Pick up dashboard edits; a no-op while the map is unchanged
+        luty.update(ConfigVariables.Camera.Y_DISTANCE_MAP_X, ConfigVariables.Camera.Y_DISTANCE_MAP_Y);
         this.dy = tySupplier.get();
         isAdjusted = false;
         // lowSlide.setPIDEnabled(false);
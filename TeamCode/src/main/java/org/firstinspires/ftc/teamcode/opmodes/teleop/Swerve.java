@@ -4,14 +4,15 @@ import static org.firstinspires.ftc.teamcode.opmodes.auto.AutoPaths.SCORE;
 
 import com.acmerobotics.dashboard.FtcDashboard;
 import com.acmerobotics.roadrunner.Pose2d;
-import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.teamcode.commands.base.ActionCommand;
+import org.firstinspires.ftc.teamcode.commands.base.Command;
 import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.base.CompiledCommand;
 import org.firstinspires.ftc.teamcode.commands.base.ConditionalCommand;
 import org.firstinspires.ftc.teamcode.commands.base.LoopTimeTelemetryCommand;
 import org.firstinspires.ftc.teamcode.commands.base.SequentialCommandGroup;
@@ -31,23 +32,27 @@ import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
 import org.firstinspires.ftc.teamcode.sensors.ColorSensorImpl;
 import org.firstinspires.ftc.teamcode.sensors.limelight.LimeLightImageTools;
 import org.firstinspires.ftc.teamcode.sensors.limelight.Limelight;
+import org.firstinspires.ftc.teamcode.subsystems.drive.PoseEstimator;
 import org.firstinspires.ftc.teamcode.subsystems.slides.LowerSlide;
 import org.firstinspires.ftc.teamcode.subsystems.slides.UpperSlide;
 import org.firstinspires.ftc.teamcode.utils.ClawController;
 import org.firstinspires.ftc.teamcode.utils.GamepadController;
 import org.firstinspires.ftc.teamcode.utils.GamepadController.ButtonType;
 import org.firstinspires.ftc.teamcode.utils.RobotStateStore;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
 import org.firstinspires.ftc.teamcode.utils.TelemetryPacket;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
-
-import java.util.List;
+import org.firstinspires.ftc.teamcode.utils.hardware.BulkReadCoordinator;
+import org.firstinspires.ftc.teamcode.utils.hardware.HubIoExecutor;
+import org.firstinspires.ftc.teamcode.utils.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
 
 @TeleOp(group = "TeleOp")
 public class Swerve extends LinearOpMode {
 
-    private static List<LynxModule> allHubs = null;
     private final long starttime = System.currentTimeMillis();
     private MecanumDrive drive;
+    private PoseEstimator poseEstimator;
     private UpperSlide upSlide;
     private LowerSlide lowSlide;
     private Limelight camera;
@@ -63,15 +68,26 @@ public class Swerve extends LinearOpMode {
     private ClawController lowerClaw;
     private MecanumDriveCommand mecanumDriveCommand;
     private ColorSensorImpl colorSensor;
+    // Set once initialize() returned, so cleanup() only stops what is set up
+    private boolean upSlideReady = false;
+    private boolean lowSlideReady = false;
     private long loopCount = 0;
     private long lastloop = System.currentTimeMillis();
 
+    // Commands bound to buttons, built once in prepareCommands() and re-armed
+    // by the scheduler each time they are scheduled
+    private Command upperFront, upperScorespec, upperInter, upperOffwall, upperTransfer;
+    private Command upperSlidePos0, upperSlidePos3, upperSlideTickUp, upperSlideTickDown;
+    private Command lowerUp, lowerHover, lowerSlidePos0;
+    private Command lowerSpinClaw45, lowerSpinClaw0, lowerSpinClaw135;
+    private Command hoverAngleAdjust, angleAdjust, cameraUpdate, distanceAdjustX, distanceAdjustThetaR;
+    private Command dropSequence, upperScore, transferSequence, grabSequence;
+
     public static void initializeBulkReads(HardwareMap hardwareMap) {
-        if (allHubs == null) {
-            allHubs = hardwareMap.getAll(LynxModule.class);
-            for (LynxModule hub : allHubs) {
-                hub.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
-            }
+        if (ConfigVariables.General.MANUAL_BULK_READS) {
+            BulkReadCoordinator.getInstance().install(hardwareMap, CommandScheduler.getInstance());
+        } else {
+            BulkReadCoordinator.getInstance().initializeAuto(hardwareMap);
         }
     }
 
@@ -80,77 +96,128 @@ public class Swerve extends LinearOpMode {
 
         scheduler = CommandScheduler.getInstance();
 
-        initializeSubsystems();
-        initializeBulkReads(hardwareMap);
-        dashboard = FtcDashboard.getInstance();
-        Telemetry dashboardTelemetry = dashboard.getTelemetry();
-        mecanumDriveCommand = new MecanumDriveCommand(drive, gamepad1);
-        scheduler.schedule(mecanumDriveCommand);
-        // Schedule loop timing telemetry command
-        scheduler.schedule(new LoopTimeTelemetryCommand());
-        scheduler.schedule(new ActionCommand(upslideActions.front()));
-        scheduler.schedule(new ActionCommand(lowslideActions.up()));
-        if (ConfigVariables.General.WITH_STATESAVE) {
-            RobotStateStore.loadSlides(lowSlide, upSlide);
-        }
-        while (!isStopRequested() && !opModeIsActive()) {
-            TelemetryPacket packet = new TelemetryPacket();
-            scheduler.run(packet);
+        // cleanup() also runs on stop during init, otherwise the scheduler
+        // singleton keeps this OpMode's hardware cycles and threads alive
+        Throwable failure = null;
+        try {
+            // Channels are singletons too; drop values the previous OpMode wrote
+            TelemetryChannels.getInstance().clear();
+            initializeSubsystems();
+            // Installed first so it ends last, after the outputs are flushed
+            if (ConfigVariables.General.ACCOUNT_TRANSACTIONS) {
+                TransactionAccounting.getInstance().install(scheduler);
+            }
+            initializeBulkReads(hardwareMap);
+            OutputStage.getInstance().install(scheduler);
+            dashboard = FtcDashboard.getInstance();
+            Telemetry dashboardTelemetry = dashboard.getTelemetry();
+            mecanumDriveCommand = new MecanumDriveCommand(drive, gamepad1);
+            scheduler.schedule(mecanumDriveCommand);
+            prepareCommands();
+            // Schedule loop timing telemetry command
+            scheduler.schedule(new LoopTimeTelemetryCommand());
+            scheduler.schedule(upperFront);
+            scheduler.schedule(lowerUp);
+            if (ConfigVariables.General.WITH_STATESAVE) {
+                RobotStateStore.loadSlides(lowSlide, upSlide);
+            }
+            while (!isStopRequested() && !opModeIsActive()) {
+                TelemetryPacket packet = new TelemetryPacket();
+                packet.setPublishing(false);
+                scheduler.run(packet);
 //            gamepad1Controller.update();
 //            gamepad2Controller.update();
-        }
-
-        waitForStart();
-
-        if (ConfigVariables.General.SINGLE_CONTROLLER_MODE) {
-            setupGamepadControlsSingle();
-        } else {
-            setupGamepadControls();
-        }
-        setContinuousControls();
-
-        if (isStopRequested()) return;
-
-        while (opModeIsActive() && !isStopRequested()) {
-            loopCount += 1;
-            long timestamp = System.currentTimeMillis();
-
-            TelemetryPacket packet = new TelemetryPacket();
-            scheduler.run(packet);
+            }
 
-            gamepad1Controller.update();
-            gamepad2Controller.update();
+            waitForStart();
 
-            lowSlide.updatePID();
-            upSlide.updatePID();
-            if (loopCount % 20 == 0) {
-                telemetry.addData("looptimems", timestamp - lastloop);
-                telemetry.addData("avglooptimems", (timestamp - starttime) / (double) loopCount);
+            if (ConfigVariables.General.SINGLE_CONTROLLER_MODE) {
+                setupGamepadControlsSingle();
+            } else {
+                setupGamepadControls();
             }
+            setContinuousControls();
+
+            if (isStopRequested()) return;
+
+            while (opModeIsActive() && !isStopRequested()) {
+                loopCount += 1;
+                long timestamp = System.currentTimeMillis();
+
+                TelemetryPacket packet = new TelemetryPacket();
+                packet.setPublishing(timestamp - lastDashboardUpdateTime >= ConfigVariables.General.DASHBOARD_UPDATE_INTERVAL_MS);
+                scheduler.run(packet);
+
+                gamepad1Controller.update();
+                gamepad2Controller.update();
+
+                if (loopCount % 20 == 0) {
+                    telemetry.addData("looptimems", timestamp - lastloop);
+                    telemetry.addData("avglooptimems", (timestamp - starttime) / (double) loopCount);
+                }
+
+                telemetry.update();
+                if (packet.isPublishing()) {
+                    packet.put("gamepad1/NoOperationTimems", gamepad1Controller.getNoOperationTime());
+                    packet.put("gamepad2/NoOperationTimems", gamepad2Controller.getNoOperationTime());
+                    packet.put("colorsensor/caught", colorSensor.caught());
+                    packet.put("colorsensor/cantransfer", colorSensor.canTransfer());
+                    TelemetryChannels.getInstance().writeTo(packet);
+                    dashboard.sendTelemetryPacket(packet);
+                    lastDashboardUpdateTime = timestamp;
+                }
+                lastloop = timestamp;
 
-            telemetry.update();
-            if (ConfigVariables.General.DEBUG_MODE && timestamp - lastDashboardUpdateTime >= ConfigVariables.General.DASHBOARD_UPDATE_INTERVAL_MS) {
-                packet.put("gamepad1/NoOperationTimems", gamepad1Controller.getNoOperationTime());
-                packet.put("gamepad2/NoOperationTimems", gamepad2Controller.getNoOperationTime());
-                packet.put("colorsensor/caught", colorSensor.caught());
-                packet.put("colorsensor/cantransfer", colorSensor.canTransfer());
-                dashboard.sendTelemetryPacket(packet);
-                lastDashboardUpdateTime = timestamp;
             }
-            lastloop = timestamp;
+            if (ConfigVariables.General.WITH_STATESAVE) {
+                RobotStateStore.save(drive.localizer.getPose(), lowSlide.getCurrentPosition(), upSlide.getCurrentPosition());
+            }
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            cleanup(failure);
+        }
+    }
 
+    /**
+     * Release everything runOpMode() set up. Initialization may have stopped
+     * half way, and every step runs even if an earlier one throws. Errors are
+     * attached to the exception that ended the OpMode, if any, so they don't
+     * hide it.
+     */
+    private void cleanup(Throwable failure) {
+        Throwable error = failure;
+        error = runCleanupStep(error, scheduler::cancelAll);
+        if (upSlideReady) {
+            error = runCleanupStep(error, upSlide::stop);
         }
-        if (ConfigVariables.General.WITH_STATESAVE) {
-            RobotStateStore.save(drive.localizer.getPose(), lowSlide.getCurrentPosition(), upSlide.getCurrentPosition());
+        if (lowSlideReady) {
+            error = runCleanupStep(error, lowSlide::stop);
+        }
+        if (colorSensor != null) {
+            error = runCleanupStep(error, colorSensor::stopPolling);
+        }
+        error = runCleanupStep(error, scheduler::reset);
+        error = runCleanupStep(error, HubIoExecutor.getInstance()::shutdown);
+        if (failure == null && error != null) {
+            throw error instanceof RuntimeException ? (RuntimeException) error : new RuntimeException(error);
         }
-        cleanup();
     }
 
-    private void cleanup() {
-        scheduler.cancelAll();
-        upSlide.stop();
-        lowSlide.stop();
-        scheduler.reset();
+    /**
+     * @return The first error so far, with the step's error suppressed into it
+     */
+    private static Throwable runCleanupStep(Throwable error, Runnable step) {
+        try {
+            step.run();
+        } catch (Throwable t) {
+            if (error == null) {
+                return t;
+            }
+            error.addSuppressed(t);
+        }
+        return error;
     }
 
     private void initializeSubsystems() {
@@ -167,12 +234,18 @@ public class Swerve extends LinearOpMode {
         lowSlide = new LowerSlide();
         camera = new Limelight();
         colorSensor = new ColorSensorImpl(hardwareMap);
+        colorSensor.startPolling();
+
+        poseEstimator = new PoseEstimator(drive);
 
+        scheduler.registerSubsystem(poseEstimator);
         scheduler.registerSubsystem(upSlide);
         scheduler.registerSubsystem(lowSlide);
 
         upSlide.initialize(hardwareMap);
+        upSlideReady = true;
         lowSlide.initialize(hardwareMap);
+        lowSlideReady = true;
         camera.initialize(hardwareMap);
         camera.cameraStart();
 
@@ -191,38 +264,73 @@ public class Swerve extends LinearOpMode {
         scheduler.schedule(new ActionCommand(lowslideActions.up()));
     }
 
+    private void prepareCommands() {
+        upperFront = new ActionCommand(upslideActions.front());
+        upperScorespec = new ActionCommand(upslideActions.scorespec());
+        upperInter = new ActionCommand(upslideActions.inter());
+        upperOffwall = new ActionCommand(upslideActions.offwall());
+        upperTransfer = new ActionCommand(upslideActions.transfer());
+        upperSlidePos0 = new ActionCommand(upslideActions.slidePos0(), upSlide);
+        upperSlidePos3 = new ActionCommand(upslideActions.slidePos3(), upSlide);
+        // adding tick not pos, direction reversed
+        upperSlideTickUp = new ActionCommand(upslideActions.addSlideTick(1));
+        upperSlideTickDown = new ActionCommand(upslideActions.addSlideTick(-1));
+
+        lowerUp = new ActionCommand(lowslideActions.up());
+        lowerHover = new ActionCommand(lowslideActions.hover());
+        lowerSlidePos0 = new ActionCommand(lowslideActions.slidePos0(), lowSlide);
+        lowerSpinClaw45 = new ActionCommand(lowslideActions.setSpinClawDeg(() -> ConfigVariables.Camera.CLAW_90 - 45));
+        lowerSpinClaw0 = new ActionCommand(lowslideActions.setSpinClawDeg(() -> ConfigVariables.Camera.CLAW_90 - 90));
+        lowerSpinClaw135 = new ActionCommand(lowslideActions.setSpinClawDeg(() -> ConfigVariables.Camera.CLAW_90 + 45));
+
+        hoverAngleAdjust = new WaitForConditionCommand(() -> gamepad1Controller.getNoOperationTime() > ConfigVariables.Camera.CAMERA_DELAY * 1000, 2500, new AngleAdjustCommand(lowSlide, camera));
+        angleAdjust = new AngleAdjustCommand(lowSlide, camera);
+        cameraUpdate = new CameraUpdateDetectorResult(camera);
+        distanceAdjustX = new DistanceAdjustLUTX(drive, camera::getTx, camera::getTy, camera::getPx, camera::getPy, mecanumDriveCommand::disableControl, mecanumDriveCommand::enableControl);
+        distanceAdjustThetaR = compile(new WaitForConditionCommand(() -> gamepad1Controller.getNoOperationTime() > ConfigVariables.Camera.CAMERA_DELAY * 1000, 3000, new SequentialCommandGroup(new CameraUpdateDetectorResult(camera), new DistanceAdjustLUTThetaR(lowSlide, drive, camera::getTx, camera::getTy, camera::getPx, camera::getPy, mecanumDriveCommand::disableControl, mecanumDriveCommand::enableControl))));
+
+        dropSequence = compile(new SequentialCommandGroup(new ActionCommand(upslideActions.front()), new WaitCommand(() -> ConfigVariables.UpperSlideVars.FRONT_DELAY), new ActionCommand(upslideActions.openClaw())));
+        upperScore = compile(new UpperSlideScoreCommand(upslideActions));
+        transferSequence = compile(new LowerUpperTransferSequenceCommand(lowslideActions, upslideActions, colorSensor::caughtDefaultTrue));
+        grabSequence = compile(new SequentialCommandGroup(new LowerSlideGrabSequenceCommand(lowSlide), new WaitCommand(() -> (double) ConfigVariables.LowerSlideVars.POS_HOVER_TIMEOUT / 1000), new ConditionalCommand(colorSensor::canTransfer, new LowerUpperTransferSequenceCommand(lowslideActions, upslideActions, colorSensor::caughtDefaultTrue))));
+    }
+
+    private Command compile(Command command) {
+        return ConfigVariables.General.COMPILE_COMMANDS ? CompiledCommand.compile(command) : command;
+    }
+
     private void setupGamepadControlsSingle() {
         gamepad1Controller.onPressed(ButtonType.LEFT_BUMPER, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.front()));
+            scheduler.schedule(upperFront);
         });
         gamepad1Controller.onPressed(ButtonType.RIGHT_BUMPER, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.scorespec()));
+            scheduler.schedule(upperScorespec);
         });
 
         gamepad1Controller.onPressed(ButtonType.A, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.slidePos0()));
+            scheduler.schedule(lowerSlidePos0);
         });
 
         gamepad1Controller.onPressed(ButtonType.B, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.slidePos0()));
+            scheduler.schedule(upperSlidePos0);
         });
         gamepad1Controller.onPressed(ButtonType.X, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.hover()));
-            scheduler.schedule(new WaitForConditionCommand(() -> gamepad1Controller.getNoOperationTime() > ConfigVariables.Camera.CAMERA_DELAY * 1000, 2500, new AngleAdjustCommand(lowSlide, camera)));
+            scheduler.schedule(lowerHover);
+            scheduler.schedule(hoverAngleAdjust);
         });
         gamepad1Controller.onPressed(ButtonType.Y, () -> {
-            scheduler.schedule(new WaitForConditionCommand(() -> gamepad1Controller.getNoOperationTime() > ConfigVariables.Camera.CAMERA_DELAY * 1000, 3000, new SequentialCommandGroup(new CameraUpdateDetectorResult(camera), new DistanceAdjustLUTThetaR(lowSlide, drive, camera::getTx, camera::getTy, camera::getPx, camera::getPy, mecanumDriveCommand::disableControl, mecanumDriveCommand::enableControl))));
+            scheduler.schedule(distanceAdjustThetaR);
         });
         gamepad1Controller.onPressed(ButtonType.DPAD_DOWN, () -> { // drop, for testing
-            scheduler.schedule(new SequentialCommandGroup(new ActionCommand(upslideActions.front()), new WaitCommand(ConfigVariables.UpperSlideVars.FRONT_DELAY), new ActionCommand(upslideActions.openClaw())));
+            scheduler.schedule(dropSequence);
         });
 
         gamepad1Controller.onPressed(ButtonType.DPAD_LEFT, () -> {
-            scheduler.schedule(new UpperSlideScoreCommand(upslideActions));
+            scheduler.schedule(upperScore);
         });
 
         gamepad1Controller.onPressed(ButtonType.DPAD_RIGHT, () -> {
-            scheduler.schedule(new LowerUpperTransferSequenceCommand(lowslideActions, upslideActions, colorSensor::caughtDefaultTrue));
+            scheduler.schedule(transferSequence);
         });
         gamepad1Controller.onPressed(ButtonType.LEFT_STICK_BUTTON, () -> {
             scheduler.schedule(new SequentialCommandGroup(new ActionCommand((packet) -> {
@@ -237,27 +345,27 @@ public class Swerve extends LinearOpMode {
 
     private void setupGamepadControls() {
         gamepad1Controller.onPressed(ButtonType.X, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.hover()));
-            scheduler.schedule(new WaitForConditionCommand(() -> gamepad1Controller.getNoOperationTime() > ConfigVariables.Camera.CAMERA_DELAY * 1000, 2500, new AngleAdjustCommand(lowSlide, camera)));
+            scheduler.schedule(lowerHover);
+            scheduler.schedule(hoverAngleAdjust);
         });
 
         gamepad1Controller.onPressed(ButtonType.DPAD_UP, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.hover()));
-            scheduler.schedule(new AngleAdjustCommand(lowSlide, camera));
+            scheduler.schedule(lowerHover);
+            scheduler.schedule(angleAdjust);
 
         });
 
         gamepad1Controller.onPressed(ButtonType.RIGHT_BUMPER, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.hover()));
+            scheduler.schedule(lowerHover);
         });
 
         gamepad1Controller.onPressed(ButtonType.A, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.slidePos0()));
+            scheduler.schedule(lowerSlidePos0);
         });
 
         gamepad1Controller.onPressed(ButtonType.B, () -> {
-            scheduler.schedule(new CameraUpdateDetectorResult(camera));
-            scheduler.schedule(new DistanceAdjustLUTX(drive, camera::getTx, camera::getTy, camera::getPx, camera::getPy, mecanumDriveCommand::disableControl, mecanumDriveCommand::enableControl));
+            scheduler.schedule(cameraUpdate);
+            scheduler.schedule(distanceAdjustX);
             // scheduler.schedule(new DistanceAdjustCalculatedY(lowSlide, camera::getDy));
             // scheduler.schedule(new DistanceAdjustCalculatedX(drive, camera::getDx,
             // camera::getDy,
@@ -265,57 +373,56 @@ public class Swerve extends LinearOpMode {
         });
 
         gamepad1Controller.onPressed(ButtonType.Y, () -> {
-            scheduler.schedule(new WaitForConditionCommand(() -> gamepad1Controller.getNoOperationTime() > ConfigVariables.Camera.CAMERA_DELAY * 1000, 3000, new SequentialCommandGroup(new CameraUpdateDetectorResult(camera), new DistanceAdjustLUTThetaR(lowSlide, drive, camera::getTx, camera::getTy, camera::getPx, camera::getPy, mecanumDriveCommand::disableControl, mecanumDriveCommand::enableControl))));
+            scheduler.schedule(distanceAdjustThetaR);
         });
 
         gamepad1Controller.onPressed(ButtonType.DPAD_DOWN, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.setSpinClawDeg(ConfigVariables.Camera.CLAW_90 - 45)));
+            scheduler.schedule(lowerSpinClaw45);
         });
 
         gamepad1Controller.onPressed(ButtonType.DPAD_LEFT, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.setSpinClawDeg(ConfigVariables.Camera.CLAW_90 - 90)));
+            scheduler.schedule(lowerSpinClaw0);
         });
 
         gamepad1Controller.onPressed(ButtonType.DPAD_RIGHT, () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.setSpinClawDeg(ConfigVariables.Camera.CLAW_90 + 45)));
+            scheduler.schedule(lowerSpinClaw135);
         });
 
         gamepad1Controller.onPressed(gamepad1Controller.button(ButtonType.LEFT_BUMPER), () -> lowerClaw.handleManualControl(System.currentTimeMillis()));
 
         gamepad2Controller.onPressed(ButtonType.A, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.slidePos0()));
+            scheduler.schedule(upperSlidePos0);
         });
-        // adding tick not pos, direction reversed
         gamepad2Controller.whilePressed(ButtonType.X, (d) -> {
-            scheduler.schedule(new ActionCommand(upslideActions.addSlideTick(1)));
+            scheduler.schedule(upperSlideTickUp);
         });
 
         gamepad2Controller.whilePressed(ButtonType.Y, (d) -> {
-            scheduler.schedule(new ActionCommand(upslideActions.addSlideTick(-1)));
+            scheduler.schedule(upperSlideTickDown);
         });
 
         gamepad2Controller.onPressed(ButtonType.B, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.slidePos3()));
+            scheduler.schedule(upperSlidePos3);
         });
 
         gamepad2Controller.onPressed(ButtonType.DPAD_DOWN, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.inter()));
+            scheduler.schedule(upperInter);
         });
 
         gamepad2Controller.onPressed(ButtonType.DPAD_UP, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.front()));
+            scheduler.schedule(upperFront);
         });
 
         gamepad2Controller.onPressed(ButtonType.DPAD_LEFT, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.offwall()));
+            scheduler.schedule(upperOffwall);
         });
 
         gamepad2Controller.onPressed(ButtonType.DPAD_RIGHT, () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.transfer()));
+            scheduler.schedule(upperTransfer);
         });
 
         gamepad2Controller.onPressed(ButtonType.RIGHT_STICK_BUTTON, () -> {
-            scheduler.schedule(new LowerUpperTransferSequenceCommand(lowslideActions, upslideActions, colorSensor::caughtDefaultTrue));
+            scheduler.schedule(transferSequence);
         });
         gamepad2Controller.onPressed(ButtonType.LEFT_STICK_BUTTON, () -> {
             scheduler.schedule(new SequentialCommandGroup(new ActionCommand((packet) -> {
@@ -333,18 +440,18 @@ public class Swerve extends LinearOpMode {
 
     private void setContinuousControls() {
         gamepad1Controller.onPressed(gamepad1Controller.trigger(GamepadController.TriggerType.RIGHT_TRIGGER), () -> {
-            scheduler.schedule(new SequentialCommandGroup(new LowerSlideGrabSequenceCommand(lowSlide), new WaitCommand((double) ConfigVariables.LowerSlideVars.POS_HOVER_TIMEOUT / 1000), new ConditionalCommand(colorSensor::canTransfer, new LowerUpperTransferSequenceCommand(lowslideActions, upslideActions, colorSensor::caughtDefaultTrue))));
+            scheduler.schedule(grabSequence);
         });
         gamepad1Controller.onPressed(gamepad1Controller.trigger(GamepadController.TriggerType.LEFT_TRIGGER), () -> {
-            scheduler.schedule(new ActionCommand(lowslideActions.up()));
+            scheduler.schedule(lowerUp);
         });
     
         gamepad2Controller.onPressed(gamepad2Controller.trigger(GamepadController.TriggerType.RIGHT_TRIGGER), () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.scorespec()));
+            scheduler.schedule(upperScorespec);
         });
 
         gamepad2Controller.onPressed(gamepad2Controller.trigger(GamepadController.TriggerType.LEFT_TRIGGER), () -> {
-            scheduler.schedule(new ActionCommand(upslideActions.front()));
+            scheduler.schedule(upperFront);
         });
     }
 
@@ -1,6 +1,5 @@
 package org.firstinspires.ftc.teamcode.opmodes.teleop;
 
-import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
@@ -9,17 +8,11 @@ import org.firstinspires.ftc.teamcode.utils.hardware.Localizer;
 import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
 import org.firstinspires.ftc.teamcode.utils.control.ExpansionHub;
 
-import java.util.List;
-
 @TeleOp(group="TeleOp")
 public class TestOdometryTeleop extends LinearOpMode {
     Localizer odo = new Localizer();
     @Override
     public void runOpMode() throws InterruptedException {
-            List<LynxModule> allHubs = hardwareMap.getAll(LynxModule.class);
-            for (LynxModule hub : allHubs) {
-                hub.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
-            }
             odo.initialize(hardwareMap, ControlHub.motor(0), ControlHub.motor(3), ControlHub.motor(2));
 
             ElapsedTime elapsedtime = new ElapsedTime();
@@ -1,5 +1,7 @@
 package org.firstinspires.ftc.teamcode.roadrunner;
 
+import static org.firstinspires.ftc.teamcode.utils.TelemetryPacket.shouldSample;
+
 import androidx.annotation.NonNull;
 
 import com.acmerobotics.dashboard.canvas.Canvas;
@@ -38,7 +40,6 @@ import com.acmerobotics.roadrunner.ftc.LynxFirmware;
 import com.acmerobotics.roadrunner.ftc.OverflowEncoder;
 import com.acmerobotics.roadrunner.ftc.PositionVelocityPair;
 import com.acmerobotics.roadrunner.ftc.RawEncoder;
-import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
@@ -47,12 +48,22 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.IMU;
 import com.qualcomm.robotcore.hardware.VoltageSensor;
 
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
-import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.base.CommandTracer;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.DriveCommandMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.MecanumCommandMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.MecanumLocalizerInputsMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.PoseMessage;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
+import org.firstinspires.ftc.teamcode.utils.control.ExpansionHub;
+import org.firstinspires.ftc.teamcode.utils.hardware.BulkReadCoordinator;
+import org.firstinspires.ftc.teamcode.utils.hardware.ImuSampler;
+import org.firstinspires.ftc.teamcode.utils.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
+import org.firstinspires.ftc.teamcode.utils.hardware.VoltageMonitor;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FittedVelocityEncoder;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcMotorIO;
 
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -61,11 +72,17 @@ import java.util.List;
 @Config
 public final class MecanumDrive {
     public final DcMotorEx leftFront, leftBack, rightBack, rightFront;
+    // Drive powers go through the output stage so unchanged ones are not resent
+    private final OutputStage.Output leftFrontOutput, leftBackOutput, rightBackOutput, rightFrontOutput;
     public final VoltageSensor voltageSensor;
     public final LazyImu lazyImu;
     public final Localizer localizer;
     private final LinkedList<Pose2d> poseHistory = new LinkedList<>();
     private final DownsampledWriter estimatedPoseWriter = new DownsampledWriter("ESTIMATED_POSE", 50_000_000);
+    // Scheduler tick of the last pose update, so the localizer is read once per tick
+    private long poseUpdateTick = -1;
+    private int poseUpdateGeneration = -1;
+    private PoseVelocity2d poseVelocity;
     private final DownsampledWriter targetPoseWriter = new DownsampledWriter("TARGET_POSE", 50_000_000);
     private final DownsampledWriter driveCommandWriter = new DownsampledWriter("DRIVE_COMMAND", 50_000_000);
     private final DownsampledWriter mecanumCommandWriter = new DownsampledWriter("MECANUM_COMMAND", 50_000_000);
@@ -76,17 +93,15 @@ public final class MecanumDrive {
     public MecanumDrive(HardwareMap hardwareMap, Pose2d pose) {
         LynxFirmware.throwIfModulesAreOutdated(hardwareMap);
 
-        for (LynxModule module : hardwareMap.getAll(LynxModule.class)) {
-            module.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
-        }
+        BulkReadCoordinator.getInstance().initializeAuto(hardwareMap);
 
         // TODO: make sure your config has motors with these names (or change them)
         // see
         // https://ftc-docs.firstinspires.org/en/latest/hardware_and_software_configuration/configuring/index.html
-        leftFront = hardwareMap.get(DcMotorEx.class, "leftFront");
-        leftBack = hardwareMap.get(DcMotorEx.class, "leftBack");
-        rightBack = hardwareMap.get(DcMotorEx.class, "rightBack");
-        rightFront = hardwareMap.get(DcMotorEx.class, "rightFront");
+        leftFront = hardwareMap.get(DcMotorEx.class, ControlHub.motor(2));
+        leftBack = hardwareMap.get(DcMotorEx.class, ControlHub.motor(3));
+        rightBack = hardwareMap.get(DcMotorEx.class, ControlHub.motor(0));
+        rightFront = hardwareMap.get(DcMotorEx.class, ExpansionHub.motor(1));
 
         leftFront.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
         leftBack.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
@@ -106,6 +121,13 @@ public final class MecanumDrive {
         rightBack.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         rightFront.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
 
+        OutputStage outputs = OutputStage.getInstance();
+        TransactionAccounting accounting = TransactionAccounting.getInstance();
+        leftFrontOutput = outputs.motor(accounting.motor(new FtcMotorIO(leftFront, ControlHub.NAME), "drive"));
+        leftBackOutput = outputs.motor(accounting.motor(new FtcMotorIO(leftBack, ControlHub.NAME), "drive"));
+        rightBackOutput = outputs.motor(accounting.motor(new FtcMotorIO(rightBack, ControlHub.NAME), "drive"));
+        rightFrontOutput = outputs.motor(accounting.motor(new FtcMotorIO(rightFront, ExpansionHub.NAME), "drive"));
+
         // TODO: make sure your config has an IMU with this name (can be BNO or BHI)
         // see
         // https://ftc-docs.firstinspires.org/en/latest/hardware_and_software_configuration/configuring/index.html
@@ -113,6 +135,7 @@ public final class MecanumDrive {
                 PARAMS.logoFacingDirection, PARAMS.usbFacingDirection));
 
         voltageSensor = hardwareMap.voltageSensor.iterator().next();
+        VoltageMonitor.getInstance().initialize(hardwareMap);
 
         localizer = new ThreeDeadWheelLocalizer(hardwareMap, PARAMS.inPerTick, pose);
 
@@ -128,14 +151,30 @@ public final class MecanumDrive {
             maxPowerMag = Math.max(maxPowerMag, power.value());
         }
 
-        leftFront.setPower(wheelVels.leftFront.get(0) / maxPowerMag);
-        leftBack.setPower(wheelVels.leftBack.get(0) / maxPowerMag);
-        rightBack.setPower(wheelVels.rightBack.get(0) / maxPowerMag);
-        rightFront.setPower(wheelVels.rightFront.get(0) / maxPowerMag);
+        leftFrontOutput.set(wheelVels.leftFront.get(0) / maxPowerMag);
+        leftBackOutput.set(wheelVels.leftBack.get(0) / maxPowerMag);
+        rightBackOutput.set(wheelVels.rightBack.get(0) / maxPowerMag);
+        rightFrontOutput.set(wheelVels.rightFront.get(0) / maxPowerMag);
     }
 
+    /**
+     * Read the localizer and update the pose. Inside a command scheduler tick
+     * only the first call reads the localizer; later calls in the same tick
+     * return the velocity it measured (see PoseEstimator).
+     */
     public PoseVelocity2d updatePoseEstimate() {
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        if (scheduler.isInRunLoop()) {
+            if (poseVelocity != null && poseUpdateTick == scheduler.getTickCount()
+                    && poseUpdateGeneration == scheduler.getGeneration()) {
+                return poseVelocity;
+            }
+            poseUpdateTick = scheduler.getTickCount();
+            poseUpdateGeneration = scheduler.getGeneration();
+        }
+
         PoseVelocity2d vel = localizer.update();
+        poseVelocity = vel;
         poseHistory.add(localizer.getPose());
 
         while (poseHistory.size() > 100) {
@@ -236,6 +275,7 @@ public final class MecanumDrive {
     public class DriveLocalizer implements Localizer {
         public final Encoder leftFront, leftBack, rightBack, rightFront;
         public final IMU imu;
+        private final ImuSampler imuSampler;
 
         private int lastLeftFrontPos, lastLeftBackPos, lastRightBackPos, lastRightFrontPos;
         private Rotation2d lastHeading;
@@ -243,12 +283,13 @@ public final class MecanumDrive {
         private Pose2d pose;
 
         public DriveLocalizer(Pose2d pose) {
-            leftFront = new OverflowEncoder(new RawEncoder(MecanumDrive.this.leftFront));
-            leftBack = new OverflowEncoder(new RawEncoder(MecanumDrive.this.leftBack));
-            rightBack = new OverflowEncoder(new RawEncoder(MecanumDrive.this.rightBack));
-            rightFront = new OverflowEncoder(new RawEncoder(MecanumDrive.this.rightFront));
+            leftFront = wheel(MecanumDrive.this.leftFront, ControlHub.NAME);
+            leftBack = wheel(MecanumDrive.this.leftBack, ControlHub.NAME);
+            rightBack = wheel(MecanumDrive.this.rightBack, ControlHub.NAME);
+            rightFront = wheel(MecanumDrive.this.rightFront, ExpansionHub.NAME);
 
             imu = lazyImu.get();
+            imuSampler = new ImuSampler(imu);
 
             // TODO: reverse encoders if needed
             // leftFront.setDirection(DcMotorSimple.Direction.REVERSE);
@@ -260,6 +301,12 @@ public final class MecanumDrive {
             this.pose = pose;
         }
 
+        private Encoder wheel(DcMotorEx motor, String hub) {
+            Encoder encoder = new OverflowEncoder(new RawEncoder(motor));
+            return ConfigVariables.General.FIT_ENCODER_VELOCITY
+                    ? new FittedVelocityEncoder(encoder, hub) : encoder;
+        }
+
         @Override
         public Pose2d getPose() {
             return pose;
@@ -276,15 +323,28 @@ public final class MecanumDrive {
             PositionVelocityPair leftBackPosVel = leftBack.getPositionAndVelocity();
             PositionVelocityPair rightBackPosVel = rightBack.getPositionAndVelocity();
             PositionVelocityPair rightFrontPosVel = rightFront.getPositionAndVelocity();
+            // Most wheels are on the control hub; its bulk read is when they were sampled
+            long encoderTime = BulkReadCoordinator.getInstance().getReadTime(ControlHub.NAME);
+            if (encoderTime == 0) {
+                encoderTime = System.nanoTime();
+            }
 
-            YawPitchRollAngles angles = imu.getRobotYawPitchRollAngles();
-
-            FlightRecorder.write("MECANUM_LOCALIZER_INPUTS", new MecanumLocalizerInputsMessage(
-                    leftFrontPosVel, leftBackPosVel, rightBackPosVel, rightFrontPosVel, angles));
+            // Sampled on the IMU thread, so this never waits on I2C
+            ImuSampler.Sample imuSample = imuSampler.getSample();
+            boolean imuFresh = imuSample != null
+                    && imuSample.getAgeMs() <= ConfigVariables.General.IMU_MAX_AGE_MS;
 
-            Rotation2d heading = Rotation2d.exp(angles.getYaw(AngleUnit.RADIANS));
+            if (imuSample != null) {
+                FlightRecorder.write("MECANUM_LOCALIZER_INPUTS", new MecanumLocalizerInputsMessage(
+                        leftFrontPosVel, leftBackPosVel, rightBackPosVel, rightFrontPosVel, imuSample.angles));
+            }
 
             if (!initialized) {
+                // Wait for an IMU reading to start from
+                if (!imuFresh) {
+                    return new PoseVelocity2d(new Vector2d(0.0, 0.0), 0.0);
+                }
+                Rotation2d heading = Rotation2d.exp(ImuSampler.getYawAt(imuSample, encoderTime));
                 initialized = true;
 
                 lastLeftFrontPos = leftFrontPosVel.position;
@@ -297,7 +357,6 @@ public final class MecanumDrive {
                 return new PoseVelocity2d(new Vector2d(0.0, 0.0), 0.0);
             }
 
-            double headingDelta = heading.minus(lastHeading);
             Twist2dDual<Time> twist = kinematics.forward(new MecanumKinematics.WheelIncrements<>(
                     new DualNum<Time>(new double[]{
                             (leftFrontPosVel.position - lastLeftFrontPos),
@@ -321,6 +380,16 @@ public final class MecanumDrive {
             lastRightBackPos = rightBackPosVel.position;
             lastRightFrontPos = rightFrontPosVel.position;
 
+            // Use the wheels' heading change while the IMU sample is stale
+            double headingDelta;
+            Rotation2d heading;
+            if (imuFresh) {
+                heading = Rotation2d.exp(ImuSampler.getYawAt(imuSample, encoderTime));
+                headingDelta = heading.minus(lastHeading);
+            } else {
+                headingDelta = twist.angle.value();
+                heading = lastHeading.plus(headingDelta);
+            }
             lastHeading = heading;
 
             pose = pose.plus(new Twist2d(
@@ -356,17 +425,19 @@ public final class MecanumDrive {
             double t;
             if (beginTs < 0) {
                 beginTs = Actions.now();
+                CommandTracer.initialize(this);
                 t = 0;
             } else {
                 t = Actions.now() - beginTs;
             }
 
             if (t >= timeTrajectory.duration) {
-                leftFront.setPower(0);
-                leftBack.setPower(0);
-                rightBack.setPower(0);
-                rightFront.setPower(0);
+                leftFrontOutput.set(0);
+                leftBackOutput.set(0);
+                rightBackOutput.set(0);
+                rightFrontOutput.set(0);
 
+                CommandTracer.end(this, false);
                 return false;
             }
 
@@ -382,7 +453,7 @@ public final class MecanumDrive {
             driveCommandWriter.write(new DriveCommandMessage(command));
 
             MecanumKinematics.WheelVelocities<Time> wheelVels = kinematics.inverse(command);
-            double voltage = voltageSensor.getVoltage();
+            double voltage = VoltageMonitor.getInstance().getVoltage();
 
             final MotorFeedforward feedforward = new MotorFeedforward(PARAMS.kS,
                     PARAMS.kV / PARAMS.inPerTick, PARAMS.kA / PARAMS.inPerTick);
@@ -393,19 +464,21 @@ public final class MecanumDrive {
             mecanumCommandWriter.write(new MecanumCommandMessage(
                     voltage, leftFrontPower, leftBackPower, rightBackPower, rightFrontPower));
 
-            leftFront.setPower(leftFrontPower);
-            leftBack.setPower(leftBackPower);
-            rightBack.setPower(rightBackPower);
-            rightFront.setPower(rightFrontPower);
+            leftFrontOutput.set(leftFrontPower);
+            leftBackOutput.set(leftBackPower);
+            rightBackOutput.set(rightBackPower);
+            rightFrontOutput.set(rightFrontPower);
 
-            p.put("x", localizer.getPose().position.x);
-            p.put("y", localizer.getPose().position.y);
-            p.put("heading (deg)", Math.toDegrees(localizer.getPose().heading.toDouble()));
+            if (shouldSample(p, "drive/trajectory", ConfigVariables.General.POSE_TELEMETRY_DIVISOR)) {
+                p.put("x", localizer.getPose().position.x);
+                p.put("y", localizer.getPose().position.y);
+                p.put("heading (deg)", Math.toDegrees(localizer.getPose().heading.toDouble()));
 
-            Pose2d error = txWorldTarget.value().minusExp(localizer.getPose());
-            p.put("xError", error.position.x);
-            p.put("yError", error.position.y);
-            p.put("headingError (deg)", Math.toDegrees(error.heading.toDouble()));
+                Pose2d error = txWorldTarget.value().minusExp(localizer.getPose());
+                p.put("xError", error.position.x);
+                p.put("yError", error.position.y);
+                p.put("headingError (deg)", Math.toDegrees(error.heading.toDouble()));
+            }
 
             // only draw when active; only one drive action should be active at a time
             Canvas c = p.fieldOverlay();
@@ -446,17 +519,19 @@ public final class MecanumDrive {
             double t;
             if (beginTs < 0) {
                 beginTs = Actions.now();
+                CommandTracer.initialize(this);
                 t = 0;
             } else {
                 t = Actions.now() - beginTs;
             }
 
             if (t >= turn.duration) {
-                leftFront.setPower(0);
-                leftBack.setPower(0);
-                rightBack.setPower(0);
-                rightFront.setPower(0);
+                leftFrontOutput.set(0);
+                leftBackOutput.set(0);
+                rightBackOutput.set(0);
+                rightFrontOutput.set(0);
 
+                CommandTracer.end(this, false);
                 return false;
             }
 
@@ -472,7 +547,7 @@ public final class MecanumDrive {
             driveCommandWriter.write(new DriveCommandMessage(command));
 
             MecanumKinematics.WheelVelocities<Time> wheelVels = kinematics.inverse(command);
-            double voltage = voltageSensor.getVoltage();
+            double voltage = VoltageMonitor.getInstance().getVoltage();
             final MotorFeedforward feedforward = new MotorFeedforward(PARAMS.kS,
                     PARAMS.kV / PARAMS.inPerTick, PARAMS.kA / PARAMS.inPerTick);
             double leftFrontPower = feedforward.compute(wheelVels.leftFront) / voltage;
@@ -482,10 +557,10 @@ public final class MecanumDrive {
             mecanumCommandWriter.write(new MecanumCommandMessage(
                     voltage, leftFrontPower, leftBackPower, rightBackPower, rightFrontPower));
 
-            leftFront.setPower(feedforward.compute(wheelVels.leftFront) / voltage);
-            leftBack.setPower(feedforward.compute(wheelVels.leftBack) / voltage);
-            rightBack.setPower(feedforward.compute(wheelVels.rightBack) / voltage);
-            rightFront.setPower(feedforward.compute(wheelVels.rightFront) / voltage);
+            leftFrontOutput.set(feedforward.compute(wheelVels.leftFront) / voltage);
+            leftBackOutput.set(feedforward.compute(wheelVels.leftBack) / voltage);
+            rightBackOutput.set(feedforward.compute(wheelVels.rightBack) / voltage);
+            rightFrontOutput.set(feedforward.compute(wheelVels.rightFront) / voltage);
 
             Canvas c = p.fieldOverlay();
             drawPoseHistory(c);
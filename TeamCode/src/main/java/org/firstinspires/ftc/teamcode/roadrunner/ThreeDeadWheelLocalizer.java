@@ -19,6 +19,7 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.ThreeDeadWheelInputsMessage;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FittedVelocityEncoder;
 
 @Config
 public final class ThreeDeadWheelLocalizer implements Localizer {
@@ -34,12 +35,21 @@ public final class ThreeDeadWheelLocalizer implements Localizer {
         // the encoders should be plugged into the slot matching the named motor
         // see
         // https://ftc-docs.firstinspires.org/en/latest/hardware_and_software_configuration/configuring/index.html
-        par0 = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, ControlHub.motor(0))));
-        par1 = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, ControlHub.motor(3))));
-        perp = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, ControlHub.motor(2))));
+        this(deadWheel(hardwareMap, 0), deadWheel(hardwareMap, 3), deadWheel(hardwareMap, 2),
+                inPerTick, initialPose);
 
         // TODO: reverse encoder directions if needed
         // par0.setDirection(DcMotorSimple.Direction.REVERSE);
+    }
+
+    /**
+     * Localize from any encoders, e.g. in-memory ones wrapped in a
+     * RoadRunnerEncoder off the robot.
+     */
+    public ThreeDeadWheelLocalizer(Encoder par0, Encoder par1, Encoder perp, double inPerTick, Pose2d initialPose) {
+        this.par0 = par0;
+        this.par1 = par1;
+        this.perp = perp;
 
         this.inPerTick = inPerTick;
         if (ConfigVariables.General.DEBUG_MODE)
@@ -48,6 +58,17 @@ public final class ThreeDeadWheelLocalizer implements Localizer {
         pose = initialPose;
     }
 
+    /**
+     * Dead wheel encoder on a Control Hub motor port. The hub's velocity is
+     * too coarse at low speed for the 8192 CPR wheels; with FIT_ENCODER_VELOCITY
+     * on it is fitted over recent positions instead.
+     */
+    private static Encoder deadWheel(HardwareMap hardwareMap, int port) {
+        Encoder encoder = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, ControlHub.motor(port))));
+        return ConfigVariables.General.FIT_ENCODER_VELOCITY
+                ? new FittedVelocityEncoder(encoder, ControlHub.NAME) : encoder;
+    }
+
     @Override
     public Pose2d getPose() {
         return pose;
@@ -6,46 +6,152 @@ import com.qualcomm.robotcore.hardware.ColorSensor;
 import com.qualcomm.robotcore.hardware.DistanceSensor;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
-import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.ColorDistanceIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcColorDistanceIO;
 
 import java.util.Arrays;
-
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * REV color/distance sensor.
+ * <p>
+ * Every read is a blocking I2C transaction of a few ms. After
+ * {@link #startPolling()} a background thread reads the sensor and publishes
+ * each result as an immutable {@link Sample}, so matchColor(), caught() and
+ * canTransfer() cost the loop nothing. A sample older than
+ * COLOR_SENSOR_MAX_AGE_MS counts as no reading: nothing caught, unknown
+ * color. Without polling these methods take one sample on the calling thread.
+ */
 public class ColorSensorImpl {
     public ColorSensor sensorColor;
     public DistanceSensor sensorDistance;
 
+    private final ColorDistanceIO io;
+    private final AtomicReference<Sample> latest = new AtomicReference<>();
+    private Thread poller;
+
     public ColorSensorImpl(HardwareMap hardwareMap) {
         sensorColor = hardwareMap.get(ColorSensor.class, "sensor_color_distance");
         sensorDistance = hardwareMap.get(DistanceSensor.class, "sensor_color_distance");
+        io = new FtcColorDistanceIO(sensorColor, sensorDistance);
+    }
+
+    /**
+     * Use any sensor, e.g. an in-memory one off the robot.
+     */
+    public ColorSensorImpl(ColorDistanceIO io) {
+        this.io = io;
+    }
+
+    /**
+     * Start reading the sensor on a background thread.
+     */
+    public synchronized void startPolling() {
+        if (poller != null) {
+            return;
+        }
+        poller = new Thread(this::poll, "ColorSensorPoller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Stop the background thread and wait until it has exited, so it cannot
+     * publish a sample after this returns. That is at most one I2C read.
+     */
+    public synchronized void stopPolling() {
+        if (poller == null) {
+            return;
+        }
+        poller.interrupt();
+        boolean interrupted = false;
+        while (poller.isAlive()) {
+            try {
+                poller.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        poller = null;
+        latest.set(null);
+    }
+
+    private void poll() {
+        while (!Thread.currentThread().isInterrupted()) {
+            latest.set(readSample());
+            try {
+                Thread.sleep(ConfigVariables.General.COLOR_SENSOR_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private Sample readSample() {
+        return new Sample(getRed(), getGreen(), getBlue(), getDistance(), System.nanoTime());
     }
 
+    /**
+     * @return Latest sample, or null if it is older than COLOR_SENSOR_MAX_AGE_MS
+     */
+    public Sample getSample() {
+        if (poller == null) {
+            return readSample();
+        }
+        Sample sample = latest.get();
+        if (sample == null || sample.getAgeMs() > ConfigVariables.General.COLOR_SENSOR_MAX_AGE_MS) {
+            return null;
+        }
+        return sample;
+    }
+
+    /**
+     * Reads the sensor directly.
+     */
     public double getDistance() {
-        return sensorDistance != null ? sensorDistance.getDistance(DistanceUnit.CM) : Double.MAX_VALUE;
+        return io.getDistanceCm();
     }
 
+    /**
+     * Reads the sensor directly.
+     */
     public int getRed() {
-        return sensorColor != null ? sensorColor.red() : 0;
+        return io.red();
     }
 
+    /**
+     * Reads the sensor directly.
+     */
     public int getGreen() {
-        return sensorColor != null ? sensorColor.green() : 0;
+        return io.green();
     }
 
+    /**
+     * Reads the sensor directly.
+     */
     public int getBlue() {
-        return sensorColor != null ? sensorColor.blue() : 0;
+        return io.blue();
     }
 
     public String matchColor() {
-        // convert rgb values to hsv
-        float[] hsvValues = new float[3];
-        Color.RGBToHSV(getRed(), getGreen(), getBlue(), hsvValues);
+        Sample sample = getSample();
+        return sample != null ? sample.color : "unknown";
+    }
 
+    public static String matchColor(int red, int green, int blue) {
         // if too dark
-        if (getRed() + getGreen() + getBlue() < 20) {
+        if (red + green + blue < 20) {
             return "unknown";
         }
 
+        // convert rgb values to hsv
+        float[] hsvValues = new float[3];
+        Color.RGBToHSV(red, green, blue, hsvValues);
+
         float hue = hsvValues[0];
         // Determine color based on hue range
         if (hue >= 180f && hue <= 260f) {
@@ -60,18 +166,46 @@ public class ColorSensorImpl {
     }
 
     public boolean caught() {
+        Sample sample = getSample();
         // distance < 5cm
-        return getDistance() < 5;
+        return sample != null && sample.distance < 5;
     }
 
     public boolean caughtDefaultTrue() {
-        double distance = getDistance();
+        Sample sample = getSample();
+        if (sample == null) {
+            return true;
+        }
         // distance < 5cm
-        return distance < 5 || distance >= Double.MAX_VALUE - 1;
+        return sample.distance < 5 || sample.distance >= Double.MAX_VALUE - 1;
     }
 
     public boolean canTransfer() {
-        String color = matchColor();
-        return Arrays.asList(ConfigVariables.Camera.ACCEPTED_COLORS).contains(color) && caught();
+        Sample sample = getSample();
+        return sample != null && sample.distance < 5
+                && Arrays.asList(ConfigVariables.Camera.ACCEPTED_COLORS).contains(sample.color);
+    }
+
+    /**
+     * One reading of the sensor.
+     */
+    public static final class Sample {
+        public final int red, green, blue;
+        public final String color;
+        public final double distance; // cm
+        public final long timestampNanos; // System.nanoTime()
+
+        public Sample(int red, int green, int blue, double distance, long timestampNanos) {
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+            this.color = matchColor(red, green, blue);
+            this.distance = distance;
+            this.timestampNanos = timestampNanos;
+        }
+
+        public double getAgeMs() {
+            return (System.nanoTime() - timestampNanos) / 1e6;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package org.firstinspires.ftc.teamcode.sensors.limelight;
 
+import static org.firstinspires.ftc.teamcode.utils.TelemetryPacket.shouldSample;
+
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 import com.qualcomm.hardware.limelightvision.LLResult;
 import com.qualcomm.hardware.limelightvision.LLResultTypes;
@@ -7,6 +9,8 @@ import com.qualcomm.hardware.limelightvision.Limelight3A;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcVisionIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.VisionIO;
 import org.opencv.calib3d.Calib3d;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
@@ -46,6 +50,7 @@ public class Limelight {
     public boolean resultAvailable = false;
     public Limelight3A limelight;
     HardwareMap hardwareMap;
+    private VisionIO io;
     LLResult result;
 
     public static List<List<Double>> getInnerCorners(List<List<Double>> outerCorners) {
@@ -124,13 +129,19 @@ public class Limelight {
             available = false;
             return;
         }
-        limelight.pipelineSwitch(0);
-        limelight.setPollRateHz(100);
+        initialize(new FtcVisionIO(limelight, 0));
+    }
+
+    /**
+     * Initialize against any camera, e.g. an in-memory one off the robot.
+     */
+    public void initialize(VisionIO io) {
+        this.io = io;
+        available = true;
     }
 
     public void cameraStart() {
-        limelight.start();
-        limelight.reloadPipeline();
+        io.start();
     }
 
     /*
@@ -138,8 +149,8 @@ public class Limelight {
      */
     public boolean updateDetectorResult() {
         if (!available) return false;
-        result = limelight.getLatestResult();
-        if (result.isValid()) {
+        result = io.getLatestResult();
+        if (result != null && result.isValid()) {
             detectorResults = result.getDetectorResults();
             if (detectorResults.isEmpty()) {
                 resultAvailable = false;
@@ -165,23 +176,43 @@ public class Limelight {
         if (!resultAvailable || !available)
             return;
 
-        outerCorners = detectorResult.getTargetCorners();
+        List<List<Double>> corners = detectorResult.getTargetCorners();
+        setPosition(corners, solvePosition(corners));
+    }
+
+    /**
+     * Solve the target pose from its outer corners. Only reads its argument and
+     * constants, so it is safe to call off the loop thread.
+     *
+     * @return [x, y, z, rotationAngle], or null if the corners are unusable
+     */
+    public double[] solvePosition(List<List<Double>> outerCorners) {
         if (outerCorners == null || outerCorners.size() != 4) {
-            resultAvailable = false;
-            return;
+            return null;
         }
 
         List<List<Double>> innerCorners = getInnerCorners(outerCorners);
         if (innerCorners.isEmpty()) {
-            resultAvailable = false;
-            return;
+            return null;
         }
         MatOfPoint2f innerCornersMat = new MatOfPoint2f(
                 new Point(innerCorners.get(0).get(0), innerCorners.get(0).get(1)),
                 new Point(innerCorners.get(1).get(0), innerCorners.get(1).get(1)),
                 new Point(innerCorners.get(2).get(0), innerCorners.get(2).get(1)),
                 new Point(innerCorners.get(3).get(0), innerCorners.get(3).get(1)));
-        poseResult = estimatePrismPose(innerCornersMat);
+        return estimatePrismPose(innerCornersMat);
+    }
+
+    /**
+     * Store a pose from {@link #solvePosition(List)}.
+     */
+    public void setPosition(List<List<Double>> outerCorners, double[] pose) {
+        this.outerCorners = outerCorners;
+        if (pose == null) {
+            resultAvailable = false;
+            return;
+        }
+        poseResult = pose;
     }
 
     /**
@@ -266,13 +297,13 @@ public class Limelight {
             return;
         switch (classname) {
             case "blue":
-                limelight.updatePythonInputs(0, 0, 0, 0, 0, 0, 0, 0);
+                io.updatePythonInputs(0, 0, 0, 0, 0, 0, 0, 0);
                 break;
             case "red":
-                limelight.updatePythonInputs(1, 0, 0, 0, 0, 0, 0, 0);
+                io.updatePythonInputs(1, 0, 0, 0, 0, 0, 0, 0);
                 break;
             case "yellow":
-                limelight.updatePythonInputs(2, 0, 0, 0, 0, 0, 0, 0);
+                io.updatePythonInputs(2, 0, 0, 0, 0, 0, 0, 0);
         }
     }
 
@@ -369,6 +400,10 @@ public class Limelight {
      * Update telemetry with camera status and detection information
      */
     public void updateTelemetry(TelemetryPacket packet) {
+        if (!shouldSample(packet, "limelight", ConfigVariables.Camera.TELEMETRY_DIVISOR)) {
+            return;
+        }
+
         // Basic camera status
         packet.put("limelight/available", available);
         packet.put("limelight/resultAvailable", resultAvailable);
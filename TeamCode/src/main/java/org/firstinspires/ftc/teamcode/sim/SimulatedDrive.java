@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
+/**
+ * Drivetrain without hardware. Integrates the commanded field-relative
+ * velocity into a pose every periodic().
+ */
+public class SimulatedDrive extends SubsystemBase {
+    private double x, y, heading;       // in, in, rad
+    private double vx, vy, omega;       // in/s, in/s, rad/s
+    private long lastUpdate = -1;       // ns
+
+    private final TelemetryChannels.DoubleChannel xChannel;
+    private final TelemetryChannels.DoubleChannel yChannel;
+    private final TelemetryChannels.DoubleChannel headingChannel;
+
+    public SimulatedDrive() {
+        super("drive");
+        this.xChannel = TelemetryChannels.getInstance().doubleChannel(name + "/x");
+        this.yChannel = TelemetryChannels.getInstance().doubleChannel(name + "/y");
+        this.headingChannel = TelemetryChannels.getInstance().doubleChannel(name + "/heading");
+    }
+
+    @Override
+    public void initialize(HardwareMap hardwareMap) {
+        x = y = heading = 0;
+        vx = vy = omega = 0;
+        lastUpdate = -1;
+    }
+
+    @Override
+    public void stop() {
+        vx = vy = omega = 0;
+    }
+
+    @Override
+    public void periodic(TelemetryPacket packet) {
+        long now = Clocks.get().nanoTime();
+        if (lastUpdate >= 0) {
+            double dt = (now - lastUpdate) / Clock.NANOS_PER_SECOND;
+            x += vx * dt;
+            y += vy * dt;
+            heading += omega * dt;
+        }
+        lastUpdate = now;
+
+        xChannel.set(x);
+        yChannel.set(y);
+        headingChannel.set(heading);
+        super.periodic(packet);
+    }
+
+    public void setVelocity(double vx, double vy, double omega) {
+        this.vx = vx;
+        this.vy = vy;
+        this.omega = omega;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+}
@@ -0,0 +1,93 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
+import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
+import java.util.Arrays;
+
+/**
+ * Slide without hardware, modelled as a first-order lag with a speed limit.
+ * Like the real slides it updates its controller in periodic(), at control
+ * critical priority, and commands only move the target. Positions are in
+ * encoder counts so the real SlideCommand thresholds apply; servo positions
+ * (claw, arm parts) are stored by index and take effect immediately.
+ */
+public class SimulatedSlide extends SubsystemBase {
+    private final double countsPerCm;
+    private final double maxSpeed;     // counts/s
+    private final double timeConstant; // s
+
+    private double position = 0;       // counts
+    private double target = 0;         // counts
+    private long lastUpdate = -1;      // ns
+    private final double[] servoPositions;
+
+    private final TelemetryChannels.DoubleChannel positionChannel;
+    private final TelemetryChannels.DoubleChannel targetChannel;
+
+    public SimulatedSlide(String name, double countsPerCm, double maxSpeedCm, double timeConstant, int servos) {
+        super(name);
+        this.countsPerCm = countsPerCm;
+        this.maxSpeed = maxSpeedCm * countsPerCm;
+        this.timeConstant = timeConstant;
+        this.servoPositions = new double[servos];
+        this.positionChannel = TelemetryChannels.getInstance().doubleChannel(name + "/position");
+        this.targetChannel = TelemetryChannels.getInstance().doubleChannel(name + "/target");
+        priority = Priority.CONTROL_CRITICAL;
+    }
+
+    @Override
+    public void initialize(HardwareMap hardwareMap) {
+        position = 0;
+        target = 0;
+        lastUpdate = -1;
+        Arrays.fill(servoPositions, 0);
+    }
+
+    @Override
+    public void stop() {
+        target = position;
+    }
+
+    @Override
+    public void periodic(TelemetryPacket packet) {
+        long now = Clocks.get().nanoTime();
+        if (lastUpdate >= 0) {
+            double dt = (now - lastUpdate) / Clock.NANOS_PER_SECOND;
+            double step = (target - position) * (1 - Math.exp(-dt / timeConstant));
+            double limit = maxSpeed * dt;
+            position += Math.max(-limit, Math.min(limit, step));
+        }
+        lastUpdate = now;
+
+        positionChannel.set(position);
+        targetChannel.set(target);
+        super.periodic(packet);
+    }
+
+    public void setPositionCM(double cm) {
+        target = Math.round(countsPerCm * cm);
+    }
+
+    public void setServoPosition(int servo, double position) {
+        servoPositions[servo] = position;
+    }
+
+    public double getServoPosition(int servo) {
+        return servoPositions[servo];
+    }
+
+    public double getTarget() {
+        return target;
+    }
+
+    public double getPosition() {
+        return position;
+    }
+}
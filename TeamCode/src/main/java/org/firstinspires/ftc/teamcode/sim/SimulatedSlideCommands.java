@@ -0,0 +1,69 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.acmerobotics.roadrunner.Action;
+
+import org.firstinspires.ftc.teamcode.commands.slide.ServoCommand;
+import org.firstinspires.ftc.teamcode.commands.slide.SlideCommand;
+
+/**
+ * Factory class for simulated slide commands. Built on the same SlideCommand
+ * and ServoCommand bases as LowerSlideCommands/UpperSlideCommands, so the
+ * harness runs the real command logic against a SimulatedSlide.
+ */
+public class SimulatedSlideCommands {
+    private final SimulatedSlide slide;
+
+    public SimulatedSlideCommands(SimulatedSlide slide) {
+        this.slide = slide;
+    }
+
+    public Action setSlidePos(double cm) {
+        return new SlidePositionCommand(cm);
+    }
+
+    public Action setServoPos(int servo, double position) {
+        return new SimulatedServoCommand(servo, position);
+    }
+
+    private class SlidePositionCommand extends SlideCommand {
+        private final double targetCm;
+
+        public SlidePositionCommand(double cm) {
+            this.targetCm = cm;
+        }
+
+        @Override
+        protected void setTargetPosition() {
+            slide.setPositionCM(targetCm);
+        }
+
+        @Override
+        protected double getCurrentPosition() {
+            return slide.getPosition();
+        }
+
+        @Override
+        protected double getTargetPosition() {
+            return slide.getTarget();
+        }
+
+        @Override
+        protected String getTelemetryName() {
+            return slide.getName();
+        }
+    }
+
+    private class SimulatedServoCommand extends ServoCommand {
+        private final int servo;
+
+        public SimulatedServoCommand(int servo, double position) {
+            super(slide.getName() + "/servo" + servo + "_target", position);
+            this.servo = servo;
+        }
+
+        @Override
+        protected void setServoPosition() {
+            slide.setServoPosition(servo, getTargetPosition());
+        }
+    }
+}
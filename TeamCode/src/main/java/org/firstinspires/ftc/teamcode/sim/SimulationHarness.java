@@ -0,0 +1,360 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import org.firstinspires.ftc.teamcode.commands.base.ActionCommand;
+import org.firstinspires.ftc.teamcode.commands.base.Command;
+import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.base.CompiledCommand;
+import org.firstinspires.ftc.teamcode.commands.base.ConditionalCommand;
+import org.firstinspires.ftc.teamcode.commands.base.ParallelCommandGroup;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
+import org.firstinspires.ftc.teamcode.commands.base.SchedulerProfiler;
+import org.firstinspires.ftc.teamcode.commands.base.SequentialCommandGroup;
+import org.firstinspires.ftc.teamcode.commands.base.WaitCommand;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.AutoTesting;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.LowerSlideVars;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.UpperSlideVars;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+import org.firstinspires.ftc.teamcode.utils.timing.VirtualClock;
+
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+
+/**
+ * Headless, faster-than-real-time run of the command scheduler.
+ * <p>
+ * Registers simulated slides and a simulated drivetrain, then replays a
+ * scripted teleop match on a virtual clock that advances one nominal loop
+ * period per tick, so two minutes of driving take milliseconds. The script
+ * presses the same sequences Swerve binds (hover, grab and transfer, score,
+ * slide down) every cycle, built from the real command groups and the
+ * SlideCommand/ServoCommand bases, while a control-critical drive command
+ * follows a scripted stick. At the end it prints the number of ticks, wall
+ * time, bytes allocated per tick and the time each command spent, both
+ * virtual time active and scheduler CPU time. The slides here are models,
+ * not the real subsystems; {@link SlidePidCheck} runs the real slide PID on
+ * in-memory hardware.
+ * <p>
+ * One packet is reused for every tick, so the allocation figure covers the
+ * scheduler, subsystems and commands only. It needs a JVM that reports
+ * per-thread allocation (HotSpot); elsewhere it prints n/a.
+ * Usage: java ...sim.SimulationHarness [match seconds]
+ */
+public class SimulationHarness {
+    private static final double MATCH_SECONDS = 120;
+    private static final double CYCLE_SECONDS = 10;
+
+    // Slide geometry from LowerSlide/UpperSlide
+    private static final double LOWER_COUNTS_PER_CM = 28.0 * 3.5 / (37.0 * Math.PI) * 10;
+    private static final double UPPER_COUNTS_PER_CM = 28.0 * 5.23 / (34.0 * Math.PI) * 10;
+
+    // Servo indices on the simulated slides
+    private static final int LOWER_PART1 = 0;
+    private static final int LOWER_PART2 = 1;
+    private static final int LOWER_SPINCLAW = 2;
+    private static final int LOWER_CLAW = 3;
+    private static final int UPPER_ARM = 0;
+    private static final int UPPER_SWING = 1;
+    private static final int UPPER_CLAW = 2;
+    private static final int UPPER_EXTENDO = 3;
+
+    private final CommandScheduler scheduler = CommandScheduler.getInstance();
+    private final VirtualClock clock = new VirtualClock();
+    private final SimulatedSlide lowSlide = new SimulatedSlide("lowerslide", LOWER_COUNTS_PER_CM, 150, 0.08, 4);
+    private final SimulatedSlide upSlide = new SimulatedSlide("upperslide", UPPER_COUNTS_PER_CM, 120, 0.1, 4);
+    private final SimulatedDrive drive = new SimulatedDrive();
+    private final SimulatedSlideCommands lowslideActions = new SimulatedSlideCommands(lowSlide);
+    private final SimulatedSlideCommands upslideActions = new SimulatedSlideCommands(upSlide);
+
+    private final ScriptedPress[] script;
+    private boolean caught;
+    private int cycle;
+
+    public SimulationHarness() {
+        // Offsets within each cycle, in the order a driver presses them
+        script = new ScriptedPress[]{
+                new ScriptedPress("hover", 0.0, compile(hoverSequence())),
+                new ScriptedPress("grab", 1.5, compile(grabSequence())),
+                new ScriptedPress("upperScore", 5.0, compile(upperScore())),
+                new ScriptedPress("upperSlidePos0", 7.5, compile(new ActionCommand(upslideActions.setSlidePos(UpperSlideVars.POS_0_CM), upSlide))),
+                new ScriptedPress("lowerSlidePos0", 8.0, compile(new ActionCommand(lowslideActions.setSlidePos(LowerSlideVars.POS_0_CM), lowSlide))),
+        };
+    }
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : MATCH_SECONDS;
+        new SimulationHarness().run(seconds, System.out);
+    }
+
+    /**
+     * Simulate a match and print the report.
+     *
+     * @param seconds Simulated match length in seconds
+     * @param out     Where to print the report
+     */
+    public void run(double seconds, PrintStream out) {
+        boolean profile = ConfigVariables.General.PROFILE_SCHEDULER;
+        ConfigVariables.General.PROFILE_SCHEDULER = true;
+        Clocks.set(clock);
+        try {
+            setUp();
+            // Warm up so class loading and JIT do not show up as allocations
+            simulate(Math.min(seconds, CYCLE_SECONDS * 2));
+            setUp();
+            scheduler.getProfiler().clearTotals();
+
+            long allocatedBefore = allocatedBytes();
+            long wallStart = System.nanoTime();
+            long ticks = simulate(seconds);
+            long wallNanos = System.nanoTime() - wallStart;
+            long allocatedAfter = allocatedBytes();
+
+            report(out, seconds, ticks, wallNanos,
+                    allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore);
+        } finally {
+            scheduler.reset();
+            Clocks.reset();
+            ConfigVariables.General.PROFILE_SCHEDULER = profile;
+        }
+    }
+
+    private void setUp() {
+        scheduler.reset();
+        clock.setNanoTime(0);
+        TelemetryChannels.getInstance().clear();
+        lowSlide.initialize(null);
+        upSlide.initialize(null);
+        drive.initialize(null);
+        scheduler.registerSubsystem(lowSlide);
+        scheduler.registerSubsystem(upSlide);
+        scheduler.registerSubsystem(drive);
+        drive.setDefaultCommand(new ScriptedDriveCommand(drive));
+        for (ScriptedPress press : script) {
+            press.clear();
+        }
+        cycle = 0;
+    }
+
+    /**
+     * @return Number of ticks run
+     */
+    private long simulate(double seconds) {
+        long period = (long) (Clock.NANOS_PER_SECOND / ConfigVariables.General.NOMINAL_LOOP_HZ);
+        long end = (long) (seconds * Clock.NANOS_PER_SECOND);
+        long cycleLength = (long) (CYCLE_SECONDS * Clock.NANOS_PER_SECOND);
+        TelemetryPacket packet = new org.firstinspires.ftc.teamcode.utils.TelemetryPacket(false);
+        int next = 0;
+        long ticks = 0;
+        while (clock.nanoTime() < end) {
+            long now = clock.nanoTime();
+            long cycleStart = (long) cycle * cycleLength;
+            while (next < script.length && now - cycleStart >= script[next].offset) {
+                script[next].press(now);
+                next++;
+            }
+            if (next == script.length && now - cycleStart >= cycleLength) {
+                next = 0;
+                cycle++;
+                // Miss every third sample so the transfer branch is exercised both ways
+                caught = cycle % 3 != 2;
+            }
+
+            scheduler.run(packet);
+            ticks++;
+            clock.advance(period);
+
+            for (ScriptedPress press : script) {
+                press.update(clock.nanoTime());
+            }
+        }
+        return ticks;
+    }
+
+    private void report(PrintStream out, double seconds, long ticks, long wallNanos, long allocatedBytes) {
+        out.printf("Simulated %.1f s in %.1f ms (%.0fx real time), %d ticks, %.1f us/tick%n",
+                seconds, wallNanos / 1e6, seconds * Clock.NANOS_PER_SECOND / wallNanos, ticks,
+                wallNanos / 1e3 / ticks);
+        if (allocatedBytes >= 0) {
+            out.printf("Allocated %d bytes, %.1f bytes/tick%n", allocatedBytes, allocatedBytes / (double) ticks);
+        } else {
+            out.println("Allocated n/a (per-thread allocation counter not available)");
+        }
+        out.printf("Overruns %d, deferred %d%n", scheduler.getOverrunCount(), scheduler.getDeferredCount());
+
+        out.println();
+        out.printf("%-18s %7s %12s %12s%n", "press", "runs", "active_s", "mean_ms");
+        for (ScriptedPress press : script) {
+            out.printf("%-18s %7d %12.2f %12.1f%n", press.name, press.runs,
+                    press.activeNanos / Clock.NANOS_PER_SECOND,
+                    press.runs == 0 ? 0 : press.activeNanos / 1e6 / press.runs);
+        }
+
+        out.println();
+        out.printf("%-48s %9s %12s %10s%n", "scheduler cpu", "samples", "total_ms", "mean_us");
+        SchedulerProfiler profiler = scheduler.getProfiler();
+        for (int id = 0; id < profiler.size(); id++) {
+            long samples = profiler.getTotalSamples(id);
+            if (samples == 0) {
+                continue;
+            }
+            out.printf("%-48s %9d %12.2f %10.2f%n", profiler.getName(id), samples,
+                    profiler.getTotalNanos(id) / 1e6, profiler.getTotalNanos(id) / 1e3 / samples);
+        }
+    }
+
+    private Command compile(Command command) {
+        return ConfigVariables.General.COMPILE_COMMANDS ? CompiledCommand.compile(command) : command;
+    }
+
+    // Swerve right bumper: lowerslide out to the first extension and hover
+    private Command hoverSequence() {
+        return new SequentialCommandGroup(
+                new ActionCommand(lowslideActions.setServoPos(LOWER_CLAW, LowerSlideVars.CLAW_OPEN)),
+                new ParallelCommandGroup(
+                        new ActionCommand(lowslideActions.setSlidePos(AutoTesting.Z_LowerslideExtend_FIRST), lowSlide),
+                        new ActionCommand(lowslideActions.setServoPos(LOWER_PART1, LowerSlideVars.HOVER_BIG)),
+                        new ActionCommand(lowslideActions.setServoPos(LOWER_PART2, LowerSlideVars.HOVER_SMALL))));
+    }
+
+    // Swerve right trigger: LowerSlideGrabSequenceCommand, then transfer if a sample was caught
+    private Command grabSequence() {
+        return new SequentialCommandGroup(
+                new ActionCommand(lowslideActions.setServoPos(LOWER_CLAW, LowerSlideVars.CLAW_OPEN)),
+                new ActionCommand(lowslideActions.setServoPos(LOWER_PART1, LowerSlideVars.GRAB_BIG)),
+                new ActionCommand(lowslideActions.setServoPos(LOWER_PART2, LowerSlideVars.GRAB_SMALL)),
+                new WaitCommand(LowerSlideVars.POS_GRAB_TIMEOUT / 1000.0),
+                new ActionCommand(lowslideActions.setServoPos(LOWER_CLAW, LowerSlideVars.CLAW_CLOSE)),
+                new WaitCommand(LowerSlideVars.CLAW_CLOSE_TIMEOUT / 1000.0),
+                new ActionCommand(lowslideActions.setServoPos(LOWER_PART1, LowerSlideVars.HOVER_BIG)),
+                new WaitCommand((double) LowerSlideVars.POS_HOVER_TIMEOUT / 1000),
+                new ConditionalCommand(() -> caught, transferSequence()));
+    }
+
+    // LowerUpperTransferSequenceCommand
+    private Command transferSequence() {
+        return new SequentialCommandGroup(
+                new ActionCommand(upslideActions.setServoPos(UPPER_EXTENDO, UpperSlideVars.EXTENDO_CLOSE)),
+                new ActionCommand(lowslideActions.setSlidePos(LowerSlideVars.POS_2_CM), lowSlide),
+                new ActionCommand(upslideActions.setServoPos(UPPER_CLAW, UpperSlideVars.CLAW_OPEN)),
+                new ParallelCommandGroup(
+                        new ActionCommand(lowslideActions.setServoPos(LOWER_PART1, LowerSlideVars.UP_BIG)),
+                        new ActionCommand(lowslideActions.setServoPos(LOWER_PART2, LowerSlideVars.UP_SMALL)),
+                        new ActionCommand(lowslideActions.setServoPos(LOWER_SPINCLAW, LowerSlideVars.SPINCLAW_DEG)),
+                        new ActionCommand(upslideActions.setServoPos(UPPER_ARM, UpperSlideVars.SCORESPEC_FRONT_ARM_POS))),
+                new WaitCommand(AutoTesting.E_LOWSLIDEUPAFTERDELAY_S),
+                new ActionCommand(upslideActions.setServoPos(UPPER_ARM, UpperSlideVars.BEHIND_ARM_POS)),
+                new WaitCommand(AutoTesting.F_TRANSFERAFTERDELAY_S),
+                new ActionCommand(upslideActions.setServoPos(UPPER_CLAW, UpperSlideVars.CLAW_CLOSE)),
+                new WaitCommand(AutoTesting.G_LOWSLIDETRANSFEROPENCLAWAFTERDELAY_S),
+                new ActionCommand(lowslideActions.setServoPos(LOWER_CLAW, LowerSlideVars.CLAW_OPEN)));
+    }
+
+    // UpperSlideScoreCommand
+    private Command upperScore() {
+        return new SequentialCommandGroup(
+                new ActionCommand(upslideActions.setServoPos(UPPER_ARM, UpperSlideVars.INTER_ARM_POS)),
+                new ActionCommand(upslideActions.setSlidePos(UpperSlideVars.POS_3_CM), upSlide),
+                new WaitCommand(UpperSlideVars.SLIDEPOS3_DELAY),
+                new ActionCommand(upslideActions.setServoPos(UPPER_SWING, UpperSlideVars.FRONT_SWING_POS)),
+                new ActionCommand(upslideActions.setServoPos(UPPER_EXTENDO, UpperSlideVars.EXTENDO_OPEN)),
+                new WaitCommand(UpperSlideVars.FRONT_DELAY),
+                new ActionCommand(upslideActions.setServoPos(UPPER_CLAW, UpperSlideVars.CLAW_OPEN)),
+                new WaitCommand(ConfigVariables.General.CLAW_OPERATION_TIMEOUT / 1000.0),
+                new ActionCommand(upslideActions.setServoPos(UPPER_ARM, UpperSlideVars.INTER_ARM_POS)),
+                new ActionCommand(upslideActions.setServoPos(UPPER_EXTENDO, UpperSlideVars.EXTENDO_CLOSE)));
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 if the JVM cannot
+     * tell. Looked up reflectively since java.lang.management does not exist
+     * on Android.
+     */
+    private static long allocatedBytes() {
+        try {
+            Object threadBean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean").invoke(null);
+            Method getThreadAllocatedBytes = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) getThreadAllocatedBytes.invoke(threadBean, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A command pressed at a fixed offset in every cycle, with the virtual
+     * time it stayed scheduled.
+     */
+    private class ScriptedPress {
+        final String name;
+        final long offset; // ns from cycle start
+        final Command command;
+        long runs;
+        long activeNanos;
+        long pressedAt = -1; // ns, -1 while not scheduled
+
+        ScriptedPress(String name, double offsetSeconds, Command command) {
+            this.name = name;
+            this.offset = (long) (offsetSeconds * Clock.NANOS_PER_SECOND);
+            this.command = command;
+        }
+
+        void press(long now) {
+            if (pressedAt >= 0) {
+                return; // Still running from the last cycle, like a held button
+            }
+            scheduler.schedule(command);
+            if (scheduler.isScheduled(command)) {
+                pressedAt = now;
+                runs++;
+            }
+        }
+
+        void update(long now) {
+            if (pressedAt >= 0 && !scheduler.isScheduled(command)) {
+                activeNanos += now - pressedAt;
+                pressedAt = -1;
+            }
+        }
+
+        void clear() {
+            runs = 0;
+            activeNanos = 0;
+            pressedAt = -1;
+        }
+    }
+
+    /**
+     * Default drive command following a scripted stick: a slow figure eight
+     * with a little rotation, like a driver lining up between cycles.
+     */
+    private static class ScriptedDriveCommand extends CommandBase {
+        private final SimulatedDrive drive;
+
+        ScriptedDriveCommand(SimulatedDrive drive) {
+            this.drive = drive;
+            addRequirement(drive);
+        }
+
+        @Override
+        public void execute(TelemetryPacket packet) {
+            double t = Clocks.get().seconds();
+            drive.setVelocity(30 * Math.sin(t * 0.5), 20 * Math.sin(t), 0.5 * Math.cos(t * 0.25));
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return Priority.CONTROL_CRITICAL;
+        }
+    }
+}
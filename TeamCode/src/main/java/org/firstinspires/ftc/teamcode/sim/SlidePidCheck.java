@@ -0,0 +1,154 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.subsystems.slides.LowerSlide;
+import org.firstinspires.ftc.teamcode.subsystems.slides.UpperSlide;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.LowerSlideVars;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.UpperSlideVars;
+import org.firstinspires.ftc.teamcode.utils.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryEncoderIO;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+import org.firstinspires.ftc.teamcode.utils.timing.VirtualClock;
+
+import java.io.PrintStream;
+
+/**
+ * Off-robot check of the real slide PID loops.
+ * <p>
+ * Runs LowerSlide and UpperSlide on {@code IO.inMemory()} through the
+ * scheduler and the output stage, on a virtual clock. After every tick the
+ * flushed motor power drives a first-order motor model that moves the
+ * in-memory encoders. Each slide is sent through its preset positions and
+ * must end within SETTLE_TICKS of the target after SETTLE_SECONDS. The model
+ * clips power to [-1, 1] like the hub does; the largest unclipped power the
+ * PID asked for is printed as well. Exits with status 1 if a move fails.
+ * Usage: java ...sim.SlidePidCheck
+ */
+public class SlidePidCheck {
+    private static final double SETTLE_SECONDS = 3;
+    private static final double SETTLE_TICKS = 15;
+
+    private final CommandScheduler scheduler = CommandScheduler.getInstance();
+    private final VirtualClock clock = new VirtualClock();
+    private final LowerSlide lowSlide = new LowerSlide();
+    private final UpperSlide upSlide = new UpperSlide();
+    private final LowerSlide.IO lowIo = LowerSlide.IO.inMemory();
+    private final UpperSlide.IO upIo = UpperSlide.IO.inMemory();
+
+    // Motor models; full power moves a slide at its top speed
+    private final MotorModel lowMotor = new MotorModel(1500, 0.08);
+    private final MotorModel upMotor = new MotorModel(1200, 0.1);
+
+    public static void main(String[] args) {
+        if (!new SlidePidCheck().run(System.out)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Move both slides through their presets and print each move.
+     *
+     * @return Whether every move settled
+     */
+    public boolean run(PrintStream out) {
+        Clocks.set(clock);
+        try {
+            scheduler.reset();
+            TelemetryChannels.getInstance().clear();
+            OutputStage.getInstance().install(scheduler);
+            scheduler.registerSubsystem(lowSlide);
+            scheduler.registerSubsystem(upSlide);
+            lowSlide.initialize(lowIo);
+            upSlide.initialize(upIo);
+
+            boolean passed = true;
+            for (double cm : new double[]{LowerSlideVars.POS_2_CM, LowerSlideVars.POS_1_CM, LowerSlideVars.POS_0_CM}) {
+                lowSlide.setPositionCM(cm);
+                passed &= settle(out, "lowerslide", cm, lowSlide.pidfController.destination,
+                        lowSlide::getCurrentPosition);
+            }
+            for (double cm : new double[]{UpperSlideVars.POS_3_CM, UpperSlideVars.POS_1_CM, UpperSlideVars.POS_0_CM}) {
+                upSlide.setPositionCM(cm);
+                passed &= settle(out, "upperslide", cm, upSlide.pidfController.destination,
+                        upSlide::getCurrentPosition);
+            }
+            out.println(passed ? "PASS" : "FAIL");
+            return passed;
+        } finally {
+            scheduler.reset();
+            Clocks.reset();
+        }
+    }
+
+    private boolean settle(PrintStream out, String name, double cm, double target, Position position) {
+        long period = (long) (Clock.NANOS_PER_SECOND / ConfigVariables.General.NOMINAL_LOOP_HZ);
+        long end = clock.nanoTime() + (long) (SETTLE_SECONDS * Clock.NANOS_PER_SECOND);
+        TelemetryPacket packet = new org.firstinspires.ftc.teamcode.utils.TelemetryPacket(false);
+        double maxPower = 0;
+        long settledAt = -1;
+        long start = clock.nanoTime();
+        while (clock.nanoTime() < end) {
+            scheduler.run(packet);
+            clock.advance(period);
+            step(period / Clock.NANOS_PER_SECOND);
+            maxPower = Math.max(maxPower, Math.max(Math.abs(lowIo.slide.getPower()),
+                    Math.max(Math.abs(upIo.slide1.getPower()), Math.abs(upIo.slide2.getPower()))));
+            boolean inside = Math.abs(position.get() - target) <= SETTLE_TICKS;
+            if (!inside) {
+                settledAt = -1;
+            } else if (settledAt < 0) {
+                settledAt = clock.nanoTime();
+            }
+        }
+        boolean passed = settledAt >= 0;
+        out.printf("%-11s %6.1f cm  target %6.0f  final %6d  settled %s  max power %.2f  %s%n",
+                name, cm, target, position.get(),
+                settledAt < 0 ? "never" : String.format("%.2f s", (settledAt - start) / Clock.NANOS_PER_SECOND),
+                maxPower, passed ? "ok" : "FAIL");
+        return passed;
+    }
+
+    /**
+     * Advance the motor models by the power the output stage flushed.
+     */
+    private void step(double dt) {
+        int low = lowMotor.step(lowIo.slide.getPower(), dt);
+        ((InMemoryEncoderIO) lowIo.slideEncoder).setPosition(low);
+        // Both upper motors drive the same slide
+        double upPower = (upIo.slide1.getPower() + upIo.slide2.getPower()) / 2;
+        int up = upMotor.step(upPower, dt);
+        ((InMemoryEncoderIO) upIo.slide1Encoder).setPosition(up);
+        ((InMemoryEncoderIO) upIo.slide2Encoder).setPosition(up);
+    }
+
+    private interface Position {
+        int get();
+    }
+
+    /**
+     * Velocity follows power times top speed with a first-order lag.
+     */
+    private static final class MotorModel {
+        private final double maxSpeed;     // counts/s
+        private final double timeConstant; // s
+        private double velocity = 0;       // counts/s
+        private double position = 0;       // counts
+
+        MotorModel(double maxSpeed, double timeConstant) {
+            this.maxSpeed = maxSpeed;
+            this.timeConstant = timeConstant;
+        }
+
+        int step(double power, double dt) {
+            double clamped = Math.max(-1, Math.min(1, power));
+            velocity += (clamped * maxSpeed - velocity) * (1 - Math.exp(-dt / timeConstant));
+            position += velocity * dt;
+            return (int) Math.round(position);
+        }
+    }
+}
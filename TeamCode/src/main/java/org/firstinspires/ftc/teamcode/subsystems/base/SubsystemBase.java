@@ -4,6 +4,12 @@ import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.teamcode.commands.base.Command;
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+
+import java.util.function.Consumer;
 
 /**
  * Base class for all subsystems.
@@ -13,9 +19,23 @@ public abstract class SubsystemBase {
     protected String name;
     protected Command defaultCommand;
     protected Command currentCommand;
+    protected Priority priority = Priority.NORMAL;
+    private long producesMask;
+    private long consumesMask;
+
+    // Telemetry, registered once so periodic() does not build keys or box values
+    private final TelemetryChannels.BooleanChannel hasDefaultCommandChannel;
+    private final TelemetryChannels.BooleanChannel hasCurrentCommandChannel;
+    private final String currentCommandKey;
+
+    // Dense index assigned by the command scheduler, -1 when unassigned
+    private int schedulerSlot = -1;
 
     public SubsystemBase(String name) {
         this.name = name;
+        this.hasDefaultCommandChannel = TelemetryChannels.getInstance().booleanChannel(name + "/hasDefaultCommand");
+        this.hasCurrentCommandChannel = TelemetryChannels.getInstance().booleanChannel(name + "/hasCurrentCommand");
+        this.currentCommandKey = name + "/currentCommand";
     }
 
     /**
@@ -32,11 +52,11 @@ public abstract class SubsystemBase {
      * @param packet Telemetry packet for logging
      */
     public void periodic(TelemetryPacket packet) {
-        packet.put(name + "/hasDefaultCommand", defaultCommand != null);
-        packet.put(name + "/hasCurrentCommand", currentCommand != null);
+        hasDefaultCommandChannel.set(defaultCommand != null);
+        hasCurrentCommandChannel.set(currentCommand != null);
         if (currentCommand != null) {
             // packet.put(name + "/currentCommand", currentCommand.getName());
-            packet.put(name + "/currentCommand", currentCommand);
+            packet.put(currentCommandKey, currentCommand);
         }
     }
 
@@ -85,6 +105,84 @@ public abstract class SubsystemBase {
         return name;
     }
 
+    /**
+     * Get the scheduling priority of this subsystem's periodic() method.
+     *
+     * @return Priority
+     */
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Set the scheduling priority of this subsystem's periodic() method.
+     * Must be called before the subsystem is registered with the scheduler.
+     *
+     * @param priority Priority
+     */
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Declare data this subsystem's periodic() produces, e.g. a sensor read.
+     * Must be called before the subsystem is registered with the scheduler.
+     */
+    protected void addProduces(DataKey... keys) {
+        producesMask |= DataKey.maskOf(keys);
+    }
+
+    /**
+     * Declare data this subsystem's periodic() reads.
+     * Must be called before the subsystem is registered with the scheduler.
+     */
+    protected void addConsumes(DataKey... keys) {
+        consumesMask |= DataKey.maskOf(keys);
+    }
+
+    /**
+     * @return {@link DataKey} mask of data produced by periodic()
+     */
+    public long getProducesMask() {
+        return producesMask;
+    }
+
+    /**
+     * @return {@link DataKey} mask of data read by periodic()
+     */
+    public long getConsumesMask() {
+        return consumesMask;
+    }
+
+    /**
+     * Get the slot the command scheduler uses to index this subsystem.
+     *
+     * @return Scheduler slot, or -1 if not yet known to the scheduler
+     */
+    public int getSchedulerSlot() {
+        return schedulerSlot;
+    }
+
+    /**
+     * Set the slot the command scheduler uses to index this subsystem.
+     * Only called by the command scheduler.
+     *
+     * @param slot Scheduler slot
+     */
+    public void setSchedulerSlot(int slot) {
+        this.schedulerSlot = slot;
+    }
+
+    /**
+     * Get how often periodic() runs: every tick for 1, every other tick for 2
+     * and so on. Read once when the subsystem is registered.
+     *
+     * @return Tick divisor
+     */
+    public int getPeriodicDivisor() {
+        return 1;
+    }
+
     /**
      * Register periodic callbacks for this subsystem.
      * Override this method to register any periodic callbacks needed.
@@ -92,6 +190,48 @@ public abstract class SubsystemBase {
     public void register() {
     }
 
+    /**
+     * Run a task every {@code divisor} scheduler ticks. Call from {@link #register()}.
+     *
+     * @param divisor Run every this many ticks
+     * @param task    Task to run
+     */
+    protected void addPeriodicTask(int divisor, Consumer<TelemetryPacket> task) {
+        CommandScheduler.getInstance().addPeriodicTask(this, divisor, task);
+    }
+
+    /**
+     * Run a task at roughly the given rate. Call from {@link #register()}.
+     *
+     * @param rateHz Target rate in Hz
+     * @param task   Task to run
+     */
+    protected void addPeriodicTaskAtRate(double rateHz, Consumer<TelemetryPacket> task) {
+        addPeriodicTask(CommandScheduler.divisorForRate(rateHz), task);
+    }
+
+    /**
+     * Run a task every tick after commands have executed, before outputs are
+     * flushed. Call from {@link #register()}.
+     *
+     * @param task Task to run
+     */
+    protected void addPostCommandTask(Consumer<TelemetryPacket> task) {
+        CommandScheduler.getInstance().addPostCommandTask(this, task);
+    }
+
+    /**
+     * Run a task at roughly the given rate with its own priority, e.g. a
+     * DEFERRABLE telemetry task. Call from {@link #register()}.
+     *
+     * @param rateHz   Target rate in Hz
+     * @param task     Task to run
+     * @param priority Scheduling priority of the task
+     */
+    protected void addPeriodicTaskAtRate(double rateHz, Consumer<TelemetryPacket> task, Priority priority) {
+        CommandScheduler.getInstance().addPeriodicTask(this, CommandScheduler.divisorForRate(rateHz), task, priority);
+    }
+
     /**
      * Stop all hardware devices and cleanup subsystem state.
      * Called when OpMode is stopping to ensure safe shutdown.
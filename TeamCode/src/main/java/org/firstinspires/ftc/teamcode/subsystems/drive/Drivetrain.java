@@ -10,6 +10,10 @@ import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
 import org.firstinspires.ftc.teamcode.utils.control.ExpansionHub;
 import org.firstinspires.ftc.teamcode.utils.hardware.Localizer;
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.MotorIO;
 import org.firstinspires.ftc.teamcode.utils.math.curvePoint;
 import org.opencv.core.Point;
 
@@ -17,7 +21,7 @@ import java.util.ArrayList;
 
 public class Drivetrain extends SubsystemBase {
     private static double currX, currY, currTheta;
-    private DcMotor frontLeftMotor, backLeftMotor, frontRightMotor, backRightMotor;
+    private MotorIO frontLeftMotor, backLeftMotor, frontRightMotor, backRightMotor;
 
     public Drivetrain() {
         super("drivetrain");
@@ -25,10 +29,10 @@ public class Drivetrain extends SubsystemBase {
 
     @Override
     public void initialize(HardwareMap hardwareMap) {
-        frontLeftMotor = hardwareMap.get(DcMotor.class, ControlHub.motor(2));
-        backLeftMotor = hardwareMap.get(DcMotor.class, ControlHub.motor(3));
-        frontRightMotor = hardwareMap.get(DcMotor.class, ExpansionHub.motor(1));
-        backRightMotor = hardwareMap.get(DcMotor.class, ControlHub.motor(0));
+        DcMotor frontLeftMotor = hardwareMap.get(DcMotor.class, ControlHub.motor(2));
+        DcMotor backLeftMotor = hardwareMap.get(DcMotor.class, ControlHub.motor(3));
+        DcMotor frontRightMotor = hardwareMap.get(DcMotor.class, ExpansionHub.motor(1));
+        DcMotor backRightMotor = hardwareMap.get(DcMotor.class, ControlHub.motor(0));
 
         frontRightMotor.setDirection(DcMotor.Direction.FORWARD);
         backRightMotor.setDirection(DcMotor.Direction.FORWARD);
@@ -39,6 +43,24 @@ public class Drivetrain extends SubsystemBase {
         backLeftMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         frontRightMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         backRightMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+
+        TransactionAccounting accounting = TransactionAccounting.getInstance();
+        IO io = new IO();
+        io.frontLeft = accounting.motor(new FtcMotorIO(frontLeftMotor, ControlHub.NAME), name);
+        io.backLeft = accounting.motor(new FtcMotorIO(backLeftMotor, ControlHub.NAME), name);
+        io.frontRight = accounting.motor(new FtcMotorIO(frontRightMotor, ExpansionHub.NAME), name);
+        io.backRight = accounting.motor(new FtcMotorIO(backRightMotor, ControlHub.NAME), name);
+        initialize(io);
+    }
+
+    /**
+     * Initialize against any hardware, e.g. {@link IO#inMemory()} off the robot.
+     */
+    public void initialize(IO io) {
+        frontLeftMotor = io.frontLeft;
+        backLeftMotor = io.backLeft;
+        frontRightMotor = io.frontRight;
+        backRightMotor = io.backRight;
     }
 
     @Override
@@ -241,4 +263,23 @@ public class Drivetrain extends SubsystemBase {
         // backLeftMotor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
         // backRightMotor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
     }
+
+    /**
+     * Hardware of the drivetrain.
+     */
+    public static class IO {
+        public MotorIO frontLeft, backLeft, frontRight, backRight;
+
+        /**
+         * @return Hardware without a robot, for benchmarks and simulations
+         */
+        public static IO inMemory() {
+            IO io = new IO();
+            io.frontLeft = new InMemoryMotorIO();
+            io.backLeft = new InMemoryMotorIO();
+            io.frontRight = new InMemoryMotorIO();
+            io.backRight = new InMemoryMotorIO();
+            return io;
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.subsystems.drive;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
+import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
+import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+
+/**
+ * Updates the MecanumDrive pose estimate once per tick, before any command
+ * that consumes {@link DataKey#POSE} runs. Commands can keep calling
+ * updatePoseEstimate(); within the tick it returns the velocity read here.
+ */
+public class PoseEstimator extends SubsystemBase {
+    private final MecanumDrive drive;
+
+    public PoseEstimator(MecanumDrive drive) {
+        super("poseEstimator");
+        this.drive = drive;
+        priority = Priority.CONTROL_CRITICAL;
+        addProduces(DataKey.POSE);
+    }
+
+    @Override
+    public void initialize(HardwareMap hardwareMap) {
+        // MecanumDrive sets up its own hardware
+    }
+
+    @Override
+    public void periodic(TelemetryPacket packet) {
+        drive.updatePoseEstimate();
+        super.periodic(packet);
+    }
+
+    @Override
+    public void stop() {
+    }
+}
@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.subsystems.slides;
 
+import static org.firstinspires.ftc.teamcode.utils.TelemetryPacket.isPublishing;
 import static org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.LowerSlideVars;
 
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
@@ -8,10 +9,26 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.PwmControl;
 import com.qualcomm.robotcore.hardware.ServoImplEx;
 
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
 import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
 import org.firstinspires.ftc.teamcode.utils.PIDFController;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
 import org.firstinspires.ftc.teamcode.utils.control.ExpansionHub;
+import org.firstinspires.ftc.teamcode.utils.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
+import org.firstinspires.ftc.teamcode.utils.hardware.VoltageMonitor;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.EncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcEncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcServoIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryEncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryServoIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.MotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.ServoIO;
 
 public class LowerSlide extends SubsystemBase {
     // Constants for encoder calculations
@@ -29,12 +46,32 @@ public class LowerSlide extends SubsystemBase {
     public DcMotor slideMotor;
     public int tickOffset = 0;
     // Hardware components
-    private ServoImplEx part1, part2, spinclaw, claw;
+    private IO io;
+    private OutputStage.Output slidePower, part1Position, part2Position, spinclawPosition, clawPosition;
     private boolean PIDEnabled = true;
     private double cachedPosition = 0.1;
 
+    // Telemetry channels
+    private final TelemetryChannels.DoubleChannel positionChannel =
+            TelemetryChannels.getInstance().doubleChannel("lowerslide/position");
+    private final TelemetryChannels.DoubleChannel targetChannel =
+            TelemetryChannels.getInstance().doubleChannel("lowerslide/target");
+    private final TelemetryChannels.DoubleChannel errorChannel =
+            TelemetryChannels.getInstance().doubleChannel("lowerslide/error");
+    private final TelemetryChannels.DoubleChannel part1Channel =
+            TelemetryChannels.getInstance().doubleChannel("lowerslide/part1");
+    private final TelemetryChannels.DoubleChannel part2Channel =
+            TelemetryChannels.getInstance().doubleChannel("lowerslide/part2");
+    private final TelemetryChannels.DoubleChannel spinclawChannel =
+            TelemetryChannels.getInstance().doubleChannel("lowerslide/spinclaw");
+    private final TelemetryChannels.DoubleChannel clawChannel =
+            TelemetryChannels.getInstance().doubleChannel("lowerslide/claw");
+
     public LowerSlide() {
         super("lowerslide");
+        // Slide position is refreshed in periodic(), ahead of normal work
+        priority = Priority.CONTROL_CRITICAL;
+        addProduces(DataKey.LOWER_SLIDE_POSITION);
         pidfController = new PIDFController(
                 LowerSlideVars.PID_KP,
                 LowerSlideVars.PID_KI,
@@ -53,10 +90,10 @@ public class LowerSlide extends SubsystemBase {
         slideMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
 
         // Initialize servos
-        part2 = hardwareMap.get(ServoImplEx.class, ControlHub.servo(0));
-        claw = hardwareMap.get(ServoImplEx.class, ExpansionHub.servo(0));
-        spinclaw = hardwareMap.get(ServoImplEx.class, ExpansionHub.servo(2));
-        part1 = hardwareMap.get(ServoImplEx.class, ExpansionHub.servo(3));
+        ServoImplEx part2 = hardwareMap.get(ServoImplEx.class, ControlHub.servo(0));
+        ServoImplEx claw = hardwareMap.get(ServoImplEx.class, ExpansionHub.servo(0));
+        ServoImplEx spinclaw = hardwareMap.get(ServoImplEx.class, ExpansionHub.servo(2));
+        ServoImplEx part1 = hardwareMap.get(ServoImplEx.class, ExpansionHub.servo(3));
 
         // Configure servo directions
         part1.setDirection(ServoImplEx.Direction.FORWARD);
@@ -67,31 +104,69 @@ public class LowerSlide extends SubsystemBase {
         part2.setPwmRange(servoRange);
         spinclaw.setPwmRange(servoRange);
         claw.setPwmRange(clawRange);
+
+        TransactionAccounting accounting = TransactionAccounting.getInstance();
+        IO io = new IO();
+        io.slide = accounting.motor(new FtcMotorIO(slideMotor, ExpansionHub.NAME), name);
+        io.slideEncoder = accounting.encoder(new FtcEncoderIO(slideMotor, ExpansionHub.NAME), name);
+        io.part1 = accounting.servo(new FtcServoIO(part1, ExpansionHub.NAME), name);
+        io.part2 = accounting.servo(new FtcServoIO(part2, ControlHub.NAME), name);
+        io.spinclaw = accounting.servo(new FtcServoIO(spinclaw, ExpansionHub.NAME), name);
+        io.claw = accounting.servo(new FtcServoIO(claw, ExpansionHub.NAME), name);
+        initialize(io);
     }
 
-    public void low(double val) {
-        slideMotor.setTargetPosition((int) val);
-        slideMotor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+    /**
+     * Initialize against any hardware, e.g. {@link IO#inMemory()} off the robot.
+     */
+    public void initialize(IO io) {
+        this.io = io;
+        OutputStage outputs = OutputStage.getInstance();
+        slidePower = outputs.motor(io.slide);
+        part1Position = outputs.servo(io.part1);
+        part2Position = outputs.servo(io.part2);
+        spinclawPosition = outputs.servo(io.spinclaw);
+        clawPosition = outputs.servo(io.claw);
     }
 
     public void keepPosExceptArms(double pos) {
-        part1.setPosition(pos);
-        part2.setPosition(pos);
+        part1Position.set(pos);
+        part2Position.set(pos);
     }
 
     @Override
     public void periodic(TelemetryPacket packet) {
         cachedPosition = 0.1;
+    }
+
+    @Override
+    public void register() {
+        // The only place the slide PID runs; commands just move the setpoint,
+        // and the PID acts on it in the same tick
+        addPostCommandTask(packet -> updatePID());
+        addPeriodicTaskAtRate(ConfigVariables.General.SUBSYSTEM_TELEMETRY_HZ, this::updateTelemetry,
+                Priority.DEFERRABLE);
+    }
+
+    /**
+     * Publish slide and servo state, at a reduced rate
+     */
+    public void updateTelemetry(TelemetryPacket packet) {
+        if (!isPublishing(packet)) {
+            return;
+        }
+
         // Add slide positions to telemetry
-        packet.put("lowerslide/position", getCurrentPosition());
-        packet.put("lowerslide/target", pidfController.destination);
-        packet.put("lowerslide/error", getCurrentPosition() - pidfController.destination);
+        double position = getCurrentPosition();
+        positionChannel.set(position);
+        targetChannel.set(pidfController.destination);
+        errorChannel.set(position - pidfController.destination);
 
         // Add servo positions to telemetry
-        packet.put("lowerslide/part1", part1.getPosition());
-        packet.put("lowerslide/part2", part2.getPosition());
-        packet.put("lowerslide/spinclaw", spinclaw.getPosition());
-        packet.put("lowerslide/claw", claw.getPosition());
+        part1Channel.set(io.part1.getPosition());
+        part2Channel.set(io.part2.getPosition());
+        spinclawChannel.set(io.spinclaw.getPosition());
+        clawChannel.set(io.claw.getPosition());
     }
 
     /**
@@ -105,7 +180,7 @@ public class LowerSlide extends SubsystemBase {
      * Set the slide motor power directly
      */
     public void setSlidePower(double power) {
-        slideMotor.setPower(power);
+        slidePower.set(power);
     }
 
     /**
@@ -119,21 +194,21 @@ public class LowerSlide extends SubsystemBase {
      * Set part1 servo position
      */
     public void setPart1Position(double position) {
-        part1.setPosition(position);
+        part1Position.set(position);
     }
 
     /**
      * Set part2 servo position
      */
     public void setPart2Position(double position) {
-        part2.setPosition(position);
+        part2Position.set(position);
     }
 
     /**
      * Set spinclaw position in degrees (0-270)
      */
     public void spinclawSetPositionDeg(double degree) {
-        spinclaw.setPosition(degree / 270);
+        spinclawPosition.set(degree / 270);
     }
 
     // Preset positions for grabbing action
@@ -172,20 +247,23 @@ public class LowerSlide extends SubsystemBase {
 
     // Claw controls
     public void closeClaw() {
-        claw.setPosition(LowerSlideVars.CLAW_CLOSE);
+        clawPosition.set(LowerSlideVars.CLAW_CLOSE);
     }
 
     public void openClaw() {
-        claw.setPosition(LowerSlideVars.CLAW_OPEN);
+        clawPosition.set(LowerSlideVars.CLAW_OPEN);
     }
 
     /**
-     * Update PID control and return the calculated power
+     * Update PID control and return the calculated power.
+     * Runs once per tick after the commands; commands should change the
+     * destination instead of calling this.
      */
     public double updatePID() {
         if (!PIDEnabled) return 0;
+        pidfController.setFeedforwardScale(VoltageMonitor.getInstance().getFeedforwardScale());
         double power = pidfController.calculate(getCurrentPosition());
-        slideMotor.setPower(power);
+        slidePower.set(power);
         return power;
     }
 
@@ -196,7 +274,7 @@ public class LowerSlide extends SubsystemBase {
     @Override
     public void stop() {
         // Stop slide motor
-        slideMotor.setPower(0);
+        slidePower.set(0);
 
         // Move servos to safe positions
         setPart1Position(LowerSlideVars.UP_BIG);
@@ -209,7 +287,7 @@ public class LowerSlide extends SubsystemBase {
      */
     public int getCurrentPosition() {
         if (Math.abs(cachedPosition - (int) cachedPosition) > 1e-6) {
-            cachedPosition = slideMotor.getCurrentPosition() + tickOffset;
+            cachedPosition = io.slideEncoder.getPosition() + tickOffset;
         }
         return (int) cachedPosition;
     }
@@ -217,4 +295,27 @@ public class LowerSlide extends SubsystemBase {
     public double getCurrentPositionCM() {
         return getCurrentPosition() / COUNTS_PER_CM;
     }
+
+    /**
+     * Hardware of the lower slide.
+     */
+    public static class IO {
+        public MotorIO slide;
+        public EncoderIO slideEncoder;
+        public ServoIO part1, part2, spinclaw, claw;
+
+        /**
+         * @return Hardware without a robot, for benchmarks and simulations
+         */
+        public static IO inMemory() {
+            IO io = new IO();
+            io.slide = new InMemoryMotorIO();
+            io.slideEncoder = new InMemoryEncoderIO();
+            io.part1 = new InMemoryServoIO();
+            io.part2 = new InMemoryServoIO();
+            io.spinclaw = new InMemoryServoIO();
+            io.claw = new InMemoryServoIO();
+            return io;
+        }
+    }
 }
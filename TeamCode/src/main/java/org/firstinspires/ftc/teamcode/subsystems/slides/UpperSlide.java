@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.subsystems.slides;
 
+import static org.firstinspires.ftc.teamcode.utils.TelemetryPacket.isPublishing;
 import static org.firstinspires.ftc.teamcode.utils.control.ConfigVariables.UpperSlideVars;
 
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
@@ -10,10 +11,26 @@ import com.qualcomm.robotcore.hardware.PwmControl;
 import com.qualcomm.robotcore.hardware.ServoImplEx;
 
 import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.commands.base.DataKey;
+import org.firstinspires.ftc.teamcode.commands.base.Priority;
 import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
 import org.firstinspires.ftc.teamcode.utils.PIDFController;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
 import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
 import org.firstinspires.ftc.teamcode.utils.control.ExpansionHub;
+import org.firstinspires.ftc.teamcode.utils.hardware.OutputStage;
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
+import org.firstinspires.ftc.teamcode.utils.hardware.VoltageMonitor;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.EncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcEncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcServoIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryEncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.InMemoryServoIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.MotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.ServoIO;
 
 public class UpperSlide extends SubsystemBase {
     // Constants for encoder calculations
@@ -40,9 +57,39 @@ public class UpperSlide extends SubsystemBase {
     PwmControl.PwmRange v4range = new PwmControl.PwmRange(500, 2500);
     private double cachedPosition = 0.1; // float if not updated
     private DcMotorEx slide1, slide2;
+    private IO io;
+    private OutputStage.Output slide1Power, slide2Power;
+    private OutputStage.Output arm1Position, arm2Position, swingPosition, clawPosition, extendoPosition;
+
+    // Telemetry channels
+    private final TelemetryChannels.DoubleChannel position1Channel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/position1");
+    private final TelemetryChannels.DoubleChannel position2Channel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/position2");
+    private final TelemetryChannels.DoubleChannel targetChannel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/target");
+    private final TelemetryChannels.DoubleChannel errorChannel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/error");
+    private final TelemetryChannels.DoubleChannel arm1Channel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/arm1");
+    private final TelemetryChannels.DoubleChannel arm2Channel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/arm2");
+    private final TelemetryChannels.DoubleChannel swingChannel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/swing");
+    private final TelemetryChannels.DoubleChannel clawChannel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/claw");
+    private final TelemetryChannels.DoubleChannel extendoChannel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/extendo");
+    private final TelemetryChannels.DoubleChannel current1Channel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/current1");
+    private final TelemetryChannels.DoubleChannel current2Channel =
+            TelemetryChannels.getInstance().doubleChannel("upperslide/current2");
 
     public UpperSlide() {
         super("upperslide");
+        // Slide position is refreshed in periodic(), ahead of normal work
+        priority = Priority.CONTROL_CRITICAL;
+        addProduces(DataKey.UPPER_SLIDE_POSITION);
         pidfController = new PIDFController(
                 UpperSlideVars.PID_KP,
                 UpperSlideVars.PID_KI,
@@ -88,28 +135,75 @@ public class UpperSlide extends SubsystemBase {
         // set current alarm
         slide1.setCurrentAlert(6.0, CurrentUnit.AMPS);
         slide2.setCurrentAlert(6.0, CurrentUnit.AMPS);
+
+        TransactionAccounting accounting = TransactionAccounting.getInstance();
+        IO io = new IO();
+        io.slide1 = accounting.motor(new FtcMotorIO(slide1, ExpansionHub.NAME), name);
+        io.slide2 = accounting.motor(new FtcMotorIO(slide2, ExpansionHub.NAME), name);
+        io.slide1Encoder = accounting.encoder(new FtcEncoderIO(slide1, ExpansionHub.NAME), name);
+        io.slide2Encoder = accounting.encoder(new FtcEncoderIO(slide2, ExpansionHub.NAME), name);
+        io.arm1 = accounting.servo(new FtcServoIO(arm1, ControlHub.NAME), name);
+        io.arm2 = accounting.servo(new FtcServoIO(arm2, ExpansionHub.NAME), name);
+        io.swing = accounting.servo(new FtcServoIO(swing, ControlHub.NAME), name);
+        io.claw = accounting.servo(new FtcServoIO(claw, ControlHub.NAME), name);
+        io.extendo = accounting.servo(new FtcServoIO(extendo, ControlHub.NAME), name);
+        initialize(io);
+    }
+
+    /**
+     * Initialize against any hardware, e.g. {@link IO#inMemory()} off the robot.
+     */
+    public void initialize(IO io) {
+        this.io = io;
+        OutputStage outputs = OutputStage.getInstance();
+        slide1Power = outputs.motor(io.slide1);
+        slide2Power = outputs.motor(io.slide2);
+        arm1Position = outputs.servo(io.arm1);
+        arm2Position = outputs.servo(io.arm2);
+        swingPosition = outputs.servo(io.swing);
+        clawPosition = outputs.servo(io.claw);
+        extendoPosition = outputs.servo(io.extendo);
     }
 
     @Override
     public void periodic(TelemetryPacket packet) {
         cachedPosition = 0.1;
+    }
+
+    @Override
+    public void register() {
+        // The only place the slide PID runs; commands just move the setpoint,
+        // and the PID acts on it in the same tick
+        addPostCommandTask(packet -> updatePID());
+        addPeriodicTaskAtRate(ConfigVariables.General.SUBSYSTEM_TELEMETRY_HZ, this::updateTelemetry,
+                Priority.DEFERRABLE);
+    }
+
+    /**
+     * Publish slide, servo and current state, at a reduced rate
+     */
+    public void updateTelemetry(TelemetryPacket packet) {
+        if (!isPublishing(packet)) {
+            return;
+        }
 
         // Add slide positions to telemetry
-        packet.put("upperslide/position1", getCurrentPosition() + tickOffset);
-        packet.put("upperslide/position2", slide2.getCurrentPosition() + tickOffset);
-        packet.put("upperslide/target", pidfController.destination);
-        packet.put("upperslide/error", getCurrentPosition() - pidfController.destination);
+        double position = getCurrentPosition();
+        position1Channel.set(position + tickOffset);
+        position2Channel.set(io.slide2Encoder.getPosition() + tickOffset);
+        targetChannel.set(pidfController.destination);
+        errorChannel.set(position - pidfController.destination);
 
         // Add servo positions to telemetry
-        packet.put("upperslide/arm1", arm1.getPosition());
-        packet.put("upperslide/arm2", arm2.getPosition());
-        packet.put("upperslide/swing", swing.getPosition());
-        packet.put("upperslide/claw", claw.getPosition());
-        packet.put("upperslide/extendo", extendo.getPosition());
+        arm1Channel.set(io.arm1.getPosition());
+        arm2Channel.set(io.arm2.getPosition());
+        swingChannel.set(io.swing.getPosition());
+        clawChannel.set(io.claw.getPosition());
+        extendoChannel.set(io.extendo.getPosition());
 
         // current
-        packet.put("upperslide/current1", slide1.getCurrent(CurrentUnit.AMPS));
-        packet.put("upperslide/current2", slide2.getCurrent(CurrentUnit.AMPS));
+        current1Channel.set(io.slide1.getCurrent());
+        current2Channel.set(io.slide2.getCurrent());
     }
 
     /**
@@ -143,12 +237,12 @@ public class UpperSlide extends SubsystemBase {
 
     // Arm position controls
     public void setArmPosition(double position) {
-        arm1.setPosition(position);
-        arm2.setPosition(position);
+        arm1Position.set(position);
+        arm2Position.set(position);
     }
 
     public void setSwingPosition(double position) {
-        swing.setPosition(position);
+        swingPosition.set(position);
     }
 
     // Preset arm positions
@@ -179,51 +273,54 @@ public class UpperSlide extends SubsystemBase {
 
 
     public void keepPosExceptArms(double pos) {
-        arm1.setPosition(0);
-        arm2.setPosition(0);
-        swing.setPosition(0);
+        arm1Position.set(0);
+        arm2Position.set(0);
+        swingPosition.set(0);
     }
 
     public double addArmPos(double pos) {
-        double armPos = arm1.getPosition();
+        double armPos = arm1Position.get();
         armPos += pos;
         armPos = Math.min(1, Math.max(0, armPos));
-        arm1.setPosition(armPos);
-        arm2.setPosition(armPos);
+        arm1Position.set(armPos);
+        arm2Position.set(armPos);
         return armPos;
     }
 
     public double addSwingPos(double pos) {
-        double swingPos = swing.getPosition();
+        double swingPos = swingPosition.get();
         swingPos += pos;
         swingPos = Math.min(1, Math.max(0, swingPos));
-        swing.setPosition(swingPos);
+        swingPosition.set(swingPos);
         return swingPos;
     }
 
     // Claw controls
     public void openClaw() {
-        claw.setPosition(UpperSlideVars.CLAW_OPEN);
+        clawPosition.set(UpperSlideVars.CLAW_OPEN);
     }
 
     public void closeClaw() {
-        claw.setPosition(UpperSlideVars.CLAW_CLOSE);
+        clawPosition.set(UpperSlideVars.CLAW_CLOSE);
     }
 
     // Exentdo controls
     public void openExtendoClaw() {
-        extendo.setPosition(UpperSlideVars.EXTENDO_OPEN);
+        extendoPosition.set(UpperSlideVars.EXTENDO_OPEN);
     }
 
     public void closeExtendoClaw() {
-        extendo.setPosition(UpperSlideVars.EXTENDO_CLOSE);
+        extendoPosition.set(UpperSlideVars.EXTENDO_CLOSE);
     }
 
     /**
-     * Update PID control and return the calculated power
+     * Update PID control and return the calculated power.
+     * Runs once per tick after the commands; commands should change the
+     * destination instead of calling this.
      */
     public double updatePID() {
         double currentPosition = getCurrentPosition();
+        pidfController.setFeedforwardScale(VoltageMonitor.getInstance().getFeedforwardScale());
         double power = pidfController.calculate(currentPosition) * 1;
 
 //        if (pidfController.destination == 0) {
@@ -237,16 +334,16 @@ public class UpperSlide extends SubsystemBase {
 //            }
 //        }
 
-        slide1.setPower(power);
-        slide2.setPower(power);
+        slide1Power.set(power);
+        slide2Power.set(power);
         return power;
     }
 
     @Override
     public void stop() {
         // Stop slide motors
-        slide1.setPower(0);
-        slide2.setPower(0);
+        slide1Power.set(0);
+        slide2Power.set(0);
 
         // Disable PIDF control by setting destination to current position
         pidfController.setDestination(getCurrentPosition());
@@ -260,8 +357,34 @@ public class UpperSlide extends SubsystemBase {
      */
     public int getCurrentPosition() {
         if (Math.abs(cachedPosition - (int) cachedPosition) > 1e-6) {
-            cachedPosition = slide1.getCurrentPosition() + tickOffset;
+            cachedPosition = io.slide1Encoder.getPosition() + tickOffset;
         }
         return (int) cachedPosition;
     }
+
+    /**
+     * Hardware of the upper slide.
+     */
+    public static class IO {
+        public MotorIO slide1, slide2;
+        public EncoderIO slide1Encoder, slide2Encoder;
+        public ServoIO arm1, arm2, swing, claw, extendo;
+
+        /**
+         * @return Hardware without a robot, for benchmarks and simulations
+         */
+        public static IO inMemory() {
+            IO io = new IO();
+            io.slide1 = new InMemoryMotorIO();
+            io.slide2 = new InMemoryMotorIO();
+            io.slide1Encoder = new InMemoryEncoderIO();
+            io.slide2Encoder = new InMemoryEncoderIO();
+            io.arm1 = new InMemoryServoIO();
+            io.arm2 = new InMemoryServoIO();
+            io.swing = new InMemoryServoIO();
+            io.claw = new InMemoryServoIO();
+            io.extendo = new InMemoryServoIO();
+            return io;
+        }
+    }
 }
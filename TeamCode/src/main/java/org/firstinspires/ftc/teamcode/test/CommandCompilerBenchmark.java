@@ -0,0 +1,178 @@
+package org.firstinspires.ftc.teamcode.test;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.commands.base.Command;
+import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
+import org.firstinspires.ftc.teamcode.commands.base.CompiledCommand;
+import org.firstinspires.ftc.teamcode.commands.base.ConditionalCommand;
+import org.firstinspires.ftc.teamcode.commands.base.ParallelCommandGroup;
+import org.firstinspires.ftc.teamcode.commands.base.SequentialCommandGroup;
+import org.firstinspires.ftc.teamcode.commands.base.WaitCommand;
+import org.firstinspires.ftc.teamcode.commands.base.WaitForConditionCommand;
+import org.firstinspires.ftc.teamcode.utils.TelemetryPacket;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+import org.firstinspires.ftc.teamcode.utils.timing.VirtualClock;
+
+import java.util.function.Supplier;
+
+/**
+ * Compares running the teleop command sequences as nested command groups
+ * with running them compiled into a CompiledCommand.
+ * The sequences have the same structure and delays as the ones bound in Swerve,
+ * but their leaves are stand-ins that finish after a few ticks, so no hardware
+ * is touched. A virtual clock advances one loop period per tick.
+ */
+@TeleOp(group = "Test")
+public class CommandCompilerBenchmark extends LinearOpMode {
+    private static final int RUNS = 200;
+    private static final int MAX_TICKS = 100000;
+
+    private static long runStart; // ns, virtual time the current run started
+
+    @Override
+    public void runOpMode() throws InterruptedException {
+        Telemetry dashboardTelemetry = FtcDashboard.getInstance().getTelemetry();
+        telemetry.addLine("Press start to run the command compiler benchmark");
+        telemetry.update();
+        waitForStart();
+
+        VirtualClock clock = new VirtualClock();
+        Clocks.set(clock);
+        try {
+            benchmark("distance adjust", CommandCompilerBenchmark::distanceAdjust, clock, dashboardTelemetry);
+            benchmark("grab + transfer", CommandCompilerBenchmark::grabAndTransfer, clock, dashboardTelemetry);
+            benchmark("upper score", CommandCompilerBenchmark::upperScore, clock, dashboardTelemetry);
+        } finally {
+            Clocks.reset();
+        }
+
+        while (opModeIsActive()) {
+            idle();
+        }
+    }
+
+    private void benchmark(String name, Supplier<Command> sequence, VirtualClock clock, Telemetry dashboardTelemetry) {
+        if (!opModeIsActive()) {
+            return;
+        }
+        Command nested = sequence.get();
+        CompiledCommand compiled = CompiledCommand.compile(sequence.get());
+
+        // Warm up both paths before measuring
+        measure(nested, clock);
+        measure(compiled, clock);
+        double nestedNs = measure(nested, clock);
+        double flatNs = measure(compiled, clock);
+
+        String result = String.format("nested %.0f ns/tick, flat %.0f ns/tick, %d instructions",
+                nestedNs, flatNs, compiled.size());
+        telemetry.addData(name, result);
+        dashboardTelemetry.addData(name, result);
+        telemetry.update();
+        dashboardTelemetry.update();
+    }
+
+    /**
+     * Run a command to completion RUNS times and return the average cost of
+     * one execute() call.
+     */
+    private static double measure(Command command, VirtualClock clock) {
+        // Telemetry puts are no-ops unless DEBUG_MODE is on, so this isolates command cost
+        TelemetryPacket packet = new TelemetryPacket(false);
+        long period = (long) (1e9 / ConfigVariables.General.NOMINAL_LOOP_HZ);
+        long elapsed = 0;
+        long ticks = 0;
+        for (int run = 0; run < RUNS; run++) {
+            runStart = clock.nanoTime();
+            command.initialize();
+            for (int i = 0; i < MAX_TICKS && !command.isFinished(); i++) {
+                long start = System.nanoTime();
+                command.execute(packet);
+                elapsed += System.nanoTime() - start;
+                ticks++;
+                clock.advance(period);
+            }
+            command.end(false);
+        }
+        return elapsed / (double) ticks;
+    }
+
+    // Y press: wait for the driver to let go, then update the detector and line up
+    private static Command distanceAdjust() {
+        return new WaitForConditionCommand(
+                () -> Clocks.get().nanoTime() - runStart >= ConfigVariables.Camera.CAMERA_DELAY * 1e9, 3000,
+                new SequentialCommandGroup(new Step(1), new Step(60)));
+    }
+
+    // Right trigger: LowerSlideGrabSequenceCommand, then transfer if a sample was caught
+    private static Command grabAndTransfer() {
+        return new SequentialCommandGroup(
+                new SequentialCommandGroup(
+                        new Step(1), new Step(1), new Step(1),
+                        new WaitCommand(ConfigVariables.LowerSlideVars.POS_GRAB_TIMEOUT / 1000.0),
+                        new Step(1),
+                        new WaitCommand(ConfigVariables.LowerSlideVars.CLAW_CLOSE_TIMEOUT / 1000.0),
+                        new Step(1)),
+                new WaitCommand((double) ConfigVariables.LowerSlideVars.POS_HOVER_TIMEOUT / 1000),
+                new ConditionalCommand(() -> true, transfer()));
+    }
+
+    // LowerUpperTransferSequenceCommand
+    private static Command transfer() {
+        return new SequentialCommandGroup(
+                new Step(1), new Step(40), new Step(1),
+                new ParallelCommandGroup(new Step(1), new Step(1)),
+                new WaitCommand(ConfigVariables.AutoTesting.E_LOWSLIDEUPAFTERDELAY_S),
+                new ConditionalCommand(() -> false, new Step(40)),
+                new ConditionalCommand(() -> false, new WaitCommand(0.3)),
+                new Step(1),
+                new WaitCommand(ConfigVariables.AutoTesting.F_TRANSFERAFTERDELAY_S),
+                new Step(1),
+                new WaitCommand(ConfigVariables.AutoTesting.G_LOWSLIDETRANSFEROPENCLAWAFTERDELAY_S),
+                new Step(1));
+    }
+
+    // UpperSlideScoreCommand
+    private static Command upperScore() {
+        return new SequentialCommandGroup(
+                new Step(1), new Step(40),
+                new WaitCommand(ConfigVariables.UpperSlideVars.SLIDEPOS3_DELAY),
+                new Step(1), new Step(1),
+                new WaitCommand(ConfigVariables.UpperSlideVars.FRONT_DELAY),
+                new Step(1),
+                new WaitCommand(ConfigVariables.General.CLAW_OPERATION_TIMEOUT / 1000.0),
+                new Step(1), new Step(1));
+    }
+
+    /**
+     * Stand-in for an action that finishes after a fixed number of ticks.
+     */
+    private static class Step extends CommandBase {
+        private final int ticks;
+        private int remaining;
+
+        Step(int ticks) {
+            this.ticks = ticks;
+        }
+
+        @Override
+        public void initialize() {
+            remaining = ticks;
+        }
+
+        @Override
+        public void execute(com.acmerobotics.dashboard.telemetry.TelemetryPacket packet) {
+            remaining--;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return remaining <= 0;
+        }
+    }
+}
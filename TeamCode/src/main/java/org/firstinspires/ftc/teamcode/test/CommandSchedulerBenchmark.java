@@ -0,0 +1,256 @@
+package org.firstinspires.ftc.teamcode.test;
+
+import android.os.Debug;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.commands.base.Command;
+import org.firstinspires.ftc.teamcode.commands.base.CommandBase;
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.subsystems.base.SubsystemBase;
+import org.firstinspires.ftc.teamcode.utils.TelemetryPacket;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures the cost of one CommandScheduler tick with 5-50 scheduled commands
+ * and compares it with the previous hash-based bookkeeping. Objects allocated
+ * by the loop thread during the measured ticks are counted as well; the dense
+ * scheduler should report 0.
+ * No hardware is touched, so this can run on any robot configuration.
+ */
+@TeleOp(group = "Test")
+public class CommandSchedulerBenchmark extends LinearOpMode {
+    private static final int[] COMMAND_COUNTS = {5, 10, 20, 50};
+    private static final int NUM_SUBSYSTEMS = 4;
+    private static final int WARMUP_TICKS = 2000;
+    private static final int MEASURED_TICKS = 20000;
+
+    @Override
+    public void runOpMode() throws InterruptedException {
+        Telemetry dashboardTelemetry = FtcDashboard.getInstance().getTelemetry();
+        telemetry.addLine("Press start to run the scheduler benchmark");
+        telemetry.update();
+        waitForStart();
+
+        // Telemetry puts are no-ops unless DEBUG_MODE is on, so this isolates scheduler cost
+        TelemetryPacket packet = new TelemetryPacket(false);
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+
+        for (int count : COMMAND_COUNTS) {
+            if (!opModeIsActive()) {
+                break;
+            }
+
+            BenchSubsystem[] subsystems = createSubsystems();
+            BenchCommand[] commands = createCommands(count, subsystems);
+
+            // Dense-table scheduler
+            scheduler.reset();
+            for (BenchSubsystem subsystem : subsystems) {
+                scheduler.registerSubsystem(subsystem);
+            }
+            for (BenchCommand command : commands) {
+                scheduler.schedule(command);
+            }
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                scheduler.run(packet);
+            }
+            startAllocCounting();
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_TICKS; i++) {
+                scheduler.run(packet);
+            }
+            double denseNs = (System.nanoTime() - start) / (double) MEASURED_TICKS;
+            int denseObjects = stopAllocCounting();
+            scheduler.reset();
+
+            // Previous hash-based scheduler
+            LegacyScheduler legacy = new LegacyScheduler();
+            for (BenchSubsystem subsystem : subsystems) {
+                legacy.registerSubsystem(subsystem);
+            }
+            for (BenchCommand command : commands) {
+                legacy.schedule(command);
+            }
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                legacy.run(packet);
+            }
+            startAllocCounting();
+            start = System.nanoTime();
+            for (int i = 0; i < MEASURED_TICKS; i++) {
+                legacy.run(packet);
+            }
+            double legacyNs = (System.nanoTime() - start) / (double) MEASURED_TICKS;
+            int legacyObjects = stopAllocCounting();
+
+            String result = String.format("dense %.0f ns %.2f obj, hash %.0f ns %.2f obj (per tick)",
+                    denseNs, denseObjects / (double) MEASURED_TICKS,
+                    legacyNs, legacyObjects / (double) MEASURED_TICKS);
+            telemetry.addData(count + " commands", result);
+            dashboardTelemetry.addData(count + " commands", result);
+            telemetry.update();
+            dashboardTelemetry.update();
+        }
+
+        while (opModeIsActive()) {
+            idle();
+        }
+    }
+
+    /**
+     * Start counting objects allocated by this thread.
+     */
+    @SuppressWarnings("deprecation")
+    private static void startAllocCounting() {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+    }
+
+    /**
+     * @return Objects allocated by this thread since {@link #startAllocCounting()}
+     */
+    @SuppressWarnings("deprecation")
+    private static int stopAllocCounting() {
+        Debug.stopAllocCounting();
+        return Debug.getThreadAllocCount();
+    }
+
+    private static BenchSubsystem[] createSubsystems() {
+        BenchSubsystem[] subsystems = new BenchSubsystem[NUM_SUBSYSTEMS];
+        for (int i = 0; i < NUM_SUBSYSTEMS; i++) {
+            subsystems[i] = new BenchSubsystem("bench" + i);
+        }
+        return subsystems;
+    }
+
+    /**
+     * The first commands own one subsystem each, the rest have no requirements,
+     * which matches how ActionCommands are used in teleop.
+     */
+    private static BenchCommand[] createCommands(int count, BenchSubsystem[] subsystems) {
+        BenchCommand[] commands = new BenchCommand[count];
+        for (int i = 0; i < count; i++) {
+            commands[i] = new BenchCommand(i < subsystems.length ? subsystems[i] : null);
+        }
+        return commands;
+    }
+
+    private static class BenchSubsystem extends SubsystemBase {
+        BenchSubsystem(String name) {
+            super(name);
+        }
+
+        @Override
+        public void initialize(HardwareMap hardwareMap) {
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    private static class BenchCommand extends CommandBase {
+        private long counter;
+
+        BenchCommand(SubsystemBase requirement) {
+            if (requirement != null) {
+                addRequirement(requirement);
+            }
+        }
+
+        @Override
+        public void execute(com.acmerobotics.dashboard.telemetry.TelemetryPacket packet) {
+            counter++;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public long getTimeout() {
+            return 60000;
+        }
+    }
+
+    /**
+     * Tick loop of the scheduler before it moved to dense tables, kept here as
+     * the baseline for comparison.
+     */
+    private static class LegacyScheduler {
+        private final Set<SubsystemBase> subsystems = new HashSet<>();
+        private final Map<SubsystemBase, Command> requirements = new HashMap<>();
+        private final Set<Command> scheduledCommands = new HashSet<>();
+        private final Map<Command, Long> commandStartTimes = new HashMap<>();
+
+        void registerSubsystem(SubsystemBase subsystem) {
+            subsystems.add(subsystem);
+        }
+
+        void schedule(Command command) {
+            for (SubsystemBase requirement : command.getRequirements()) {
+                requirements.put(requirement, command);
+                requirement.setCurrentCommand(command);
+            }
+            if (scheduledCommands.add(command)) {
+                command.initialize();
+                commandStartTimes.put(command, System.currentTimeMillis());
+            }
+        }
+
+        void run(TelemetryPacket packet) {
+            for (SubsystemBase subsystem : subsystems) {
+                subsystem.periodic(packet);
+                Command defaultCommand = subsystem.getDefaultCommand();
+                if (defaultCommand != null && !requirements.containsKey(subsystem)) {
+                    schedule(defaultCommand);
+                }
+            }
+
+            Iterator<Command> commandIterator = scheduledCommands.iterator();
+            while (commandIterator.hasNext()) {
+                Command command = commandIterator.next();
+
+                long timeout = command.getTimeout();
+                if (timeout > 0) {
+                    long elapsed = System.currentTimeMillis() - commandStartTimes.get(command);
+                    if (elapsed >= timeout) {
+                        command.end(true);
+                        commandIterator.remove();
+                        commandStartTimes.remove(command);
+                        command.getRequirements().forEach(requirement -> {
+                            requirements.remove(requirement);
+                            requirement.setCurrentCommand(null);
+                        });
+                        continue;
+                    }
+                }
+
+                command.execute(packet);
+
+                if (command.isFinished()) {
+                    command.end(false);
+                    commandIterator.remove();
+                    commandStartTimes.remove(command);
+                    command.getRequirements().forEach(requirement -> {
+                        requirements.remove(requirement);
+                        requirement.setCurrentCommand(null);
+                    });
+                }
+            }
+
+            packet.put("CommandScheduler/numSubsystems", subsystems.size());
+            packet.put("CommandScheduler/numScheduledCommands", scheduledCommands.size());
+        }
+    }
+}
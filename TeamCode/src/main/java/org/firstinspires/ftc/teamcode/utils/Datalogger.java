@@ -28,6 +28,8 @@ import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerImpl;
 import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -221,25 +223,27 @@ public class Datalogger
 
     private static class TimestampField extends LoggableField
     {
+        private final Clock clock;
         private long tRef;
         private final DecimalFormat timeFmt = new DecimalFormat("000.000");
 
-        public TimestampField(String name)
+        public TimestampField(String name, Clock clock)
         {
             super(name);
-            tRef = System.currentTimeMillis();
+            this.clock = clock;
+            tRef = clock.nanoTime();
         }
 
         public void resetRef()
         {
-            tRef = System.currentTimeMillis();
+            tRef = clock.nanoTime();
         }
 
         @Override
         public void writeToBuffer(StringBuilder out)
         {
-            long deltaMs = System.currentTimeMillis() - tRef;
-            float delta = deltaMs / 1000f;
+            long deltaNs = clock.nanoTime() - tRef;
+            float delta = (float) (deltaNs / Clock.NANOS_PER_SECOND);
             out.append(timeFmt.format(delta));
         }
     }
@@ -255,6 +259,7 @@ public class Datalogger
         private String filename;
         private LoggableField[] fields;
         private AutoTimestamp autoTimestamp;
+        private Clock clock = Clocks.get();
 
         public Builder setFilename(String filename)
         {
@@ -274,6 +279,12 @@ public class Datalogger
             return this;
         }
 
+        public Builder setClock(Clock clock)
+        {
+            this.clock = clock;
+            return this;
+        }
+
         public Datalogger build()
         {
             if (filename == null) throw new RuntimeException("Filename must not be null!");
@@ -281,11 +292,12 @@ public class Datalogger
             if (fields == null) throw new RuntimeException("Fields must not be null!");
             if (fields.length == 0) throw new RuntimeException("Fields must be non-zero length!");
             if (autoTimestamp == null) throw new RuntimeException("AutoTimestamp must not be null!");
+            if (clock == null) throw new RuntimeException("Clock must not be null!");
 
             if (autoTimestamp == AutoTimestamp.DECIMAL_SECONDS)
             {
                 LoggableField[] tmp = new LoggableField[fields.length+1];
-                tmp[0] = new TimestampField("Timestamp");
+                tmp[0] = new TimestampField("Timestamp", clock);
                 System.arraycopy(fields, 0, tmp, 1, fields.length);
                 fields = tmp;
             }
@@ -2,6 +2,9 @@ package org.firstinspires.ftc.teamcode.utils;
 
 import com.qualcomm.robotcore.hardware.Gamepad;
 
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BooleanSupplier;
@@ -15,10 +18,17 @@ public class GamepadController {
     private final Map<BooleanSupplier, Runnable> releaseCallbacks = new HashMap<>();
     private final Map<BooleanSupplier, Consumer<Double>> whilePressedCallbacks = new HashMap<>();
     private double threshold = DEFAULT_THRESHOLD;
-    private long lastOperationTime = System.currentTimeMillis();
+    private final Clock clock;
+    private long lastOperationTime; // ns
 
     public GamepadController(Gamepad gamepad) {
+        this(gamepad, Clocks.get());
+    }
+
+    public GamepadController(Gamepad gamepad, Clock clock) {
         this.gamepad = gamepad;
+        this.clock = clock;
+        this.lastOperationTime = clock.nanoTime();
     }
 
     public GamepadController setThreshold(double threshold) {
@@ -27,7 +37,7 @@ public class GamepadController {
     }
 
     public long getNoOperationTime() {
-        return System.currentTimeMillis() - lastOperationTime;
+        return (clock.nanoTime() - lastOperationTime) / Clock.NANOS_PER_MILLI;
     }
 
     public GamepadController onPressed(BooleanSupplier buttonSupplier, Runnable callback) {
@@ -67,7 +77,7 @@ public class GamepadController {
             boolean currentState = buttonSupplier.getAsBoolean();
 
             if (!prevState && currentState) {
-                lastOperationTime = System.currentTimeMillis();
+                lastOperationTime = clock.nanoTime();
                 Runnable callback = pressCallbacks.get(buttonSupplier);
                 if (callback != null) {
                     callback.run();
@@ -1,5 +1,8 @@
 package org.firstinspires.ftc.teamcode.utils;
 
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
 /**
  * A Proportional-Integral-Derivative-Feedforward (PIDF) controller
  * implementation.
@@ -21,16 +24,24 @@ public class PIDFController {
     public double ki; // Integral gain
     public double kd; // Derivative gain
     public double kf; // Feedforward gain
+    public double feedforwardScale = 1; // Multiplies the feedforward, e.g. nominal / battery voltage
 
     // Controller state
     public double pos;
     public double destination; // Desired value
     public double integralSum; // Sum of error over time
     public double lastError; // Previous error
-    public long lastTime; // Last execution time in milliseconds
+    public long lastTime; // Last execution time in nanoseconds
     public boolean isInitialized; // Flag to check if controller has been initialized
 
+    private final Clock clock;
+
     public PIDFController(double kp, double ki, double kd, double kf) {
+        this(kp, ki, kd, kf, Clocks.get());
+    }
+
+    public PIDFController(double kp, double ki, double kd, double kf, Clock clock) {
+        this.clock = clock;
         this.kp = kp;
         this.ki = ki;
         this.kd = kd;
@@ -66,6 +77,10 @@ public class PIDFController {
         this.kf = kf;
     }
 
+    public void setFeedforwardScale(double feedforwardScale) {
+        this.feedforwardScale = feedforwardScale;
+    }
+
     /**
      * Reset the controller state.
      */
@@ -79,7 +94,7 @@ public class PIDFController {
      * Calculate the control output based on the measured process value.
      */
     public double calculate(double processValue) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.nanoTime();
         pos = processValue;
 
         // Initialize controller on first call
@@ -88,10 +103,10 @@ public class PIDFController {
             lastTime = currentTime;
             lastError = destination - processValue;
             // Initial output includes feedforward
-            return kp * lastError + kf * destination;
+            return kp * lastError + kf * feedforwardScale * destination;
         }
 
-        double deltaTime = (currentTime - lastTime) / 1000.0; // Convert to seconds
+        double deltaTime = (currentTime - lastTime) / Clock.NANOS_PER_SECOND; // Convert to seconds
         lastTime = currentTime;
 
         // Calculate error
@@ -113,7 +128,7 @@ public class PIDFController {
         lastError = error;
 
         // Feedforward term
-        double feedforward = kf * destination;
+        double feedforward = kf * feedforwardScale * destination;
 
         double result = proportional + integralSum + derivative + feedforward;
         return Math.min(Math.max(result, -1), 1); // Limit output to [-1, 1]
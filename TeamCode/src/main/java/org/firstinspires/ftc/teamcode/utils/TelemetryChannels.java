@@ -0,0 +1,199 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of typed telemetry channels.
+ * <p>
+ * Each key is registered once and returns a handle that writes a primitive
+ * into a preallocated slot, so publishing a value every loop creates no
+ * strings and no boxed numbers. Values are only copied into a packet by
+ * {@link #writeTo(TelemetryPacket)}, which the OpMode calls right before
+ * sending a packet to the dashboard.
+ * Example usage:
+ * private final TelemetryChannels.DoubleChannel position =
+ * TelemetryChannels.getInstance().doubleChannel("lowerslide/position");
+ * periodic() {
+ * position.set(getCurrentPosition());
+ * }
+ */
+public class TelemetryChannels {
+    private static final int INITIAL_CAPACITY = 32;
+    private static TelemetryChannels instance;
+
+    private final Map<String, Object> channelsByKey = new HashMap<>();
+
+    private String[] doubleKeys = new String[INITIAL_CAPACITY];
+    private double[] doubleValues = new double[INITIAL_CAPACITY];
+    private boolean[] doubleWritten = new boolean[INITIAL_CAPACITY];
+    private int numDoubles = 0;
+
+    private String[] longKeys = new String[INITIAL_CAPACITY];
+    private long[] longValues = new long[INITIAL_CAPACITY];
+    private boolean[] longWritten = new boolean[INITIAL_CAPACITY];
+    private int numLongs = 0;
+
+    private String[] booleanKeys = new String[INITIAL_CAPACITY];
+    private boolean[] booleanValues = new boolean[INITIAL_CAPACITY];
+    private boolean[] booleanWritten = new boolean[INITIAL_CAPACITY];
+    private int numBooleans = 0;
+
+    public static TelemetryChannels getInstance() {
+        if (instance == null) {
+            instance = new TelemetryChannels();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the double channel for a key, registering it if needed.
+     */
+    public DoubleChannel doubleChannel(String key) {
+        Object existing = channelsByKey.get(key);
+        if (existing != null) {
+            return (DoubleChannel) existing;
+        }
+        if (numDoubles == doubleKeys.length) {
+            int capacity = numDoubles * 2;
+            doubleKeys = Arrays.copyOf(doubleKeys, capacity);
+            doubleValues = Arrays.copyOf(doubleValues, capacity);
+            doubleWritten = Arrays.copyOf(doubleWritten, capacity);
+        }
+        doubleKeys[numDoubles] = key;
+        DoubleChannel channel = new DoubleChannel(this, numDoubles++);
+        channelsByKey.put(key, channel);
+        return channel;
+    }
+
+    /**
+     * Get the long channel for a key, registering it if needed.
+     */
+    public LongChannel longChannel(String key) {
+        Object existing = channelsByKey.get(key);
+        if (existing != null) {
+            return (LongChannel) existing;
+        }
+        if (numLongs == longKeys.length) {
+            int capacity = numLongs * 2;
+            longKeys = Arrays.copyOf(longKeys, capacity);
+            longValues = Arrays.copyOf(longValues, capacity);
+            longWritten = Arrays.copyOf(longWritten, capacity);
+        }
+        longKeys[numLongs] = key;
+        LongChannel channel = new LongChannel(this, numLongs++);
+        channelsByKey.put(key, channel);
+        return channel;
+    }
+
+    /**
+     * Get the boolean channel for a key, registering it if needed.
+     */
+    public BooleanChannel booleanChannel(String key) {
+        Object existing = channelsByKey.get(key);
+        if (existing != null) {
+            return (BooleanChannel) existing;
+        }
+        if (numBooleans == booleanKeys.length) {
+            int capacity = numBooleans * 2;
+            booleanKeys = Arrays.copyOf(booleanKeys, capacity);
+            booleanValues = Arrays.copyOf(booleanValues, capacity);
+            booleanWritten = Arrays.copyOf(booleanWritten, capacity);
+        }
+        booleanKeys[numBooleans] = key;
+        BooleanChannel channel = new BooleanChannel(this, numBooleans++);
+        channelsByKey.put(key, channel);
+        return channel;
+    }
+
+    /**
+     * Copy the latest value of every channel that has been written into the packet.
+     * Call only for packets that are actually sent.
+     */
+    public void writeTo(TelemetryPacket packet) {
+        for (int i = 0; i < numDoubles; i++) {
+            if (doubleWritten[i]) {
+                packet.put(doubleKeys[i], doubleValues[i]);
+            }
+        }
+        for (int i = 0; i < numLongs; i++) {
+            if (longWritten[i]) {
+                packet.put(longKeys[i], longValues[i]);
+            }
+        }
+        for (int i = 0; i < numBooleans; i++) {
+            if (booleanWritten[i]) {
+                packet.put(booleanKeys[i], booleanValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Forget all values written so far; registered channels stay valid.
+     */
+    public void clear() {
+        Arrays.fill(doubleWritten, false);
+        Arrays.fill(longWritten, false);
+        Arrays.fill(booleanWritten, false);
+    }
+
+    public static final class DoubleChannel {
+        private final TelemetryChannels channels;
+        private final int slot;
+
+        private DoubleChannel(TelemetryChannels channels, int slot) {
+            this.channels = channels;
+            this.slot = slot;
+        }
+
+        public void set(double value) {
+            channels.doubleValues[slot] = value;
+            channels.doubleWritten[slot] = true;
+        }
+
+        public double get() {
+            return channels.doubleValues[slot];
+        }
+    }
+
+    public static final class LongChannel {
+        private final TelemetryChannels channels;
+        private final int slot;
+
+        private LongChannel(TelemetryChannels channels, int slot) {
+            this.channels = channels;
+            this.slot = slot;
+        }
+
+        public void set(long value) {
+            channels.longValues[slot] = value;
+            channels.longWritten[slot] = true;
+        }
+
+        public long get() {
+            return channels.longValues[slot];
+        }
+    }
+
+    public static final class BooleanChannel {
+        private final TelemetryChannels channels;
+        private final int slot;
+
+        private BooleanChannel(TelemetryChannels channels, int slot) {
+            this.channels = channels;
+            this.slot = slot;
+        }
+
+        public void set(boolean value) {
+            channels.booleanValues[slot] = value;
+            channels.booleanWritten[slot] = true;
+        }
+
+        public boolean get() {
+            return channels.booleanValues[slot];
+        }
+    }
+}
@@ -8,6 +8,11 @@ import java.util.Map;
 
 /**
  * Container for telemetry information with debug mode support.
+ * <p>
+ * Puts are dropped unless the packet will actually be published. Code that
+ * formats expensive values checks {@link #isPublishing(com.acmerobotics.dashboard.telemetry.TelemetryPacket)}
+ * or {@link #shouldSample(com.acmerobotics.dashboard.telemetry.TelemetryPacket, String, int)}
+ * first, which also works for plain dashboard packets.
  */
 public class TelemetryPacket extends com.acmerobotics.dashboard.telemetry.TelemetryPacket {
     private static final Canvas DEFAULT_FIELD = new Canvas();
@@ -19,6 +24,16 @@ public class TelemetryPacket extends com.acmerobotics.dashboard.telemetry.Teleme
         DEFAULT_FIELD.drawGrid(0, 0, 144, 144, 7, 7);
     }
 
+    // Sequence numbers for sampling, only drawn by published packets so a key
+    // sampled every N is in every N-th sent packet; plain dashboard packets are
+    // counted as they are seen
+    private static long nextSequence = 0;
+    private static com.acmerobotics.dashboard.telemetry.TelemetryPacket lastForeignPacket;
+    private static long foreignSequence = 0;
+
+    private long sequence = -1; // drawn once the packet is known to be published
+    private boolean publishing = true;
+
 
     /**
      * Creates a new telemetry packet.
@@ -31,26 +46,94 @@ public class TelemetryPacket extends com.acmerobotics.dashboard.telemetry.Teleme
         this(true);
     }
 
+    /**
+     * Mark whether this packet is going to be sent. Packets that won't be sent
+     * drop all puts.
+     */
+    public void setPublishing(boolean publishing) {
+        this.publishing = publishing;
+        if (publishing) {
+            getSequence();
+        }
+    }
+
+    /**
+     * @return Whether values put into this packet can be seen on the dashboard
+     */
+    public boolean isPublishing() {
+        return publishing && ConfigVariables.General.DEBUG_MODE;
+    }
+
+    /**
+     * {@link #isPublishing()} for any dashboard packet; packets not created
+     * through this class are assumed to be sent whenever debug mode is on.
+     */
+    public static boolean isPublishing(com.acmerobotics.dashboard.telemetry.TelemetryPacket packet) {
+        if (packet instanceof TelemetryPacket) {
+            return ((TelemetryPacket) packet).isPublishing();
+        }
+        return ConfigVariables.General.DEBUG_MODE;
+    }
+
+    /**
+     * Whether a key sampled every {@code divisor} published packets is due in
+     * this packet. Keys are phase-shifted by their hash so sampled keys don't
+     * all land in the same packet.
+     */
+    public boolean shouldSample(String key, int divisor) {
+        return isPublishing() && isDue(getSequence(), key, divisor);
+    }
+
+    private long getSequence() {
+        if (sequence < 0) {
+            sequence = nextSequence++;
+        }
+        return sequence;
+    }
+
+    /**
+     * {@link #shouldSample(String, int)} for any dashboard packet, e.g. the ones
+     * created by {@code Actions.runBlocking}, which are always sent.
+     */
+    public static boolean shouldSample(com.acmerobotics.dashboard.telemetry.TelemetryPacket packet,
+                                       String key, int divisor) {
+        if (packet instanceof TelemetryPacket) {
+            return ((TelemetryPacket) packet).shouldSample(key, divisor);
+        }
+        if (!ConfigVariables.General.DEBUG_MODE) {
+            return false;
+        }
+        if (packet != lastForeignPacket) {
+            lastForeignPacket = packet;
+            foreignSequence++;
+        }
+        return isDue(foreignSequence, key, divisor);
+    }
+
+    private static boolean isDue(long sequence, String key, int divisor) {
+        return divisor <= 1 || (sequence + (key.hashCode() & Integer.MAX_VALUE)) % divisor == 0;
+    }
+
     public void put(String key, Object value) {
-        if (ConfigVariables.General.DEBUG_MODE) {
+        if (isPublishing()) {
             super.put(key, value);
         }
     }
 
     public void putAll(Map<String, Object> map) {
-        if (ConfigVariables.General.DEBUG_MODE) {
+        if (isPublishing()) {
             super.putAll(map);
         }
     }
 
     public void addLine(String line) {
-        if (ConfigVariables.General.DEBUG_MODE) {
+        if (isPublishing()) {
             super.addLine(line);
         }
     }
 
     public void clearLines() {
-        if (ConfigVariables.General.DEBUG_MODE) {
+        if (isPublishing()) {
             super.clearLines();
         }
     }
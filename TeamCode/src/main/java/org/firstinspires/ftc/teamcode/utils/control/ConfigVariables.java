@@ -16,6 +16,34 @@ public class ConfigVariables {
         public static boolean SINGLE_CONTROLLER_MODE = false; // true for single controller mode, false for dual controller mode
         public static boolean WITH_STATESAVE = false; // true for state save mode, false for normal mode
         public static long DASHBOARD_UPDATE_INTERVAL_MS = 1;
+        public static boolean PROFILE_SCHEDULER = false; // time every periodic()/execute() in the command scheduler
+        public static long PROFILER_PUBLISH_INTERVAL_MS = 1000;
+        public static boolean TRACE_COMMANDS = false; // record command/action lifecycle, dumped as a Chrome trace at OpMode stop
+        public static int TRACE_BUFFER_EVENTS = 65536; // most recent events kept by the tracer
+        public static double LOOP_BUDGET_MS = 15; // deferrable scheduler work is postponed past this, 0 to disable
+        public static int MAX_DEFERRED_TICKS = 5; // deferrable work runs anyway after this many skipped ticks
+        public static double NOMINAL_LOOP_HZ = 100; // used to turn target rates into tick divisors
+        public static double SUBSYSTEM_TELEMETRY_HZ = 10;
+        public static int POSE_TELEMETRY_DIVISOR = 5; // trajectory pose/error telemetry every N published packets
+        public static boolean COMPILE_COMMANDS = false; // flatten teleop command sequences when the OpMode starts
+        public static int ASYNC_WORKER_THREADS = 2; // worker threads for AsyncCommand, read when the pool is created
+        public static int ASYNC_QUEUE_CAPACITY = 4; // queued AsyncCommand jobs beyond this are rejected
+        public static boolean MANUAL_BULK_READS = true; // one bulk read per hub per scheduler tick, false for AUTO caching
+        public static boolean COALESCE_OUTPUTS = true; // buffer motor/servo writes and flush them at the end of the tick
+        public static double OUTPUT_POWER_EPSILON = 0.005; // motor powers closer than this to the last one sent are dropped
+        public static double OUTPUT_SERVO_EPSILON = 0.001; // same for servo positions
+        public static boolean PARALLEL_HUB_IO = false; // bulk reads and output flushes of different hubs on separate threads, unmeasured, see HubIoExecutor
+        public static long COLOR_SENSOR_POLL_INTERVAL_MS = 10; // pause between background color sensor reads
+        public static double COLOR_SENSOR_MAX_AGE_MS = 100; // older color sensor samples count as no reading
+        public static double VOLTAGE_SAMPLE_HZ = 5; // battery voltage reads per second
+        public static double VOLTAGE_FILTER_TIME_CONSTANT_S = 0.5; // low-pass filter on the battery voltage
+        public static double NOMINAL_VOLTAGE = 12; // voltage the slide feedforward was tuned at
+        public static long IMU_POLL_INTERVAL_MS = 10; // pause between background IMU reads, about the IMU's output rate
+        public static double IMU_MAX_AGE_MS = 50; // older IMU samples are not trusted, the drive falls back to wheel heading
+        public static long IMU_IDLE_TIMEOUT_MS = 500; // IMU thread stops when nobody asked for a sample this long
+        public static boolean FIT_ENCODER_VELOCITY = false; // odometry velocity from a line fit over recent positions instead of the hub's velocity, adds lag, only checked offline, see FittedVelocityEncoder
+        public static double ENCODER_VELOCITY_WINDOW_MS = 50; // positions this old are used for the fit, longer is smoother but lags more
+        public static boolean ACCOUNT_TRANSACTIONS = false; // count and time hub transactions per hub and subsystem, read when subsystems are initialized
         public static double DRIVE_ROTATE_FACTOR = 0.5;
         public static double HANGING_SERVOS_SPEED = 0.8; // pwm unit
         public static double DRIVETRAIN_SPEED_MULTIPLIERFORLIMIT = 1;
@@ -67,6 +95,7 @@ public class ConfigVariables {
 
     @Config
     public static class Camera {
+        public static int TELEMETRY_DIVISOR = 10; // limelight diagnostics every N published packets
         public static final double ADJUSTMENT_DELAY = 0.65; // 500ms between adjustments
         public static double[] RESOLUTION = {1280, 960}; // pixels, width and height of camera resolution
         public static double[] VANISHING_POINT = {818.9, -991.4}; // +y down, +x right
@@ -93,6 +122,7 @@ public class ConfigVariables {
         public static double XYPIXELRATIO = 225.0 / 672.0;
         public static double XYDISTANCERATIO = 2.2 / 6.7;
         public static double CAMERA_DISTANCE = 0;        // cm, y distance between camera and sample
+        // Distance maps are rebuilt when a vision adjust starts; invalid edits keep the previous map
         public static double[] Y_DISTANCE_MAP_X = {
                 -100,
                 -7, -5.4, -4.3, -3.5, -2,
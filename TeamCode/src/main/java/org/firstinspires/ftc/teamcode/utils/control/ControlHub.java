@@ -1,6 +1,8 @@
 package org.firstinspires.ftc.teamcode.utils.control;
 
 public class ControlHub {
+        public static final String NAME = "controlhub"; // hub name in transaction accounting
+
         private static final String[] motorport = {
                         "rightBack", // slide 1 motor, leftpod encoder
                         "slide2",
@@ -1,6 +1,8 @@
 package org.firstinspires.ftc.teamcode.utils.control;
 
 public class ExpansionHub {
+        public static final String NAME = "expansionhub"; // hub name in transaction accounting
+
         private static final String[] motorport = {
                         "slide1", // slide1 encoder
                         "rightFront", // lowerslide encoder
@@ -0,0 +1,190 @@
+package org.firstinspires.ftc.teamcode.utils.hardware;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.base.HardwareCycle;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
+import org.firstinspires.ftc.teamcode.utils.control.ExpansionHub;
+
+import java.util.List;
+
+/**
+ * Owns the bulk caching mode of every Lynx hub.
+ * <p>
+ * In AUTO mode the SDK issues a new bulk read whenever a channel is read
+ * twice, so a loop where two subsystems read the same encoder pays for two
+ * reads per hub. When installed on the command scheduler the hubs are put in
+ * MANUAL mode instead: each cache is cleared and refilled exactly once at the
+ * start of a tick, and every read during the tick is served from it.
+ * With PARALLEL_HUB_IO each hub is read on its own thread (see
+ * {@link HubIoExecutor}); bulkreads/phaseMs tells whether that is faster.
+ * OpModes that don't run the scheduler (RoadRunner autos, tuning) keep AUTO
+ * mode through {@link #initializeAuto(HardwareMap)}, since nothing would
+ * clear a MANUAL cache for them.
+ */
+public class BulkReadCoordinator implements HardwareCycle {
+    private static BulkReadCoordinator instance;
+
+    private LynxModule[] hubs = new LynxModule[0];
+    private int[] readsLastCycle = new int[0];
+    private long[] readTimes = new long[0]; // ns, middle of the last bulk read
+    private TelemetryChannels.LongChannel[] readsChannels = new TelemetryChannels.LongChannel[0];
+    private Runnable[] readTasks = new Runnable[0];
+    private final TelemetryChannels.DoubleChannel phaseChannel =
+            TelemetryChannels.getInstance().doubleChannel("bulkreads/phaseMs");
+    // Null unless ACCOUNT_TRANSACTIONS was on at install
+    private TransactionAccounting.Account[] accounts;
+    private CommandScheduler scheduler;
+    private long cycleCount = 0;
+
+    public static BulkReadCoordinator getInstance() {
+        if (instance == null) {
+            instance = new BulkReadCoordinator();
+        }
+        return instance;
+    }
+
+    /**
+     * Put every hub in AUTO mode and uninstall the coordinator. OpModes that
+     * coordinate reads install it again afterwards; an installation left
+     * over from a previous OpMode must not keep the hubs in MANUAL mode.
+     */
+    public void initializeAuto(HardwareMap hardwareMap) {
+        uninstall();
+        for (LynxModule hub : hardwareMap.getAll(LynxModule.class)) {
+            hub.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
+        }
+    }
+
+    /**
+     * Put every hub in MANUAL mode and refresh the caches at the start of each
+     * tick of the given scheduler. Stays installed until the scheduler is reset.
+     */
+    public void install(HardwareMap hardwareMap, CommandScheduler scheduler) {
+        List<LynxModule> allHubs = hardwareMap.getAll(LynxModule.class);
+        hubs = allHubs.toArray(new LynxModule[0]);
+        readsLastCycle = new int[hubs.length];
+        readTimes = new long[hubs.length];
+        readsChannels = new TelemetryChannels.LongChannel[hubs.length];
+        readTasks = new Runnable[hubs.length];
+        accounts = ConfigVariables.General.ACCOUNT_TRANSACTIONS ? new TransactionAccounting.Account[hubs.length] : null;
+        for (int i = 0; i < hubs.length; i++) {
+            hubs[i].setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+            readsChannels[i] = TelemetryChannels.getInstance().longChannel(
+                    "bulkreads/" + getHubName(i) + "/perLoop");
+            int hub = i;
+            readTasks[i] = () -> read(hub);
+            if (accounts != null) {
+                accounts[i] = TransactionAccounting.getInstance().account(
+                        hubs[i].isParent() ? ControlHub.NAME : ExpansionHub.NAME, "bulkread");
+            }
+        }
+        this.scheduler = scheduler;
+        cycleCount = 0;
+        scheduler.addHardwareCycle(this);
+    }
+
+    /**
+     * Stop refreshing the caches. The hubs stay in whatever mode they are in.
+     */
+    public void uninstall() {
+        if (scheduler != null) {
+            scheduler.removeHardwareCycle(this);
+            scheduler = null;
+        }
+    }
+
+    /**
+     * @return Whether the hubs are in MANUAL mode and refreshed by a scheduler
+     */
+    public boolean isInstalled() {
+        return scheduler != null && scheduler.hasHardwareCycle(this);
+    }
+
+    @Override
+    public void beginCycle() {
+        cycleCount++;
+        long start = System.nanoTime();
+        if (ConfigVariables.General.PARALLEL_HUB_IO && hubs.length > 1) {
+            HubIoExecutor.getInstance().runAll(readTasks, hubs.length);
+        } else {
+            for (int i = 0; i < hubs.length; i++) {
+                read(i);
+            }
+        }
+        phaseChannel.set((System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Refresh the cache of one hub. Runs on that hub's thread.
+     */
+    private void read(int i) {
+        LynxModule hub = hubs[i];
+        int reads = 0;
+        // Someone switched the hub back to AUTO/OFF, it reads on its own again
+        if (hub.getBulkCachingMode() == LynxModule.BulkCachingMode.MANUAL) {
+            long start = System.nanoTime();
+            hub.clearBulkCache();
+            hub.getBulkData();
+            reads++;
+            long end = System.nanoTime();
+            readTimes[i] = start + (end - start) / 2;
+            if (accounts != null) {
+                accounts[i].record(TransactionAccounting.Kind.BULK_READ, end - start);
+            }
+        }
+        readsLastCycle[i] = reads;
+        readsChannels[i].set(reads);
+    }
+
+    /**
+     * @return Number of hubs managed since the last install
+     */
+    public int getHubCount() {
+        return hubs.length;
+    }
+
+    public String getHubName(int hub) {
+        return (hubs[hub].isParent() ? "controlhub" : "expansionhub") + hubs[hub].getModuleAddress();
+    }
+
+    /**
+     * @return Bulk reads issued for a hub during the last tick; 0 means the hub
+     * was no longer in MANUAL mode and its reads are not coordinated
+     */
+    public int getReadsLastCycle(int hub) {
+        return readsLastCycle[hub];
+    }
+
+    /**
+     * When the cached values of a hub were read, e.g. to timestamp encoder
+     * positions.
+     *
+     * @param hub {@link ControlHub#NAME} or {@link ExpansionHub#NAME}
+     * @return {@link System#nanoTime()} in the middle of the hub's last bulk
+     * read, or 0 if the hub's reads are not coordinated
+     */
+    public long getReadTime(String hub) {
+        if (!isInstalled()) {
+            return 0;
+        }
+        for (int i = 0; i < hubs.length; i++) {
+            String name = hubs[i].isParent() ? ControlHub.NAME : ExpansionHub.NAME;
+            if (name.equals(hub)) {
+                return readsLastCycle[i] > 0 ? readTimes[i] : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Number of ticks the caches were refreshed for since the last install
+     */
+    public long getCycleCount() {
+        return cycleCount;
+    }
+}
@@ -0,0 +1,145 @@
+package org.firstinspires.ftc.teamcode.utils.hardware;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the I/O of several hubs at the same time.
+ * <p>
+ * Each hub transaction blocks its thread until the hub answers. Run
+ * serially, a phase (bulk read, write flush) costs the sum of both hubs;
+ * with {@link #runAll(Runnable[], int)} the first task runs on the calling
+ * thread and every other task on its own worker, so the phase can cost as
+ * little as the slowest hub. That only happens if the SDK lets transactions
+ * to different hubs be in flight at the same time. Control Hub and Expansion
+ * Hub traffic goes through the same LynxUsbDevice, which may allow only one
+ * outstanding message, in which case the phases stay serial and the workers
+ * only add hand-offs. This is unmeasured on the robot, so PARALLEL_HUB_IO is
+ * off by default; compare bulkreads/phaseMs and outputs/flushMs with it on
+ * and off before enabling it.
+ * Workers are daemon threads parked between phases, handing off a task
+ * allocates nothing. They live until {@link #shutdown()}.
+ */
+public class HubIoExecutor {
+    private static HubIoExecutor instance;
+
+    private Worker[] workers = new Worker[0];
+
+    public static HubIoExecutor getInstance() {
+        if (instance == null) {
+            instance = new HubIoExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Run the first count tasks in parallel and return once all of them are
+     * done. An exception thrown by a worker's task is rethrown here.
+     */
+    public void runAll(Runnable[] tasks, int count) {
+        if (count <= 0) {
+            return;
+        }
+        ensureWorkers(count - 1);
+        Thread caller = Thread.currentThread();
+        for (int i = 1; i < count; i++) {
+            workers[i - 1].submit(tasks[i], caller);
+        }
+        RuntimeException error = null;
+        try {
+            tasks[0].run();
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        for (int i = 1; i < count; i++) {
+            Throwable workerError = workers[i - 1].await();
+            if (workerError != null && error == null) {
+                error = workerError instanceof RuntimeException
+                        ? (RuntimeException) workerError : new RuntimeException(workerError);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Stop all workers. They are started again by the next {@link #runAll}.
+     */
+    public synchronized void shutdown() {
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+        workers = new Worker[0];
+    }
+
+    private synchronized void ensureWorkers(int count) {
+        if (workers.length >= count) {
+            return;
+        }
+        int start = workers.length;
+        workers = Arrays.copyOf(workers, count);
+        for (int i = start; i < count; i++) {
+            workers[i] = new Worker("HubIo-" + (i + 1));
+        }
+    }
+
+    private static final class Worker implements Runnable {
+        private final Thread thread;
+        private volatile Runnable task;
+        private volatile boolean done = true;
+        private volatile boolean stopped = false;
+        private volatile Throwable error;
+        private volatile Thread waiter;
+
+        private Worker(String name) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void submit(Runnable task, Thread waiter) {
+            error = null;
+            done = false;
+            this.waiter = waiter;
+            this.task = task;
+            LockSupport.unpark(thread);
+        }
+
+        /**
+         * Wait for the submitted task.
+         *
+         * @return What the task threw, or null
+         */
+        private Throwable await() {
+            while (!done) {
+                LockSupport.park(this);
+            }
+            return error;
+        }
+
+        private void stop() {
+            stopped = true;
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                Runnable current = task;
+                if (current == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                task = null;
+                try {
+                    current.run();
+                } catch (Throwable t) {
+                    error = t;
+                }
+                done = true;
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+}
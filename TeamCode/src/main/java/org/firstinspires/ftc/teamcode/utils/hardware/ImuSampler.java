@@ -0,0 +1,146 @@
+package org.firstinspires.ftc.teamcode.utils.hardware;
+
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads an IMU on a background thread.
+ * <p>
+ * An IMU read is a blocking I2C transaction of several ms. The poller thread
+ * reads yaw and yaw rate every IMU_POLL_INTERVAL_MS and publishes them as an
+ * immutable, timestamped {@link Sample}; {@link #getSample()} only returns the
+ * latest one and never reads the IMU on the caller's thread. The caller checks
+ * the sample's age and decides what to do with a stale one.
+ * The thread starts on the first read and stops by itself once nobody has
+ * read a sample for IMU_IDLE_TIMEOUT_MS, so it never outlives the OpMode.
+ */
+public class ImuSampler {
+    private final IMU imu;
+    private final AtomicReference<Sample> latest = new AtomicReference<>();
+    private volatile long lastRequestTime; // ns
+    private Thread poller;
+
+    public ImuSampler(IMU imu) {
+        this.imu = imu;
+    }
+
+    /**
+     * @return Newest sample, or null until the poller has read the IMU once
+     */
+    public Sample getSample() {
+        lastRequestTime = System.nanoTime();
+        startPolling();
+        return latest.get();
+    }
+
+    /**
+     * Yaw at the given time, e.g. when the encoders were read. Interpolated
+     * between the sample and the one before it, or extrapolated from the sample
+     * by its yaw rate.
+     *
+     * @param sample         Sample from {@link #getSample()}
+     * @param timestampNanos Time in {@link System#nanoTime()} units
+     * @return Yaw in radians
+     */
+    public static double getYawAt(Sample sample, long timestampNanos) {
+        Sample previous = sample.previous;
+        if (previous != null && timestampNanos >= previous.timestampNanos
+                && timestampNanos < sample.timestampNanos) {
+            double fraction = (double) (timestampNanos - previous.timestampNanos)
+                    / (sample.timestampNanos - previous.timestampNanos);
+            return previous.yaw + fraction * AngleUnit.normalizeRadians(sample.yaw - previous.yaw);
+        }
+        double dt = (timestampNanos - sample.timestampNanos) / 1e9;
+        double maxDt = ConfigVariables.General.IMU_MAX_AGE_MS / 1000.0;
+        return sample.yaw + sample.yawRate * Math.max(-maxDt, Math.min(maxDt, dt));
+    }
+
+    private synchronized void startPolling() {
+        if (poller != null) {
+            return;
+        }
+        poller = new Thread(this::poll, "ImuSampler");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    private synchronized void pollerStopped() {
+        poller = null;
+    }
+
+    private void poll() {
+        try {
+            while (System.nanoTime() - lastRequestTime
+                    < ConfigVariables.General.IMU_IDLE_TIMEOUT_MS * 1_000_000L) {
+                publish(read());
+                Thread.sleep(ConfigVariables.General.IMU_POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            // Interrupted or the IMU is gone, the next request restarts polling
+        } finally {
+            pollerStopped();
+        }
+    }
+
+    private Sample read() {
+        YawPitchRollAngles angles = imu.getRobotYawPitchRollAngles();
+        double yawRate = imu.getRobotAngularVelocity(AngleUnit.RADIANS).zRotationRate;
+        long timestamp = angles.getAcquisitionTime();
+        if (timestamp == 0) {
+            timestamp = System.nanoTime();
+        }
+        return new Sample(angles, angles.getYaw(AngleUnit.RADIANS), yawRate, timestamp, null);
+    }
+
+    /**
+     * Make a sample the newest one, unless a newer one was published meanwhile.
+     *
+     * @return Newest sample afterwards
+     */
+    private Sample publish(Sample sample) {
+        while (true) {
+            Sample current = latest.get();
+            if (current != null && current.timestampNanos >= sample.timestampNanos) {
+                return current;
+            }
+            Sample linked = new Sample(sample.angles, sample.yaw, sample.yawRate, sample.timestampNanos,
+                    current == null ? null : current.withoutPrevious());
+            if (latest.compareAndSet(current, linked)) {
+                return linked;
+            }
+        }
+    }
+
+    /**
+     * One reading of the IMU.
+     */
+    public static final class Sample {
+        public final YawPitchRollAngles angles;
+        public final double yaw; // rad
+        public final double yawRate; // rad/s
+        public final long timestampNanos; // System.nanoTime()
+        // Sample before this one, kept for interpolation
+        private final Sample previous;
+
+        private Sample(YawPitchRollAngles angles, double yaw, double yawRate, long timestampNanos, Sample previous) {
+            this.angles = angles;
+            this.yaw = yaw;
+            this.yawRate = yawRate;
+            this.timestampNanos = timestampNanos;
+            this.previous = previous;
+        }
+
+        private Sample withoutPrevious() {
+            return previous == null ? this : new Sample(angles, yaw, yawRate, timestampNanos, null);
+        }
+
+        public double getAgeMs() {
+            return (System.nanoTime() - timestampNanos) / 1e6;
+        }
+    }
+}
@@ -1,13 +1,11 @@
 package org.firstinspires.ftc.teamcode.utils.hardware;
 
-import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
 import org.opencv.core.Point;
 import java.util.ArrayList;
-import java.util.List;
 
 public class Localizer {
         /*
@@ -33,10 +31,7 @@ public class Localizer {
 
         public void initialize(HardwareMap map, String podLname, String podRname, String podMname) {
                 hardwareMap = map;
-                List<LynxModule> allHubs = hardwareMap.getAll(LynxModule.class);
-                for (LynxModule hub : allHubs) {
-                        hub.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
-                }
+                BulkReadCoordinator.getInstance().initializeAuto(hardwareMap);
 
                 podR = hardwareMap.get(DcMotor.class, podRname);
                 podL = hardwareMap.get(DcMotor.class, podLname);
@@ -0,0 +1,294 @@
+package org.firstinspires.ftc.teamcode.utils.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.Servo;
+
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.base.HardwareCycle;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.FtcServoIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.MotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.ServoIO;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Coalesces motor powers and servo positions into as few hub writes as
+ * possible.
+ * <p>
+ * Every setPower()/setPosition() on a Lynx device is its own hub
+ * transaction, even if the value didn't change. Subsystems write through
+ * {@link Output} handles instead: while installed on the command scheduler,
+ * values set during a tick are buffered and flushed once at the end of it,
+ * so only the last value per device is sent. A value is also dropped if it
+ * is within OUTPUT_POWER_EPSILON / OUTPUT_SERVO_EPSILON of the value last
+ * sent, except a motor being set to exactly zero.
+ * Outside a scheduler tick (RoadRunner autos, stop()) values are written
+ * immediately, still skipping unchanged ones.
+ * With PARALLEL_HUB_IO the end-of-tick flush writes each hub's values on its
+ * own thread (see {@link HubIoExecutor}); values of devices whose hub is
+ * unknown are written with the first hub's. outputs/flushMs tells whether
+ * that is faster.
+ * Example usage:
+ * private final OutputStage.Output slidePower = OutputStage.getInstance().motor(slideMotor);
+ * periodic() {
+ * slidePower.set(pid.calculate(position));
+ * }
+ */
+public class OutputStage implements HardwareCycle {
+    private static final int INITIAL_CAPACITY = 16;
+    private static OutputStage instance;
+
+    private Output[] pending = new Output[INITIAL_CAPACITY];
+    private int numPending = 0;
+    // Hubs of the devices outputs were made for, and per-hub flush tasks and results
+    private String[] hubs = new String[0];
+    private Runnable[] flushTasks = new Runnable[0];
+    private int[] hubWritten = new int[0];
+    private int[] hubSkipped = new int[0];
+    private CommandScheduler scheduler;
+    private boolean buffering = false;
+    private long writtenCount = 0;
+    private long skippedCount = 0;
+
+    private final TelemetryChannels.LongChannel writtenChannel =
+            TelemetryChannels.getInstance().longChannel("outputs/written");
+    private final TelemetryChannels.LongChannel skippedChannel =
+            TelemetryChannels.getInstance().longChannel("outputs/skipped");
+    private final TelemetryChannels.DoubleChannel flushChannel =
+            TelemetryChannels.getInstance().doubleChannel("outputs/flushMs");
+
+    public static OutputStage getInstance() {
+        if (instance == null) {
+            instance = new OutputStage();
+        }
+        return instance;
+    }
+
+    /**
+     * Buffer outputs during each tick of the given scheduler. Stays installed
+     * until the scheduler is reset.
+     */
+    public void install(CommandScheduler scheduler) {
+        flush();
+        this.scheduler = scheduler;
+        writtenCount = 0;
+        skippedCount = 0;
+        scheduler.addHardwareCycle(this);
+    }
+
+    /**
+     * @return Whether outputs are buffered during scheduler ticks
+     */
+    public boolean isInstalled() {
+        return scheduler != null && scheduler.hasHardwareCycle(this);
+    }
+
+    /**
+     * @return Handle writing the power of a motor
+     */
+    public Output motor(DcMotorSimple motor) {
+        return motor(new FtcMotorIO(motor));
+    }
+
+    public Output motor(MotorIO motor) {
+        return new Output(this, hubIndex(motor.getHub()), true, motor::setPower, motor::getPower);
+    }
+
+    /**
+     * @return Handle writing the position of a servo
+     */
+    public Output servo(Servo servo) {
+        return servo(new FtcServoIO(servo));
+    }
+
+    public Output servo(ServoIO servo) {
+        return new Output(this, hubIndex(servo.getHub()), false, servo::setPosition, servo::getPosition);
+    }
+
+    @Override
+    public void beginCycle() {
+        buffering = true;
+    }
+
+    @Override
+    public void endCycle() {
+        buffering = false;
+        long start = System.nanoTime();
+        flush();
+        flushChannel.set((System.nanoTime() - start) / 1e6);
+        writtenChannel.set(writtenCount);
+        skippedChannel.set(skippedCount);
+    }
+
+    /**
+     * Send all buffered values now.
+     */
+    public void flush() {
+        if (ConfigVariables.General.PARALLEL_HUB_IO && hubs.length > 1 && numPending > 1) {
+            HubIoExecutor.getInstance().runAll(flushTasks, hubs.length);
+            for (int hub = 0; hub < hubs.length; hub++) {
+                writtenCount += hubWritten[hub];
+                skippedCount += hubSkipped[hub];
+            }
+        } else {
+            for (int i = 0; i < numPending; i++) {
+                count(pending[i].flush());
+            }
+        }
+        Arrays.fill(pending, 0, numPending, null);
+        numPending = 0;
+    }
+
+    /**
+     * Send the buffered values of one hub, and of devices with an unknown hub
+     * along with hub 0. Runs on that hub's thread.
+     */
+    private void flushHub(int hub) {
+        int written = 0;
+        int skipped = 0;
+        for (int i = 0; i < numPending; i++) {
+            Output output = pending[i];
+            if (output.hub == hub || (hub == 0 && output.hub < 0)) {
+                if (output.flush()) {
+                    written++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        hubWritten[hub] = written;
+        hubSkipped[hub] = skipped;
+    }
+
+    /**
+     * @return Values sent to the hubs since the last install
+     */
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * @return Values dropped since the last install, either overwritten
+     * within the same tick or too close to the value already sent
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    private int hubIndex(String hub) {
+        if (hub == null) {
+            return -1;
+        }
+        for (int i = 0; i < hubs.length; i++) {
+            if (hubs[i].equals(hub)) {
+                return i;
+            }
+        }
+        int index = hubs.length;
+        hubs = Arrays.copyOf(hubs, index + 1);
+        hubs[index] = hub;
+        flushTasks = Arrays.copyOf(flushTasks, index + 1);
+        flushTasks[index] = () -> flushHub(index);
+        hubWritten = new int[index + 1];
+        hubSkipped = new int[index + 1];
+        return index;
+    }
+
+    private void count(boolean written) {
+        if (written) {
+            writtenCount++;
+        } else {
+            skippedCount++;
+        }
+    }
+
+    private void enqueue(Output output) {
+        if (numPending == pending.length) {
+            pending = Arrays.copyOf(pending, numPending * 2);
+        }
+        pending[numPending++] = output;
+    }
+
+    /**
+     * Buffered value of a single motor power or servo position.
+     */
+    public static final class Output {
+        private final OutputStage stage;
+        private final int hub; // index into stage.hubs, -1 if unknown
+        private final boolean motor;
+        private final DoubleConsumer writer;
+        private final DoubleSupplier reader;
+        private double requested = Double.NaN;
+        private double sent = Double.NaN;
+        private boolean queued = false;
+
+        private Output(OutputStage stage, int hub, boolean motor, DoubleConsumer writer, DoubleSupplier reader) {
+            this.stage = stage;
+            this.hub = hub;
+            this.motor = motor;
+            this.writer = writer;
+            this.reader = reader;
+        }
+
+        /**
+         * Set the motor power or servo position, sent at the end of the tick.
+         */
+        public void set(double value) {
+            requested = value;
+            if (!ConfigVariables.General.COALESCE_OUTPUTS) {
+                send();
+                stage.writtenCount++;
+            } else if (!stage.buffering) {
+                stage.count(flush());
+            } else if (queued) {
+                stage.skippedCount++;
+            } else {
+                queued = true;
+                stage.enqueue(this);
+            }
+        }
+
+        /**
+         * @return Last value set, which may not have been sent yet, or the
+         * device's value if nothing was set through this handle
+         */
+        public double get() {
+            return Double.isNaN(requested) ? reader.getAsDouble() : requested;
+        }
+
+        /**
+         * Forget the value sent, so the next one is always written. Use after
+         * something other than this handle wrote to the device.
+         */
+        public void invalidate() {
+            sent = Double.NaN;
+        }
+
+        /**
+         * @return Whether the value was sent, false if it was dropped
+         */
+        private boolean flush() {
+            queued = false;
+            double epsilon = motor
+                    ? ConfigVariables.General.OUTPUT_POWER_EPSILON
+                    : ConfigVariables.General.OUTPUT_SERVO_EPSILON;
+            // Always let a motor stop, however small its last power was
+            boolean stopping = motor && requested == 0 && sent != 0;
+            if (Math.abs(requested - sent) <= epsilon && !stopping) {
+                return false;
+            }
+            send();
+            return true;
+        }
+
+        private void send() {
+            writer.accept(requested);
+            sent = requested;
+        }
+    }
+}
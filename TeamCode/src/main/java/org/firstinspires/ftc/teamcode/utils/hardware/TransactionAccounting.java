@@ -0,0 +1,337 @@
+package org.firstinspires.ftc.teamcode.utils.hardware;
+
+import org.firstinspires.ftc.teamcode.commands.base.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.base.HardwareCycle;
+import org.firstinspires.ftc.teamcode.commands.base.SchedulerProfiler;
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.AccountedEncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.AccountedMotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.AccountedServoIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.EncoderIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.MotorIO;
+import org.firstinspires.ftc.teamcode.utils.hardware.io.ServoIO;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
+import java.util.Arrays;
+
+/**
+ * Counts and times hub transactions per hub and per subsystem.
+ * <p>
+ * Devices are wrapped in accounted IO (see {@link #motor}, {@link #encoder},
+ * {@link #servo}) that record every call reaching a hub under an
+ * {@link Account}, i.e. a hub and a subsystem, as a bulk read, another read
+ * (motor power/current, voltage, I2C) or a write. Recording a transaction is
+ * two array increments, so it never allocates.
+ * While installed on the command scheduler the counts are reset every tick:
+ * per-loop totals are published for every account, hub and subsystem, and
+ * the per-loop transaction time of every hub and subsystem goes into a
+ * histogram whose p50/p95/max are published every PROFILER_PUBLISH_INTERVAL_MS.
+ * With ACCOUNT_TRANSACTIONS off when the subsystems are initialized the IO is
+ * not wrapped at all and costs nothing.
+ */
+public class TransactionAccounting implements HardwareCycle {
+    public enum Kind {
+        BULK_READ("bulkReads"),
+        READ("reads"),
+        WRITE("writes");
+
+        private final String key;
+
+        Kind(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final int INITIAL_CAPACITY = 16;
+    private static TransactionAccounting instance;
+
+    // Accounts; counts and nanos of the current tick are indexed by account * KINDS + kind
+    private Account[] accounts = new Account[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY * KINDS.length];
+    private long[] nanos = new long[INITIAL_CAPACITY * KINDS.length];
+    private int numAccounts = 0;
+
+    // Hubs and subsystems accounts are grouped into
+    private final Group hubs = new Group("transactions/hub/");
+    private final Group subsystems = new Group("transactions/subsystem/");
+
+    private final SchedulerProfiler histograms = new SchedulerProfiler();
+    private CommandScheduler scheduler;
+    private long lastPublishTime;
+
+    private final TelemetryChannels.LongChannel totalCountChannel =
+            TelemetryChannels.getInstance().longChannel("transactions/total/count");
+    private final TelemetryChannels.DoubleChannel totalMsChannel =
+            TelemetryChannels.getInstance().doubleChannel("transactions/total/ms");
+
+    public static TransactionAccounting getInstance() {
+        if (instance == null) {
+            instance = new TransactionAccounting();
+        }
+        return instance;
+    }
+
+    /**
+     * Reset the counts at the end of each tick of the given scheduler and
+     * publish them. Stays installed until the scheduler is reset.
+     */
+    public void install(CommandScheduler scheduler) {
+        clear();
+        histograms.clear();
+        this.scheduler = scheduler;
+        lastPublishTime = Clocks.get().nanoTime();
+        scheduler.addHardwareCycle(this);
+    }
+
+    /**
+     * @return Whether counts are reset and published every scheduler tick
+     */
+    public boolean isInstalled() {
+        return scheduler != null && scheduler.hasHardwareCycle(this);
+    }
+
+    /**
+     * @return Motor whose transactions are accounted to its hub and the given
+     * subsystem, or the motor itself with ACCOUNT_TRANSACTIONS off
+     */
+    public MotorIO motor(MotorIO motor, String subsystem) {
+        return ConfigVariables.General.ACCOUNT_TRANSACTIONS
+                ? new AccountedMotorIO(motor, account(hubOf(motor.getHub()), subsystem)) : motor;
+    }
+
+    /**
+     * @return Encoder whose transactions are accounted to its hub and the given
+     * subsystem, or the encoder itself with ACCOUNT_TRANSACTIONS off
+     */
+    public EncoderIO encoder(EncoderIO encoder, String subsystem) {
+        return ConfigVariables.General.ACCOUNT_TRANSACTIONS
+                ? new AccountedEncoderIO(encoder, account(hubOf(encoder.getHub()), subsystem)) : encoder;
+    }
+
+    /**
+     * @return Servo whose transactions are accounted to its hub and the given
+     * subsystem, or the servo itself with ACCOUNT_TRANSACTIONS off
+     */
+    public ServoIO servo(ServoIO servo, String subsystem) {
+        return ConfigVariables.General.ACCOUNT_TRANSACTIONS
+                ? new AccountedServoIO(servo, account(hubOf(servo.getHub()), subsystem)) : servo;
+    }
+
+    /**
+     * Get the account of a hub and subsystem, registering it if needed.
+     *
+     * @param hub       e.g. {@link org.firstinspires.ftc.teamcode.utils.control.ControlHub#NAME}
+     * @param subsystem e.g. "lowerslide"
+     */
+    public Account account(String hub, String subsystem) {
+        for (int i = 0; i < numAccounts; i++) {
+            if (accounts[i].hub.equals(hub) && accounts[i].subsystem.equals(subsystem)) {
+                return accounts[i];
+            }
+        }
+        if (numAccounts == accounts.length) {
+            int capacity = numAccounts * 2;
+            accounts = Arrays.copyOf(accounts, capacity);
+            counts = Arrays.copyOf(counts, capacity * KINDS.length);
+            nanos = Arrays.copyOf(nanos, capacity * KINDS.length);
+        }
+        Account account = new Account(this, numAccounts, hub, subsystem,
+                hubs.id(hub), subsystems.id(subsystem));
+        accounts[numAccounts++] = account;
+        return account;
+    }
+
+    private static String hubOf(String hub) {
+        return hub != null ? hub : "unknown";
+    }
+
+    @Override
+    public void beginCycle() {
+    }
+
+    @Override
+    public void endCycle() {
+        hubs.clear();
+        subsystems.clear();
+        long totalCount = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < numAccounts; i++) {
+            Account account = accounts[i];
+            long accountNanos = 0;
+            for (int k = 0; k < KINDS.length; k++) {
+                int index = i * KINDS.length + k;
+                account.countChannels[k].set(counts[index]);
+                hubs.add(account.hubId, k, counts[index], nanos[index]);
+                subsystems.add(account.subsystemId, k, counts[index], nanos[index]);
+                totalCount += counts[index];
+                accountNanos += nanos[index];
+            }
+            account.msChannel.set(accountNanos / 1e6);
+            totalNanos += accountNanos;
+        }
+        clear();
+        totalCountChannel.set(totalCount);
+        totalMsChannel.set(totalNanos / 1e6);
+        hubs.publish();
+        subsystems.publish();
+
+        long now = Clocks.get().nanoTime();
+        if (now - lastPublishTime >= ConfigVariables.General.PROFILER_PUBLISH_INTERVAL_MS * Clock.NANOS_PER_MILLI) {
+            hubs.publishHistograms();
+            subsystems.publishHistograms();
+            histograms.clear();
+            lastPublishTime = now;
+        }
+    }
+
+    /**
+     * @return Transactions of an account in the current tick
+     */
+    public long getCount(Account account, Kind kind) {
+        return counts[account.id * KINDS.length + kind.ordinal()];
+    }
+
+    /**
+     * @return Time spent in transactions of an account in the current tick, in nanoseconds
+     */
+    public long getNanos(Account account, Kind kind) {
+        return nanos[account.id * KINDS.length + kind.ordinal()];
+    }
+
+    private void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(nanos, 0);
+    }
+
+    /**
+     * A hub and a subsystem whose transactions are counted together.
+     * Example usage:
+     * long start = System.nanoTime();
+     * double voltage = sensor.getVoltage();
+     * account.record(TransactionAccounting.Kind.READ, System.nanoTime() - start);
+     */
+    public static final class Account {
+        private final TransactionAccounting accounting;
+        private final int id;
+        private final int hubId;
+        private final int subsystemId;
+        public final String hub;
+        public final String subsystem;
+        private final TelemetryChannels.LongChannel[] countChannels =
+                new TelemetryChannels.LongChannel[KINDS.length];
+        private final TelemetryChannels.DoubleChannel msChannel;
+
+        private Account(TransactionAccounting accounting, int id, String hub, String subsystem,
+                        int hubId, int subsystemId) {
+            this.accounting = accounting;
+            this.id = id;
+            this.hub = hub;
+            this.subsystem = subsystem;
+            this.hubId = hubId;
+            this.subsystemId = subsystemId;
+            String prefix = "transactions/hub/" + hub + "/" + subsystem + "/";
+            for (int k = 0; k < KINDS.length; k++) {
+                countChannels[k] = TelemetryChannels.getInstance().longChannel(prefix + KINDS[k].key);
+            }
+            msChannel = TelemetryChannels.getInstance().doubleChannel(prefix + "ms");
+        }
+
+        /**
+         * Record one transaction.
+         *
+         * @param nanos Duration in nanoseconds
+         */
+        public void record(Kind kind, long nanos) {
+            int index = id * KINDS.length + kind.ordinal();
+            accounting.counts[index]++;
+            accounting.nanos[index] += nanos;
+        }
+    }
+
+    /**
+     * Per-loop totals of the accounts sharing a hub or a subsystem.
+     */
+    private final class Group {
+        private final String prefix;
+        private String[] names = new String[INITIAL_CAPACITY];
+        private int[] histogramIds = new int[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY * KINDS.length];
+        private long[] nanos = new long[INITIAL_CAPACITY];
+        private TelemetryChannels.LongChannel[] countChannels = new TelemetryChannels.LongChannel[INITIAL_CAPACITY * KINDS.length];
+        private TelemetryChannels.DoubleChannel[] msChannels = new TelemetryChannels.DoubleChannel[INITIAL_CAPACITY];
+        private TelemetryChannels.DoubleChannel[] p50Channels = new TelemetryChannels.DoubleChannel[INITIAL_CAPACITY];
+        private TelemetryChannels.DoubleChannel[] p95Channels = new TelemetryChannels.DoubleChannel[INITIAL_CAPACITY];
+        private TelemetryChannels.DoubleChannel[] maxChannels = new TelemetryChannels.DoubleChannel[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private Group(String prefix) {
+            this.prefix = prefix;
+        }
+
+        private int id(String name) {
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            if (size == names.length) {
+                int capacity = size * 2;
+                names = Arrays.copyOf(names, capacity);
+                histogramIds = Arrays.copyOf(histogramIds, capacity);
+                counts = Arrays.copyOf(counts, capacity * KINDS.length);
+                nanos = Arrays.copyOf(nanos, capacity);
+                countChannels = Arrays.copyOf(countChannels, capacity * KINDS.length);
+                msChannels = Arrays.copyOf(msChannels, capacity);
+                p50Channels = Arrays.copyOf(p50Channels, capacity);
+                p95Channels = Arrays.copyOf(p95Channels, capacity);
+                maxChannels = Arrays.copyOf(maxChannels, capacity);
+            }
+            int id = size++;
+            String key = prefix + name + "/";
+            TelemetryChannels channels = TelemetryChannels.getInstance();
+            names[id] = name;
+            histogramIds[id] = histograms.keyId(key, key + "loop");
+            for (int k = 0; k < KINDS.length; k++) {
+                countChannels[id * KINDS.length + k] = channels.longChannel(key + KINDS[k].key);
+            }
+            msChannels[id] = channels.doubleChannel(key + "ms");
+            p50Channels[id] = channels.doubleChannel(key + "loop/p50_ms");
+            p95Channels[id] = channels.doubleChannel(key + "loop/p95_ms");
+            maxChannels[id] = channels.doubleChannel(key + "loop/max_ms");
+            return id;
+        }
+
+        private void add(int id, int kind, long count, long nanos) {
+            counts[id * KINDS.length + kind] += count;
+            this.nanos[id] += nanos;
+        }
+
+        private void clear() {
+            Arrays.fill(counts, 0);
+            Arrays.fill(nanos, 0);
+        }
+
+        private void publish() {
+            for (int id = 0; id < size; id++) {
+                for (int k = 0; k < KINDS.length; k++) {
+                    int index = id * KINDS.length + k;
+                    countChannels[index].set(counts[index]);
+                }
+                msChannels[id].set(nanos[id] / 1e6);
+                histograms.record(histogramIds[id], nanos[id]);
+            }
+        }
+
+        private void publishHistograms() {
+            for (int id = 0; id < size; id++) {
+                int histogramId = histogramIds[id];
+                p50Channels[id].set(histograms.percentile(histogramId, 0.50) / 1e6);
+                p95Channels[id].set(histograms.percentile(histogramId, 0.95) / 1e6);
+                maxChannels[id].set(histograms.getMax(histogramId) / 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.firstinspires.ftc.teamcode.utils.hardware;
+
+/**
+ * Encoder velocity from a least-squares line through recent positions.
+ * <p>
+ * The hub reports velocity as ticks counted over a fixed hardware interval,
+ * which at low speed is a few ticks and so very coarse. Instead every
+ * position is stored with the time it was read, and the velocity is the slope
+ * of the best fitting line through the samples of the last
+ * ENCODER_VELOCITY_WINDOW_MS. Samples live in a preallocated ring, so
+ * neither adding a sample nor fitting allocates.
+ * Example usage:
+ * estimator.add(position, bulkReadTime);
+ * double velocity = estimator.getVelocity(); // NaN until two samples are in the window
+ */
+public class VelocityEstimator {
+    private final long[] timestamps; // ns
+    private final long[] positions;  // ticks
+    private int newest = -1;
+    private int size = 0;
+
+    /**
+     * @param capacity Samples kept at most; the window never spans more
+     */
+    public VelocityEstimator(int capacity) {
+        timestamps = new long[capacity];
+        positions = new long[capacity];
+    }
+
+    /**
+     * Add a position read at the given time. A sample with the same time as
+     * the newest one (the same bulk read, read again) replaces it, an older
+     * one is dropped.
+     *
+     * @param timestampNanos Time in {@link System#nanoTime()} units
+     */
+    public void add(long position, long timestampNanos) {
+        if (size > 0) {
+            long last = timestamps[newest];
+            if (timestampNanos == last) {
+                positions[newest] = position;
+                return;
+            }
+            if (timestampNanos < last) {
+                return;
+            }
+        }
+        newest = (newest + 1) % timestamps.length;
+        timestamps[newest] = timestampNanos;
+        positions[newest] = position;
+        if (size < timestamps.length) {
+            size++;
+        }
+    }
+
+    /**
+     * @param windowNanos Only samples this much older than the newest one are used
+     * @return Velocity in ticks per second, NaN with fewer than two samples in the window
+     */
+    public double getVelocity(long windowNanos) {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        // Relative to the newest sample, so the sums stay small
+        long t0 = timestamps[newest];
+        long x0 = positions[newest];
+        int n = 0;
+        double sumT = 0, sumX = 0, sumTT = 0, sumTX = 0;
+        for (int k = 0, i = newest; k < size; k++, i = (i == 0 ? timestamps.length : i) - 1) {
+            long age = t0 - timestamps[i];
+            if (age > windowNanos) {
+                break;
+            }
+            double t = -age / 1e9;
+            double x = positions[i] - x0;
+            n++;
+            sumT += t;
+            sumX += x;
+            sumTT += t * t;
+            sumTX += t * x;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator <= 0) {
+            return Double.NaN;
+        }
+        return (n * sumTX - sumT * sumX) / denominator;
+    }
+
+    /**
+     * Forget all samples, e.g. after the encoder was reset or reversed.
+     */
+    public void clear() {
+        newest = -1;
+        size = 0;
+    }
+}
@@ -0,0 +1,99 @@
+package org.firstinspires.ftc.teamcode.utils.hardware;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.teamcode.utils.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.control.ControlHub;
+import org.firstinspires.ftc.teamcode.utils.timing.Clock;
+import org.firstinspires.ftc.teamcode.utils.timing.Clocks;
+
+import java.util.Iterator;
+
+/**
+ * Low-pass filtered battery voltage for feedforward scaling.
+ * <p>
+ * Reading the voltage sensor is a hub transaction outside the bulk read, and
+ * the raw value sags with every slide current spike. The sensor is read at
+ * most VOLTAGE_SAMPLE_HZ, each reading is blended into an exponential moving
+ * average with time constant VOLTAGE_FILTER_TIME_CONSTANT_S, and every other
+ * call returns the filtered value without touching the hub.
+ */
+public class VoltageMonitor {
+    private static VoltageMonitor instance;
+
+    private VoltageSensor sensor;
+    private TransactionAccounting.Account account; // null unless ACCOUNT_TRANSACTIONS
+    private double filtered = Double.NaN;
+    private long lastSampleTime; // ns
+
+    private final TelemetryChannels.DoubleChannel rawChannel =
+            TelemetryChannels.getInstance().doubleChannel("voltage/raw");
+    private final TelemetryChannels.DoubleChannel filteredChannel =
+            TelemetryChannels.getInstance().doubleChannel("voltage/filtered");
+
+    public static VoltageMonitor getInstance() {
+        if (instance == null) {
+            instance = new VoltageMonitor();
+        }
+        return instance;
+    }
+
+    /**
+     * Use the first voltage sensor of the hardware map and forget the
+     * previous filter state.
+     */
+    public void initialize(HardwareMap hardwareMap) {
+        Iterator<VoltageSensor> sensors = hardwareMap.voltageSensor.iterator();
+        sensor = sensors.hasNext() ? sensors.next() : null;
+        filtered = Double.NaN;
+        // The Control Hub is the parent module, its sensor comes first
+        account = ConfigVariables.General.ACCOUNT_TRANSACTIONS
+                ? TransactionAccounting.getInstance().account(ControlHub.NAME, "voltage") : null;
+    }
+
+    /**
+     * @return Filtered battery voltage, or NOMINAL_VOLTAGE without a sensor
+     */
+    public double getVoltage() {
+        if (sensor == null) {
+            return ConfigVariables.General.NOMINAL_VOLTAGE;
+        }
+        long now = Clocks.get().nanoTime();
+        double dt = (now - lastSampleTime) / Clock.NANOS_PER_SECOND;
+        if (Double.isNaN(filtered)) {
+            sample(now, 1);
+        } else if (dt * ConfigVariables.General.VOLTAGE_SAMPLE_HZ >= 1) {
+            sample(now, dt / (ConfigVariables.General.VOLTAGE_FILTER_TIME_CONSTANT_S + dt));
+        }
+        return filtered;
+    }
+
+    /**
+     * @return Factor scaling a feedforward tuned at NOMINAL_VOLTAGE to the
+     * current battery voltage
+     */
+    public double getFeedforwardScale() {
+        return ConfigVariables.General.NOMINAL_VOLTAGE / getVoltage();
+    }
+
+    private void sample(long now, double alpha) {
+        long start = System.nanoTime();
+        double raw = sensor.getVoltage();
+        if (account != null) {
+            account.record(TransactionAccounting.Kind.READ, System.nanoTime() - start);
+        }
+        lastSampleTime = now;
+        // Not a battery reading (e.g. a failed read), keep the last estimate
+        if (raw <= 0) {
+            if (Double.isNaN(filtered)) {
+                filtered = ConfigVariables.General.NOMINAL_VOLTAGE;
+            }
+            return;
+        }
+        filtered = Double.isNaN(filtered) ? raw : filtered + alpha * (raw - filtered);
+        rawChannel.set(raw);
+        filteredChannel.set(filtered);
+    }
+}
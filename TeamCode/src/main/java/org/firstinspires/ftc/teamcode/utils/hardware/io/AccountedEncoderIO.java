@@ -0,0 +1,47 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import org.firstinspires.ftc.teamcode.utils.hardware.BulkReadCoordinator;
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
+
+/**
+ * Encoder whose transactions are counted and timed, see {@link TransactionAccounting}.
+ * While the {@link BulkReadCoordinator} is installed every read is served
+ * from the bulk cache and nothing is recorded; in AUTO caching mode a read
+ * may issue a bulk read, so it is recorded as one.
+ */
+public class AccountedEncoderIO implements EncoderIO {
+    private final EncoderIO encoder;
+    private final TransactionAccounting.Account account;
+
+    public AccountedEncoderIO(EncoderIO encoder, TransactionAccounting.Account account) {
+        this.encoder = encoder;
+        this.account = account;
+    }
+
+    @Override
+    public int getPosition() {
+        if (BulkReadCoordinator.getInstance().isInstalled()) {
+            return encoder.getPosition();
+        }
+        long start = System.nanoTime();
+        int position = encoder.getPosition();
+        account.record(TransactionAccounting.Kind.BULK_READ, System.nanoTime() - start);
+        return position;
+    }
+
+    @Override
+    public double getVelocity() {
+        if (BulkReadCoordinator.getInstance().isInstalled()) {
+            return encoder.getVelocity();
+        }
+        long start = System.nanoTime();
+        double velocity = encoder.getVelocity();
+        account.record(TransactionAccounting.Kind.BULK_READ, System.nanoTime() - start);
+        return velocity;
+    }
+
+    @Override
+    public String getHub() {
+        return encoder.getHub();
+    }
+}
@@ -0,0 +1,46 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
+
+/**
+ * Motor whose transactions are counted and timed, see {@link TransactionAccounting}.
+ * Power and current reads are not part of the bulk read, so each is its own
+ * hub transaction.
+ */
+public class AccountedMotorIO implements MotorIO {
+    private final MotorIO motor;
+    private final TransactionAccounting.Account account;
+
+    public AccountedMotorIO(MotorIO motor, TransactionAccounting.Account account) {
+        this.motor = motor;
+        this.account = account;
+    }
+
+    @Override
+    public void setPower(double power) {
+        long start = System.nanoTime();
+        motor.setPower(power);
+        account.record(TransactionAccounting.Kind.WRITE, System.nanoTime() - start);
+    }
+
+    @Override
+    public double getPower() {
+        long start = System.nanoTime();
+        double power = motor.getPower();
+        account.record(TransactionAccounting.Kind.READ, System.nanoTime() - start);
+        return power;
+    }
+
+    @Override
+    public double getCurrent() {
+        long start = System.nanoTime();
+        double current = motor.getCurrent();
+        account.record(TransactionAccounting.Kind.READ, System.nanoTime() - start);
+        return current;
+    }
+
+    @Override
+    public String getHub() {
+        return motor.getHub();
+    }
+}
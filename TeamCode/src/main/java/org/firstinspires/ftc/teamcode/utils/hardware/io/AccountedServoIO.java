@@ -0,0 +1,35 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import org.firstinspires.ftc.teamcode.utils.hardware.TransactionAccounting;
+
+/**
+ * Servo whose transactions are counted and timed, see {@link TransactionAccounting}.
+ * The SDK answers getPosition() with the last position it sent, so only
+ * writes reach the hub.
+ */
+public class AccountedServoIO implements ServoIO {
+    private final ServoIO servo;
+    private final TransactionAccounting.Account account;
+
+    public AccountedServoIO(ServoIO servo, TransactionAccounting.Account account) {
+        this.servo = servo;
+        this.account = account;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        long start = System.nanoTime();
+        servo.setPosition(position);
+        account.record(TransactionAccounting.Kind.WRITE, System.nanoTime() - start);
+    }
+
+    @Override
+    public double getPosition() {
+        return servo.getPosition();
+    }
+
+    @Override
+    public String getHub() {
+        return servo.getHub();
+    }
+}
@@ -0,0 +1,17 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Color/distance sensor such as the REV Color Sensor V3.
+ */
+public interface ColorDistanceIO {
+    int red();
+
+    int green();
+
+    int blue();
+
+    /**
+     * @return Distance in cm, Double.MAX_VALUE if nothing is in range
+     */
+    double getDistanceCm();
+}
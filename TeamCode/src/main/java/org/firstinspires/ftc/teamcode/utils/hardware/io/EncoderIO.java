@@ -0,0 +1,24 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Quadrature encoder, usually plugged into a motor port.
+ */
+public interface EncoderIO {
+    /**
+     * @return Position in ticks
+     */
+    int getPosition();
+
+    /**
+     * @return Velocity in ticks per second
+     */
+    double getVelocity();
+
+    /**
+     * @return Name of the hub the device is plugged into, e.g.
+     * {@link org.firstinspires.ftc.teamcode.utils.control.ControlHub#NAME}, or null if unknown
+     */
+    default String getHub() {
+        return null;
+    }
+}
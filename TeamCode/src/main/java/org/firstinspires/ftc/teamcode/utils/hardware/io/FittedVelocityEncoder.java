@@ -0,0 +1,81 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.acmerobotics.roadrunner.ftc.Encoder;
+import com.acmerobotics.roadrunner.ftc.PositionVelocityPair;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import org.firstinspires.ftc.teamcode.utils.control.ConfigVariables;
+import org.firstinspires.ftc.teamcode.utils.hardware.BulkReadCoordinator;
+import org.firstinspires.ftc.teamcode.utils.hardware.VelocityEstimator;
+
+/**
+ * RoadRunner encoder whose velocity is fitted over recent positions by a
+ * {@link VelocityEstimator} instead of taken from the hub.
+ * <p>
+ * Each position is timestamped with the bulk read it came from while the
+ * {@link BulkReadCoordinator} is installed, otherwise with the time it was
+ * read. Until the window holds two samples (first read, or after a pause
+ * longer than ENCODER_VELOCITY_WINDOW_MS) the hub's velocity is passed
+ * through. RoadRunner's Encoder returns a new PositionVelocityPair per call,
+ * which the wrapped encoder already allocates; the fitted pair is only
+ * allocated when it differs from the last one returned.
+ */
+public class FittedVelocityEncoder implements Encoder {
+    // Enough for ENCODER_VELOCITY_WINDOW_MS of samples at loop rate
+    private static final int CAPACITY = 32;
+
+    private final Encoder encoder;
+    private final String hub;
+    private final VelocityEstimator estimator = new VelocityEstimator(CAPACITY);
+    private PositionVelocityPair last; // pairs are immutable, so this can be returned again
+
+    /**
+     * @param hub Hub the encoder is plugged into, e.g.
+     *            {@link org.firstinspires.ftc.teamcode.utils.control.ControlHub#NAME}
+     */
+    public FittedVelocityEncoder(Encoder encoder, String hub) {
+        this.encoder = encoder;
+        this.hub = hub;
+    }
+
+    @Override
+    public PositionVelocityPair getPositionAndVelocity() {
+        PositionVelocityPair pair = encoder.getPositionAndVelocity();
+        long timestamp = BulkReadCoordinator.getInstance().getReadTime(hub);
+        estimator.add(pair.position, timestamp != 0 ? timestamp : System.nanoTime());
+        double velocity = estimator.getVelocity(
+                (long) (ConfigVariables.General.ENCODER_VELOCITY_WINDOW_MS * 1e6));
+        if (Double.isNaN(velocity)) {
+            return pair;
+        }
+        int fitted = (int) Math.round(velocity);
+        if (last == null || last.position != pair.position || last.velocity != fitted
+                || last.rawPosition != pair.rawPosition || last.rawVelocity != pair.rawVelocity) {
+            last = new PositionVelocityPair(pair.position, fitted, pair.rawPosition, pair.rawVelocity);
+        }
+        return last;
+    }
+
+    @Override
+    public DcMotorController getController() {
+        return encoder.getController();
+    }
+
+    @Override
+    public DcMotorSimple.Direction getDirection() {
+        return encoder.getDirection();
+    }
+
+    /**
+     * Reversing flips the sign of every stored position, so the samples so
+     * far are dropped.
+     */
+    @Override
+    public void setDirection(DcMotorSimple.Direction direction) {
+        if (direction != encoder.getDirection()) {
+            estimator.clear();
+        }
+        encoder.setDirection(direction);
+    }
+}
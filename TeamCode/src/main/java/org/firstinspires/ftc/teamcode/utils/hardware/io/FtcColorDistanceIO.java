@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+/**
+ * Each read is a blocking I2C transaction. A missing sensor reads as black
+ * and nothing in range.
+ */
+public class FtcColorDistanceIO implements ColorDistanceIO {
+    private final ColorSensor color;
+    private final DistanceSensor distance;
+
+    public FtcColorDistanceIO(ColorSensor color, DistanceSensor distance) {
+        this.color = color;
+        this.distance = distance;
+    }
+
+    @Override
+    public int red() {
+        return color != null ? color.red() : 0;
+    }
+
+    @Override
+    public int green() {
+        return color != null ? color.green() : 0;
+    }
+
+    @Override
+    public int blue() {
+        return color != null ? color.blue() : 0;
+    }
+
+    @Override
+    public double getDistanceCm() {
+        return distance != null ? distance.getDistance(DistanceUnit.CM) : Double.MAX_VALUE;
+    }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * Encoder of a motor port. Reads come from the hub's bulk cache when bulk
+ * caching is enabled.
+ */
+public class FtcEncoderIO implements EncoderIO {
+    private final DcMotor motor;
+    private final String hub;
+
+    public FtcEncoderIO(DcMotor motor) {
+        this(motor, null);
+    }
+
+    public FtcEncoderIO(DcMotor motor, String hub) {
+        this.motor = motor;
+        this.hub = hub;
+    }
+
+    @Override
+    public int getPosition() {
+        return motor.getCurrentPosition();
+    }
+
+    @Override
+    public double getVelocity() {
+        return motor instanceof DcMotorEx ? ((DcMotorEx) motor).getVelocity() : 0;
+    }
+
+    @Override
+    public String getHub() {
+        return hub;
+    }
+}
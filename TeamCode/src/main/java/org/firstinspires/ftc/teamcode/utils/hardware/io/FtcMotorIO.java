@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
+public class FtcMotorIO implements MotorIO {
+    private final DcMotorSimple motor;
+    private final String hub;
+
+    public FtcMotorIO(DcMotorSimple motor) {
+        this(motor, null);
+    }
+
+    public FtcMotorIO(DcMotorSimple motor, String hub) {
+        this.motor = motor;
+        this.hub = hub;
+    }
+
+    @Override
+    public void setPower(double power) {
+        motor.setPower(power);
+    }
+
+    @Override
+    public double getPower() {
+        return motor.getPower();
+    }
+
+    @Override
+    public double getCurrent() {
+        return motor instanceof DcMotorEx ? ((DcMotorEx) motor).getCurrent(CurrentUnit.AMPS) : 0;
+    }
+
+    @Override
+    public String getHub() {
+        return hub;
+    }
+}
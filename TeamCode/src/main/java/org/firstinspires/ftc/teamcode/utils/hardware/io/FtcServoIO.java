@@ -0,0 +1,32 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.qualcomm.robotcore.hardware.Servo;
+
+public class FtcServoIO implements ServoIO {
+    private final Servo servo;
+    private final String hub;
+
+    public FtcServoIO(Servo servo) {
+        this(servo, null);
+    }
+
+    public FtcServoIO(Servo servo, String hub) {
+        this.servo = servo;
+        this.hub = hub;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        servo.setPosition(position);
+    }
+
+    @Override
+    public double getPosition() {
+        return servo.getPosition();
+    }
+
+    @Override
+    public String getHub() {
+        return hub;
+    }
+}
@@ -0,0 +1,30 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.qualcomm.hardware.limelightvision.LLResult;
+import com.qualcomm.hardware.limelightvision.Limelight3A;
+
+public class FtcVisionIO implements VisionIO {
+    private final Limelight3A limelight;
+
+    public FtcVisionIO(Limelight3A limelight, int pipeline) {
+        this.limelight = limelight;
+        limelight.pipelineSwitch(pipeline);
+        limelight.setPollRateHz(100);
+    }
+
+    @Override
+    public void start() {
+        limelight.start();
+        limelight.reloadPipeline();
+    }
+
+    @Override
+    public LLResult getLatestResult() {
+        return limelight.getLatestResult();
+    }
+
+    @Override
+    public void updatePythonInputs(double... inputs) {
+        limelight.updatePythonInputs(inputs);
+    }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Color/distance sensor without hardware, set by the benchmark or simulation.
+ * Reads black and nothing in range until set.
+ */
+public class InMemoryColorDistanceIO implements ColorDistanceIO {
+    private volatile int red, green, blue;
+    private volatile double distanceCm = Double.MAX_VALUE;
+
+    public void set(int red, int green, int blue, double distanceCm) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.distanceCm = distanceCm;
+    }
+
+    @Override
+    public int red() {
+        return red;
+    }
+
+    @Override
+    public int green() {
+        return green;
+    }
+
+    @Override
+    public int blue() {
+        return blue;
+    }
+
+    @Override
+    public double getDistanceCm() {
+        return distanceCm;
+    }
+}
@@ -0,0 +1,27 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Encoder without hardware, moved by the benchmark or simulation.
+ */
+public class InMemoryEncoderIO implements EncoderIO {
+    private int position = 0;
+    private double velocity = 0;
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public void setVelocity(double velocity) {
+        this.velocity = velocity;
+    }
+}
@@ -0,0 +1,29 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Motor without hardware. Records the last power; simulations set the
+ * current draw.
+ */
+public class InMemoryMotorIO implements MotorIO {
+    private double power = 0;
+    private double current = 0;
+
+    @Override
+    public void setPower(double power) {
+        this.power = power;
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+
+    @Override
+    public double getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(double current) {
+        this.current = current;
+    }
+}
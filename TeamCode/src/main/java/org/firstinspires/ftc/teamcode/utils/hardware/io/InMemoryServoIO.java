@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Servo without hardware. Like the SDK, reads NaN until a position is set.
+ */
+public class InMemoryServoIO implements ServoIO {
+    private double position = Double.NaN;
+
+    @Override
+    public void setPosition(double position) {
+        this.position = Math.min(1, Math.max(0, position));
+    }
+
+    @Override
+    public double getPosition() {
+        return position;
+    }
+}
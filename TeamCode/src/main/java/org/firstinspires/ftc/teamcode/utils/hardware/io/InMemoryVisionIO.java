@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.qualcomm.hardware.limelightvision.LLResult;
+
+/**
+ * Camera without hardware. Returns whatever result was set last, and keeps
+ * the last python inputs sent to it.
+ */
+public class InMemoryVisionIO implements VisionIO {
+    private LLResult result;
+    private double[] pythonInputs = new double[0];
+    private boolean started = false;
+
+    @Override
+    public void start() {
+        started = true;
+    }
+
+    @Override
+    public LLResult getLatestResult() {
+        return result;
+    }
+
+    public void setLatestResult(LLResult result) {
+        this.result = result;
+    }
+
+    @Override
+    public void updatePythonInputs(double... inputs) {
+        pythonInputs = inputs.clone();
+    }
+
+    public double[] getPythonInputs() {
+        return pythonInputs;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+}
@@ -0,0 +1,24 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Power output of a motor. See {@link FtcMotorIO} for the robot and
+ * {@link InMemoryMotorIO} for benchmarks and simulations.
+ */
+public interface MotorIO {
+    void setPower(double power);
+
+    double getPower();
+
+    /**
+     * @return Current draw in amps, 0 if the motor can't measure it
+     */
+    double getCurrent();
+
+    /**
+     * @return Name of the hub the device is plugged into, e.g.
+     * {@link org.firstinspires.ftc.teamcode.utils.control.ControlHub#NAME}, or null if unknown
+     */
+    default String getHub() {
+        return null;
+    }
+}
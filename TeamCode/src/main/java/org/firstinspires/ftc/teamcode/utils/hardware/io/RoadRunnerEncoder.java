@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.acmerobotics.roadrunner.ftc.Encoder;
+import com.acmerobotics.roadrunner.ftc.PositionVelocityPair;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+/**
+ * RoadRunner encoder reading an {@link EncoderIO}, so RoadRunner localizers
+ * can run against in-memory encoders.
+ */
+public class RoadRunnerEncoder implements Encoder {
+    private final EncoderIO encoder;
+    private DcMotorSimple.Direction direction = DcMotorSimple.Direction.FORWARD;
+
+    public RoadRunnerEncoder(EncoderIO encoder) {
+        this.encoder = encoder;
+    }
+
+    @Override
+    public PositionVelocityPair getPositionAndVelocity() {
+        int position = encoder.getPosition();
+        int velocity = (int) encoder.getVelocity();
+        int sign = direction == DcMotorSimple.Direction.FORWARD ? 1 : -1;
+        return new PositionVelocityPair(sign * position, sign * velocity, position, velocity);
+    }
+
+    /**
+     * @return null, there is no motor controller behind an EncoderIO
+     */
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public DcMotorSimple.Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setDirection(DcMotorSimple.Direction direction) {
+        this.direction = direction;
+    }
+}
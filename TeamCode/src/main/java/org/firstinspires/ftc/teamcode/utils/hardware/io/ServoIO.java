@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+/**
+ * Position output of a servo, 0 to 1.
+ */
+public interface ServoIO {
+    void setPosition(double position);
+
+    double getPosition();
+
+    /**
+     * @return Name of the hub the device is plugged into, e.g.
+     * {@link org.firstinspires.ftc.teamcode.utils.control.ControlHub#NAME}, or null if unknown
+     */
+    default String getHub() {
+        return null;
+    }
+}
@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.utils.hardware.io;
+
+import com.qualcomm.hardware.limelightvision.LLResult;
+
+/**
+ * Limelight camera.
+ */
+public interface VisionIO {
+    /**
+     * Start streaming results.
+     */
+    void start();
+
+    /**
+     * @return Latest result, or null if there is none yet
+     */
+    LLResult getLatestResult();
+
+    void updatePythonInputs(double... inputs);
+}
@@ -11,6 +11,9 @@ public class InterpLUT {
     private List<Double> mX = new ArrayList<>();
     private List<Double> mY = new ArrayList<>();
     private List<Double> mM = new ArrayList<>();
+    // Arrays the LUT was last built from by update()
+    private double[] sourceX;
+    private double[] sourceY;
 
     private InterpLUT(List<Double> x, List<Double> y, List<Double> m) {
         mX = x;
@@ -87,6 +90,43 @@ public class InterpLUT {
         mM = Arrays.asList(m);
     }
 
+    /**
+     * Rebuild the LUT from the given control points unless they hold the same
+     * values as last time, e.g. so arrays edited on the dashboard are picked
+     * up. Points that do not form a valid LUT are ignored and the previous
+     * ones stay in use; with no previous LUT they throw like {@link #createLUT()}.
+     *
+     * @return Whether the LUT was rebuilt
+     */
+    public boolean update(double[] input, double[] output) {
+        if (Arrays.equals(input, sourceX) && Arrays.equals(output, sourceY)) {
+            return false;
+        }
+        List<Double> oldX = mX, oldY = mY, oldM = mM;
+        mX = new ArrayList<>(input.length);
+        mY = new ArrayList<>(output.length);
+        for (double x : input) {
+            mX.add(x);
+        }
+        for (double y : output) {
+            mY.add(y);
+        }
+        try {
+            createLUT();
+        } catch (IllegalArgumentException e) {
+            if (sourceX == null) {
+                throw e;
+            }
+            mX = oldX;
+            mY = oldY;
+            mM = oldM;
+            return false;
+        }
+        sourceX = input.clone();
+        sourceY = output.clone();
+        return true;
+    }
+
     /**
      * Interpolates the value of Y = f(X) for given X. Clamps X to the domain of the spline.
      *
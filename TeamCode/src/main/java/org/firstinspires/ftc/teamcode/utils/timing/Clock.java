@@ -0,0 +1,38 @@
+package org.firstinspires.ftc.teamcode.utils.timing;
+
+/**
+ * Monotonic time source for the control stack.
+ * <p>
+ * Implementations return the time of the current loop rather than the exact
+ * moment of the call, so every consumer within one loop sees the same value.
+ * The loop driver (normally the command scheduler) calls {@link #update()} once
+ * at the start of each loop.
+ */
+public interface Clock {
+    long NANOS_PER_MILLI = 1_000_000L;
+    double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Sample the underlying time source for a new loop.
+     */
+    void update();
+
+    /**
+     * @return Time of the current loop in nanoseconds, from an arbitrary origin
+     */
+    long nanoTime();
+
+    /**
+     * @return Time of the current loop in milliseconds, from the same origin
+     */
+    default long millis() {
+        return nanoTime() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return Time of the current loop in seconds, from the same origin
+     */
+    default double seconds() {
+        return nanoTime() / NANOS_PER_SECOND;
+    }
+}
@@ -0,0 +1,27 @@
+package org.firstinspires.ftc.teamcode.utils.timing;
+
+/**
+ * Holder for the clock shared by the scheduler, commands and controllers.
+ * Swap in a {@link VirtualClock} before building the robot for simulated runs.
+ */
+public final class Clocks {
+    private static Clock clock = new LoopClock();
+
+    private Clocks() {
+    }
+
+    public static Clock get() {
+        return clock;
+    }
+
+    public static void set(Clock clock) {
+        Clocks.clock = clock;
+    }
+
+    /**
+     * Restore the real-time clock.
+     */
+    public static void reset() {
+        clock = new LoopClock();
+    }
+}
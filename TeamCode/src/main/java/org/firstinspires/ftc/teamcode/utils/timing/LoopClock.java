@@ -0,0 +1,32 @@
+package org.firstinspires.ftc.teamcode.utils.timing;
+
+/**
+ * Clock backed by {@link System#nanoTime()}, latched once per loop by
+ * {@link #update()}.
+ * <p>
+ * Loops that never call {@link #update()} (e.g. {@code Actions.runBlocking})
+ * still get a usable clock: a latch older than {@link #MAX_LATCH_AGE_NS} is
+ * ignored and the live time returned instead.
+ */
+public class LoopClock implements Clock {
+    public static final long MAX_LATCH_AGE_NS = 250 * NANOS_PER_MILLI;
+
+    private long latchedTime;
+    private boolean latched = false;
+
+    @Override
+    public void update() {
+        latchedTime = System.nanoTime();
+        latched = true;
+    }
+
+    @Override
+    public long nanoTime() {
+        long now = System.nanoTime();
+        if (latched && now - latchedTime < MAX_LATCH_AGE_NS) {
+            return latchedTime;
+        }
+        latched = false;
+        return now;
+    }
+}
@@ -0,0 +1,39 @@
+package org.firstinspires.ftc.teamcode.utils.timing;
+
+/**
+ * Manually advanced clock for headless and faster-than-real-time runs.
+ * Time only moves when {@link #advance(long)} or {@link #setNanoTime(long)} is called.
+ */
+public class VirtualClock implements Clock {
+    private long time;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    public VirtualClock(long startNanos) {
+        this.time = startNanos;
+    }
+
+    @Override
+    public void update() {
+        // Time is driven explicitly by advance()
+    }
+
+    @Override
+    public long nanoTime() {
+        return time;
+    }
+
+    public void advance(long nanos) {
+        time += nanos;
+    }
+
+    public void advanceMillis(double millis) {
+        time += (long) (millis * NANOS_PER_MILLI);
+    }
+
+    public void setNanoTime(long nanos) {
+        this.time = nanos;
+    }
+}